@@ -1,3 +1,6 @@
+import filters.AdmissionControlFilter;
+import filters.RequestMetricsFilter;
+import filters.ResponseCacheFilter;
 import play.Environment;
 import play.api.http.EnabledFilters;
 import play.filters.cors.CORSFilter;
@@ -14,13 +17,21 @@ public class Filters extends DefaultHttpFilters {
     private final EssentialFilter jwtFilter;
     private final EnabledFilters enabledFilters;
     private final CORSFilter corsFilter;
+    private final EssentialFilter admissionControlFilter;
+    private final EssentialFilter requestMetricsFilter;
+    private final EssentialFilter responseCacheFilter;
 
     @Inject
-    public Filters(Environment env, JwtFilter jwtFilter, EnabledFilters enabledFilters, CORSFilter corsFilter) {
+    public Filters(Environment env, JwtFilter jwtFilter, EnabledFilters enabledFilters, CORSFilter corsFilter,
+                   AdmissionControlFilter admissionControlFilter, RequestMetricsFilter requestMetricsFilter,
+                   ResponseCacheFilter responseCacheFilter) {
         this.env = env;
         this.jwtFilter = jwtFilter;
         this.enabledFilters = enabledFilters;
         this.corsFilter = corsFilter;
+        this.admissionControlFilter = admissionControlFilter;
+        this.requestMetricsFilter = requestMetricsFilter;
+        this.responseCacheFilter = responseCacheFilter;
     }
 
     private static List<EssentialFilter> combine(List<EssentialFilter> filters, EssentialFilter toAppend) {
@@ -32,7 +43,10 @@ public class Filters extends DefaultHttpFilters {
     @Override
     public List<EssentialFilter> getFilters() {
         List<EssentialFilter> zeFilters = enabledFilters.asJava().getFilters();
+        zeFilters.add(0, requestMetricsFilter);
         zeFilters.add(corsFilter.asJava());
+        zeFilters.add(responseCacheFilter);
+        zeFilters.add(admissionControlFilter);
         zeFilters.add(jwtFilter);
         return zeFilters;
     }
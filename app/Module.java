@@ -1,35 +1,63 @@
 import com.google.inject.AbstractModule;
+import com.google.inject.matcher.AbstractMatcher;
 import com.google.inject.name.Names;
+import com.typesafe.config.Config;
 import data.repositories.*;
 import data.repositories.imp.*;
 import io.ebean.EbeanServer;
+import metrics.HikariMetrics;
+import metrics.JvmMetrics;
+import metrics.MetricsRegistry;
+import metrics.RepositoryCallsInterceptor;
+import play.Environment;
 import security.JwtCenter;
 import security.SocialTokenVerifier;
+import security.filter.VerifiedJwtCache;
 import security.imp.JwtCenterImp;
 import security.imp.SocialTokenVerifierDevModeImp;
 import security.imp.SocialTokenVerifierFacebookImp;
 import security.imp.SocialTokenVerifierGoogleImp;
 import services.*;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
 /**
  * Module for bindings.
  */
 public class Module extends AbstractModule {
+    private final Config config;
+
+    public Module(Environment environment, Config config) {
+        this.config = config;
+    }
+
     @Override
     protected void configure() {
         bind(EbeanServer.class).toProvider(EbeanServerProvider.class);
+        bind(IngredientNameIndex.class).asEagerSingleton();
         bind(IngredientNameRepository.class).to(EbeanIngredientNameRepository.class).asEagerSingleton();
-        bind(RecipeRepository.class).to(EbeanRecipeRepository.class).asEagerSingleton();
+        bindRecipeRepository();
         bind(SourcePageRepository.class).to(EbeanSourcePageRepository.class).asEagerSingleton();
         bind(FavoriteRecipeRepository.class).to(EbeanFavoriteRecipeRepository.class).asEagerSingleton();
         bind(RecipeSearchRepository.class).to(EbeanRecipeSearchRepository.class).asEagerSingleton();
         bind(JwtCenter.class).to(JwtCenterImp.class).asEagerSingleton();
+        bind(VerifiedJwtCache.class).asEagerSingleton();
         bind(UserRepository.class).to(EbeanUserRepository.class).asEagerSingleton();
         bind(SocialTokenVerifier.class).annotatedWith(Names.named("Google")).to(SocialTokenVerifierGoogleImp.class).asEagerSingleton();
         bind(SocialTokenVerifier.class).annotatedWith(Names.named("Facebook")).to(SocialTokenVerifierFacebookImp.class).asEagerSingleton();
         bind(SocialTokenVerifier.class).annotatedWith(Names.named("Dev")).to(SocialTokenVerifierDevModeImp.class).asEagerSingleton();
         bind(IngredientTagRepository.class).to(EbeanIngredientTagRepository.class).asEagerSingleton();
+        bind(IngredientTagExpansionCache.class).asEagerSingleton();
+        bind(SystemIngredientTags.class).asEagerSingleton();
+        bind(IngredientRecipeCounts.class).asEagerSingleton();
+        bind(IngredientNameDictionary.class).asEagerSingleton();
         bind(RecipesService.class).asEagerSingleton();
+        bind(RecipesResultCache.class).asEagerSingleton();
+        bind(MetricsRegistry.class).asEagerSingleton();
+        bind(HikariMetrics.class).asEagerSingleton();
+        bind(JvmMetrics.class).asEagerSingleton();
+        bindRepositoryCallsInterceptor();
         bind(RecipeSearchRepository.class).to(EbeanRecipeSearchRepository.class).asEagerSingleton();
         bind(UserSearchRepository.class).to(EbeanUserSearchRepository.class).asEagerSingleton();
         bind(GlobalSearchRepository.class).to(EbeanGlobalSearchRepository.class).asEagerSingleton();
@@ -44,5 +72,35 @@ public class Module extends AbstractModule {
         bind(ShoppingListService.class).asEagerSingleton();
         bind(MenuService.class).asEagerSingleton();
         bind(MenuRepository.class).to(EbeanMenuRepository.class).asEagerSingleton();
+        bind(WarmUpService.class).asEagerSingleton();
+    }
+
+    private void bindRepositoryCallsInterceptor() {
+        AbstractMatcher<Class<?>> repositories = new AbstractMatcher<Class<?>>() {
+            @Override
+            public boolean matches(Class<?> c) {
+                return c.getName().startsWith("data.repositories.imp.") && c.getSimpleName().endsWith("Repository");
+            }
+        };
+
+        AbstractMatcher<Method> publicMethods = new AbstractMatcher<Method>() {
+            @Override
+            public boolean matches(Method m) {
+                return Modifier.isPublic(m.getModifiers()) && !m.isSynthetic() && m.getDeclaringClass() != Object.class;
+            }
+        };
+
+        bindInterceptor(repositories, publicMethods,
+                new RepositoryCallsInterceptor(getProvider(MetricsRegistry.class)));
+    }
+
+    private void bindRecipeRepository() {
+        String recipeRepository = config.getString("cooksm.art.recipes.repository");
+        if ("bitmap".equals(recipeRepository)) {
+            bind(EbeanRecipeRepository.class).asEagerSingleton();
+            bind(RecipeRepository.class).to(BitmapRecipeRepository.class).asEagerSingleton();
+        } else {
+            bind(RecipeRepository.class).to(EbeanRecipeRepository.class).asEagerSingleton();
+        }
     }
 }
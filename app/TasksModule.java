@@ -1,9 +1,11 @@
 import com.google.inject.AbstractModule;
+import tasks.BackfillRecipeSearchTagsTask;
 import tasks.CleanExpiredRecipeSearchesTask;
 
 public class TasksModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(CleanExpiredRecipeSearchesTask.class).asEagerSingleton();
+        bind(BackfillRecipeSearchTagsTask.class).asEagerSingleton();
     }
 }
@@ -48,16 +48,15 @@ public class FavoriteRecipesController extends Controller {
         VerifiedJwt jwt = SecurityUtils.getFromRequest(request);
         logger.info("single(): id = {}, user id = ", id, jwt.getUserId());
 
-        return supplyAsync(() -> {
-            FavoriteRecipe favoriteRecipe = repository.single(id, jwt.getUserId());
-
-            if (favoriteRecipe == null) {
-                return notFound();
-            }
-
-            FavoriteRecipeDto dto = DtoMapper.toDto(favoriteRecipe);
-            return ok(Json.toJson(dto));
-        }, dbExecContext)
+        return supplyAsync(() -> repository.single(id, jwt.getUserId()), dbExecContext)
+                .thenApplyAsync(favoriteRecipe -> {
+                    if (favoriteRecipe == null) {
+                        return notFound();
+                    }
+
+                    FavoriteRecipeDto dto = DtoMapper.toDto(favoriteRecipe);
+                    return ok(Json.toJson(dto));
+                })
                 .exceptionally(mapExceptionWithUnpack);
 
     }
@@ -65,10 +64,8 @@ public class FavoriteRecipesController extends Controller {
     public CompletionStage<Result> all(Http.Request request) {
         VerifiedJwt jwt = SecurityUtils.getFromRequest(request);
         logger.info("allOfUser(): user id = {}", jwt.getUserId());
-        return supplyAsync(() -> {
-            List<FavoriteRecipe> favoriteRecipes = repository.all(jwt.getUserId());
-            return toResult(favoriteRecipes);
-        }, dbExecContext)
+        return supplyAsync(() -> repository.all(jwt.getUserId()), dbExecContext)
+                .thenApplyAsync(FavoriteRecipesController::toResult)
                 .exceptionally(mapExceptionWithUnpack);
     }
 
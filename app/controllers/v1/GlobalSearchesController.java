@@ -1,7 +1,6 @@
 package controllers.v1;
 
 import data.DatabaseExecutionContext;
-import data.entities.GlobalSearch;
 import data.repositories.GlobalSearchRepository;
 import lombokized.dto.GlobalSearchDto;
 import play.Logger;
@@ -28,11 +27,11 @@ public class GlobalSearchesController extends Controller {
 
     public CompletionStage<Result> all() {
         logger.info("all()");
-        return supplyAsync(() -> {
-            List<GlobalSearch> globalSearches = repository.all();
-            List<GlobalSearchDto> dtoList = globalSearches.stream().map(DtoMapper::toDto)
-                    .collect(Collectors.toList());
-            return ok(Json.toJson(dtoList));
-        }, dbExecContext);
+        return supplyAsync(() -> repository.all(), dbExecContext)
+                .thenApplyAsync(globalSearches -> {
+                    List<GlobalSearchDto> dtoList = globalSearches.stream().map(DtoMapper::toDto)
+                            .collect(Collectors.toList());
+                    return ok(Json.toJson(dtoList));
+                });
     }
 }
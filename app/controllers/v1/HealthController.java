@@ -0,0 +1,22 @@
+package controllers.v1;
+
+import play.mvc.Controller;
+import play.mvc.Http;
+import play.mvc.Result;
+import services.WarmUpService;
+
+import javax.inject.Inject;
+
+public class HealthController extends Controller {
+    @Inject
+    private WarmUpService warmUpService;
+
+    // Load balancers should route traffic to the node only when this is OK.
+    public Result ready() {
+        if (warmUpService.isReady()) {
+            return ok();
+        }
+
+        return status(Http.Status.SERVICE_UNAVAILABLE);
+    }
+}
@@ -1,12 +1,13 @@
 package controllers.v1;
 
-import data.DatabaseExecutionContext;
+import data.SearchExecutionContext;
 import lombokized.dto.IngredientNameDto;
 import lombokized.dto.PageDto;
 import lombokized.queryparams.IngredientNameByIngredientIdsQueryParams;
 import lombokized.queryparams.IngredientNameQueryParams;
 import data.entities.IngredientName;
 import data.repositories.IngredientNameRepository;
+import data.repositories.imp.IngredientNameIndex;
 import lombokized.repositories.Page;
 import play.Logger;
 import play.data.Form;
@@ -16,6 +17,7 @@ import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
 import services.DtoMapper;
+import services.IngredientNameDictionary;
 
 import javax.inject.Inject;
 import java.util.List;
@@ -31,7 +33,13 @@ public class IngredientNamesController extends Controller {
     private IngredientNameRepository repository;
 
     @Inject
-    private DatabaseExecutionContext dbExecContext;
+    private IngredientNameIndex index;
+
+    @Inject
+    private IngredientNameDictionary dictionary;
+
+    @Inject
+    private SearchExecutionContext searchExecContext;
 
     @Inject
     private FormFactory formFactory;
@@ -52,10 +60,17 @@ public class IngredientNamesController extends Controller {
 
             logger.info("pageNames(): params = {}", params);
 
+            // Served right away from the index, once it's loaded.
+            if (index.isLoaded()) {
+                Page<IngredientName> ingredientNamePage = repository.page(params.getNameLike(), params.getLanguageId(), params.getLimit(), params.getOffset());
+                return completedFuture(ok(toJson(toDto(ingredientNamePage))));
+            }
+
             return supplyAsync(() -> {
                 Page<IngredientName> ingredientNamePage = repository.page(params.getNameLike(), params.getLanguageId(), params.getLimit(), params.getOffset());
-                return toResult(ingredientNamePage);
-            }, dbExecContext);
+                return toDto(ingredientNamePage);
+            }, searchExecContext)
+                    .thenApplyAsync(pageDto -> ok(toJson(pageDto)));
         }
     }
 
@@ -69,27 +84,20 @@ public class IngredientNamesController extends Controller {
         } else {
             IngredientNameByIngredientIdsQueryParams queryParams = form.get();
             logger.info("byIngredientIds(): queryParams = {}", queryParams);
-            return supplyAsync(() -> {
-                List<IngredientName> entities = repository.byIngredientIds(queryParams.getIngredientIds(), queryParams.getLanguageId());
-                return toResult(entities);
-            }, dbExecContext);
+            return supplyAsync(() -> dictionary.byIngredientIds(queryParams.getIngredientIds(), queryParams.getLanguageId()),
+                    searchExecContext)
+                    .thenApplyAsync(dtos -> ok(toJson(dtos)));
         }
     }
 
-    private Result toResult(Page<IngredientName> page) {
-        List<IngredientNameDto> dtos = page.getItems()
-                .stream()
-                .map(DtoMapper::toDto)
-                .collect(Collectors.toList());
-
-        return ok(toJson(new PageDto<>(dtos, page.getTotalCount())));
+    // Mapping may lazy load alternative names, so it's done on the database dispatcher.
+    private static PageDto<IngredientNameDto> toDto(Page<IngredientName> page) {
+        return new PageDto<>(toDtos(page.getItems()), page.getTotalCount());
     }
 
-    private Result toResult(List<IngredientName> ingredientNames) {
-        List<IngredientNameDto> dtos = ingredientNames.stream()
+    private static List<IngredientNameDto> toDtos(List<IngredientName> ingredientNames) {
+        return ingredientNames.stream()
                 .map(DtoMapper::toDto)
                 .collect(Collectors.toList());
-
-        return ok(toJson(dtos));
     }
 }
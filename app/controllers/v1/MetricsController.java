@@ -0,0 +1,51 @@
+package controllers.v1;
+
+import com.typesafe.config.Config;
+import metrics.MetricsRegistry;
+import metrics.PrometheusFormat;
+import play.Logger;
+import play.mvc.Controller;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+// Exposes the metrics in Prometheus text format. Scrapers must send the configured token in the X-Metrics-Token
+// header; the endpoint doesn't exist when no token is configured.
+public class MetricsController extends Controller {
+    private final MetricsRegistry metrics;
+    private final String token;
+
+    private static final String TOKEN_HEADER = "X-Metrics-Token";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger.ALogger logger = Logger.of(MetricsController.class);
+
+    @Inject
+    public MetricsController(MetricsRegistry metrics, Config config) {
+        this.metrics = metrics;
+        token = config.getString("cooksm.art.metrics.token");
+    }
+
+    public Result metrics(Http.Request request) {
+        if (token.isEmpty()) {
+            return notFound();
+        }
+
+        if (!isTokenValid(request.header(TOKEN_HEADER))) {
+            logger.warn("metrics(): invalid token");
+            return forbidden();
+        }
+
+        return ok(PrometheusFormat.of(metrics)).as(CONTENT_TYPE);
+    }
+
+    private boolean isTokenValid(Optional<String> requestToken) {
+        return requestToken
+                .map(t -> MessageDigest.isEqual(t.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8)))
+                .orElse(false);
+    }
+}
@@ -32,16 +32,18 @@ public class SourcePagesController extends Controller {
         logger.info("sourcePages()");
         return supplyAsync(() -> {
             Page<SourcePage> sourcePagesPage = repository.allSourcePages();
-            return toResult(sourcePagesPage);
-        }, dbExecContext);
+            return toDto(sourcePagesPage);
+        }, dbExecContext)
+                .thenApplyAsync(pageDto -> ok(toJson(pageDto)));
     }
 
-    private static Result toResult(Page<SourcePage> p) {
+    // Mapping may lazy load the language, so it's done on the database dispatcher.
+    private static PageDto<SourcePageDto> toDto(Page<SourcePage> p) {
         List<SourcePageDto> l = p.getItems()
                 .stream()
                 .map(DtoMapper::toDto)
                 .collect(Collectors.toList());
 
-        return ok(toJson(new PageDto<>(l, p.getTotalCount())));
+        return new PageDto<>(l, p.getTotalCount());
     }
 }
@@ -1,16 +1,16 @@
 package data;
 
 import akka.actor.ActorSystem;
-import play.libs.concurrent.CustomExecutionContext;
+import metrics.MetricsRegistry;
 
 import javax.inject.Inject;
 
 /**
- * Custom execution context wired to "database.dispatcher" thread pool
+ * Custom execution context wired to "database.dispatcher" thread pool, used for interactive CRUD operations.
  */
-public class DatabaseExecutionContext extends CustomExecutionContext {
+public class DatabaseExecutionContext extends InstrumentedExecutionContext {
     @Inject
-    public DatabaseExecutionContext(ActorSystem actorSystem) {
-        super(actorSystem, "database.dispatcher");
+    public DatabaseExecutionContext(ActorSystem actorSystem, MetricsRegistry metrics) {
+        super(actorSystem, "database.dispatcher", metrics);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package data;
+
+import akka.actor.ActorSystem;
+import metrics.Gauge;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import play.libs.concurrent.CustomExecutionContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Custom execution context recording queue depth, busy threads, wait time and thread hold time of its tasks.
+ */
+public abstract class InstrumentedExecutionContext extends CustomExecutionContext {
+    private final Gauge queueDepth;
+    private final Gauge activeThreads;
+    private final Histogram waitTime;
+    private final Histogram holdTime;
+    // Queue times of the waiting tasks by their tickets; the first entry is the task waiting for the longest time.
+    private final ConcurrentSkipListMap<Long, Long> queuedNanosByTicket = new ConcurrentSkipListMap<>();
+    private final AtomicLong tickets = new AtomicLong();
+
+    protected InstrumentedExecutionContext(ActorSystem actorSystem, String name, MetricsRegistry metrics) {
+        super(actorSystem, name);
+        queueDepth = metrics.gauge("dispatcher_queue_depth", "Number of tasks waiting for a dispatcher thread.",
+                "dispatcher", name);
+        activeThreads = metrics.gauge("dispatcher_active_threads", "Number of dispatcher threads running a task.",
+                "dispatcher", name);
+        waitTime = metrics.histogram("dispatcher_wait_ms", "Time a task waits for a dispatcher thread.",
+                Histogram.LATENCY_MS_BUCKETS, "dispatcher", name);
+        holdTime = metrics.histogram("dispatcher_hold_ms", "Time a dispatcher thread is held by a task.",
+                Histogram.LATENCY_MS_BUCKETS, "dispatcher", name);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long ticket = tickets.incrementAndGet();
+        long queuedNanos = System.nanoTime();
+        queuedNanosByTicket.put(ticket, queuedNanos);
+        queueDepth.increment();
+        try {
+            super.execute(() -> {
+                dequeue(ticket);
+                long startNanos = System.nanoTime();
+                waitTime.observe(TimeUnit.NANOSECONDS.toMillis(startNanos - queuedNanos));
+                activeThreads.increment();
+                try {
+                    command.run();
+                } finally {
+                    activeThreads.decrement();
+                    holdTime.observe(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                }
+            });
+        } catch (RuntimeException e) {
+            dequeue(ticket);
+            throw e;
+        }
+    }
+
+    private void dequeue(long ticket) {
+        queuedNanosByTicket.remove(ticket);
+        queueDepth.decrement();
+    }
+
+    public long queueDepth() {
+        return queueDepth.value();
+    }
+
+    // How long the oldest task still in the queue has been waiting; 0 when the queue is empty. Unlike an average
+    // of past waits, it drops as soon as the backlog is worked off, even if no new tasks arrive.
+    public long oldestQueuedWaitMs() {
+        Map.Entry<Long, Long> oldest = queuedNanosByTicket.firstEntry();
+        if (oldest == null) {
+            return 0;
+        }
+
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.getValue());
+    }
+}
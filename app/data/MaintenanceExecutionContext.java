@@ -0,0 +1,16 @@
+package data;
+
+import akka.actor.ActorSystem;
+import metrics.MetricsRegistry;
+
+import javax.inject.Inject;
+
+/**
+ * Custom execution context wired to "maintenance.dispatcher" thread pool, used for background jobs.
+ */
+public class MaintenanceExecutionContext extends InstrumentedExecutionContext {
+    @Inject
+    public MaintenanceExecutionContext(ActorSystem actorSystem, MetricsRegistry metrics) {
+        super(actorSystem, "maintenance.dispatcher", metrics);
+    }
+}
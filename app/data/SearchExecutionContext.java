@@ -0,0 +1,16 @@
+package data;
+
+import akka.actor.ActorSystem;
+import metrics.MetricsRegistry;
+
+import javax.inject.Inject;
+
+/**
+ * Custom execution context wired to "search.dispatcher" thread pool, used for recipe and ingredient searches.
+ */
+public class SearchExecutionContext extends InstrumentedExecutionContext {
+    @Inject
+    public SearchExecutionContext(ActorSystem actorSystem, MetricsRegistry metrics) {
+        super(actorSystem, "search.dispatcher", metrics);
+    }
+}
@@ -67,4 +67,8 @@ public class IngredientName {
     public List<IngredientAltName> getAltNames() {
         return altNames;
     }
+
+    public void setAltNames(List<IngredientAltName> altNames) {
+        this.altNames = altNames;
+    }
 }
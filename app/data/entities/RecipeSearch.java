@@ -2,6 +2,7 @@ package data.entities;
 
 import javax.persistence.*;
 import java.time.Instant;
+import java.util.List;
 
 @Entity
 @Table(name = "recipe_search")
@@ -22,6 +23,10 @@ public class RecipeSearch {
     @Column(name = "is_permanent")
     private boolean isPermanent;
 
+    // Ingredient tags referenced by the query, so searches referencing a tag are found without parsing queries.
+    @OneToMany(mappedBy = "search", cascade = CascadeType.REMOVE)
+    private List<RecipeSearchTag> tags;
+
     public Long getId() {
         return id;
     }
@@ -53,4 +58,12 @@ public class RecipeSearch {
     public void setPermanent(boolean permanent) {
         isPermanent = permanent;
     }
+
+    public List<RecipeSearchTag> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<RecipeSearchTag> tags) {
+        this.tags = tags;
+    }
 }
@@ -0,0 +1,43 @@
+package data.entities;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "recipe_search_tag")
+public class RecipeSearchTag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "recipe_search_id")
+    private RecipeSearch search;
+
+    @Column(name = "ingredient_tag_id", nullable = false)
+    private Long ingredientTagId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RecipeSearch getSearch() {
+        return search;
+    }
+
+    public void setSearch(RecipeSearch search) {
+        this.search = search;
+    }
+
+    public Long getIngredientTagId() {
+        return ingredientTagId;
+    }
+
+    public void setIngredientTagId(Long ingredientTagId) {
+        this.ingredientTagId = ingredientTagId;
+    }
+}
@@ -3,13 +3,14 @@ package data.repositories;
 import data.entities.IngredientTag;
 import data.entities.IngredientTagName;
 import data.entities.UserSearch;
+import lombokized.dto.IngredientTagDto;
 import lombokized.repositories.IngredientTagRepositoryParams;
 import lombokized.repositories.Page;
 
 import java.util.List;
 
 public interface IngredientTagRepository {
-    Page<IngredientTag> page(IngredientTagRepositoryParams.Page params);
+    Page<IngredientTagDto> page(IngredientTagRepositoryParams.Page params);
     List<IngredientTag> byIds(List<Long> ids);
     IngredientTag byNameOfUser(Long userId, String name, Long languageId);
     Integer count(Long userId);
@@ -1,6 +1,7 @@
 package data.repositories;
 
 import data.entities.RecipeBook;
+import lombokized.dto.RecipeDto;
 import lombokized.repositories.Page;
 import lombokized.repositories.RecipeRepositoryParams.*;
 import data.entities.Recipe;
@@ -9,9 +10,11 @@ import java.util.List;
 import java.util.concurrent.CompletionStage;
 
 public interface RecipeRepository {
-    Page<Recipe> pageOfQueryTypeNumber(QueryTypeNumber params);
-    Page<Recipe> pageOfQueryTypeRatio(QueryTypeRatio params);
-    Page<Recipe> pageOfQueryTypeNone(Common params);
+    // Pages contain ids of recipes, use dtosOf() to load them.
+    Page<Long> pageOfQueryTypeNumber(QueryTypeNumber params);
+    Page<Long> pageOfQueryTypeRatio(QueryTypeRatio params);
+    Page<Long> pageOfQueryTypeNone(Common params);
+    List<RecipeDto> dtosOf(List<Long> ids, Long languageId);
     Recipe single(Long id);
     List<RecipeBook> recipeBooksOf(Long id, Long userId);
 }
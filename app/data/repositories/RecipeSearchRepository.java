@@ -4,13 +4,18 @@ import data.entities.RecipeSearch;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 public interface RecipeSearchRepository {
-    RecipeSearch create(String query, boolean isPermanent);
+    RecipeSearch create(String query, boolean isPermanent, Set<Long> ingredientTagIds);
     Boolean delete(Long id);
     Integer deleteAll(List<Long> ids);
     RecipeSearch single(Long id);
     List<Long> queryNonPermanentOlderThan(Instant instant);
     int countAll();
-    RecipeSearch update(String query, boolean isPermanent, Long id);
+    RecipeSearch update(String query, boolean isPermanent, Long id, Set<Long> ingredientTagIds);
+    List<RecipeSearch> recentlyAccessed(int limit);
+    List<Long> permanentWithoutTagReferences();
+    boolean addTagReferencesIfNone(Long id, Function<String, Set<Long>> ingredientTagIdsOfQuery);
 }
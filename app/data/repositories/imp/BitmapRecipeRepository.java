@@ -0,0 +1,393 @@
+package data.repositories.imp;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import data.entities.Recipe;
+import data.entities.RecipeBook;
+import data.repositories.RecipeRepository;
+import io.ebean.EbeanServer;
+import lombokized.dto.RecipeDto;
+import lombokized.repositories.Page;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import org.roaringbitmap.RoaringBitmap;
+import play.Logger;
+import scala.concurrent.duration.Duration;
+
+import javax.inject.Inject;
+import java.text.Collator;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+import static lombokized.repositories.RecipeRepositoryParams.*;
+
+// Answers composed-of queries from an in-memory bitmap index. Queries depending on user data (favorites, recipe books),
+// or on name similarity are delegated to the SQL based repository.
+public class BitmapRecipeRepository implements RecipeRepository {
+    private final EbeanServer ebean;
+    private final EbeanRecipeRepository ebeanRepository;
+    private final IngredientTagExpansionCache tagExpansionCache;
+    private final MetricsRegistry metrics;
+    // Histograms of query shapes (by type, exclude, and additional), resolved on the first query of each shape.
+    private final AtomicReferenceArray<ShapeHistograms> shapeHistograms = new AtomicReferenceArray<>(8);
+    private final Collator collator;
+    private volatile RecipeBitmapIndex index;
+
+    private static final int DEFAULT_OFFSET = 0;
+    private static final int DEFAULT_LIMIT = 50;
+
+    private static final Logger.ALogger logger = Logger.of(BitmapRecipeRepository.class);
+
+    @Inject
+    public BitmapRecipeRepository(EbeanServer ebean, EbeanRecipeRepository ebeanRepository, Config config,
+                                  ActorSystem actorSystem, MaintenanceExecutionContext maintenanceExecContext,
+                                  IngredientTagExpansionCache tagExpansionCache, MetricsRegistry metrics) {
+        this.ebean = ebean;
+        this.ebeanRepository = ebeanRepository;
+        this.tagExpansionCache = tagExpansionCache;
+        this.metrics = metrics;
+        collator = Collator.getInstance(Locale.forLanguageTag(config.getString("cooksm.art.recipes.bitmapindex.collation")));
+
+        int refreshIntervalSecs = config.getInt("cooksm.art.recipes.bitmapindex.refresh.interval.secs");
+        actorSystem.scheduler().scheduleAtFixedRate(
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                this::refresh,
+                maintenanceExecContext);
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeNumber(QueryTypeNumber params) {
+        if (shouldDelegate(params.getCommon())) {
+            return ebeanRepository.pageOfQueryTypeNumber(params);
+        }
+
+        logger.info("pageOfQueryTypeNumber()");
+        long startNanos = System.nanoTime();
+        RecipeBitmapIndex currentIndex = index();
+        List<RoaringBitmap> included = currentIndex.postingsOf(resolveIncluded(params.getIncludedIngredients(), params.getCommon()));
+        AdditionalMatcher additionalMatcher = createAdditionalMatcher(currentIndex, params.getAdditionalIngredients(), params.getCommon());
+
+        RoaringBitmap candidates = candidatesOf(currentIndex, included, params.getCommon());
+        List<Integer> matching = new ArrayList<>();
+        candidates.forEach((int position) -> {
+            int good = RecipeBitmapIndex.countContaining(included, position);
+            int unknown = currentIndex.numofings[position] - good;
+            if (isTrue(good, params.getGoodIngredientsRelation(), params.getGoodIngredients()) &&
+                    isTrue(unknown, params.getUnknownIngredientsRelation(), params.getUnknownIngredients()) &&
+                    additionalMatcher.matches(position)) {
+                matching.add(position);
+            }
+        });
+
+        ShapeHistograms histograms = histogramsOf("number", params.getCommon(), params.getAdditionalIngredients());
+        return toPage(currentIndex, matching, params.getCommon(), histograms, startNanos);
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeRatio(QueryTypeRatio params) {
+        if (shouldDelegate(params.getCommon())) {
+            return ebeanRepository.pageOfQueryTypeRatio(params);
+        }
+
+        logger.info("pageOfQueryTypeRatio()");
+        long startNanos = System.nanoTime();
+        RecipeBitmapIndex currentIndex = index();
+        List<RoaringBitmap> included = currentIndex.postingsOf(resolveIncluded(params.getIncludedIngredients(), params.getCommon()));
+        AdditionalMatcher additionalMatcher = createAdditionalMatcher(currentIndex, params.getAdditionalIngredients(), params.getCommon());
+
+        RoaringBitmap candidates = candidatesOf(currentIndex, included, params.getCommon());
+        List<Integer> matching = new ArrayList<>();
+        candidates.forEach((int position) -> {
+            int numofings = currentIndex.numofings[position];
+            int good = RecipeBitmapIndex.countContaining(included, position);
+            if (numofings > 0 && (good * 1.0) / (numofings * 1.0) >= params.getGoodIngredientsRatio() &&
+                    additionalMatcher.matches(position)) {
+                matching.add(position);
+            }
+        });
+
+        ShapeHistograms histograms = histogramsOf("ratio", params.getCommon(), params.getAdditionalIngredients());
+        return toPage(currentIndex, matching, params.getCommon(), histograms, startNanos);
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeNone(Common params) {
+        return ebeanRepository.pageOfQueryTypeNone(params);
+    }
+
+    @Override
+    public List<RecipeDto> dtosOf(List<Long> ids, Long languageId) {
+        return ebeanRepository.dtosOf(ids, languageId);
+    }
+
+    @Override
+    public Recipe single(Long id) {
+        return ebeanRepository.single(id);
+    }
+
+    @Override
+    public List<RecipeBook> recipeBooksOf(Long id, Long userId) {
+        return ebeanRepository.recipeBooksOf(id, userId);
+    }
+
+    public void refresh() {
+        logger.info("refresh()");
+        RecipeBitmapIndex refreshed = RecipeBitmapIndex.load(ebean, collator);
+        index = refreshed;
+        logger.info("refresh(): indexed {} recipes", refreshed.size());
+    }
+
+    private RecipeBitmapIndex index() {
+        if (index == null) {
+            synchronized (this) {
+                if (index == null) {
+                    refresh();
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private static boolean shouldDelegate(Common params) {
+        boolean useFavoritesOnly = params.getUserId() != null && Boolean.TRUE.equals(params.getUseFavoritesOnly());
+        boolean useRecipeBooks = params.getUsedRecipeBooks() != null && params.getUsedRecipeBooks().size() > 0;
+        boolean useNameLike = params.getNameLike() != null && params.getNameLike().length() > 0;
+
+        return useFavoritesOnly || useRecipeBooks || useNameLike;
+    }
+
+    private RoaringBitmap candidatesOf(RecipeBitmapIndex currentIndex, List<RoaringBitmap> included, Common params) {
+        RoaringBitmap candidates = RoaringBitmap.or(included.iterator());
+
+        Set<Long> excluded = resolve(params.getExcludedIngredients(), params.getExcludedIngredientTags(), params.getUserId());
+        if (excluded.size() > 0) {
+            candidates.andNot(currentIndex.unionOf(excluded));
+        }
+
+        Set<Long> sourcePageIds = params.getSourcePageIds() == null ? null : new HashSet<>(params.getSourcePageIds());
+        Set<Integer> times = params.getTimes() == null ? null : new HashSet<>(params.getTimes());
+        Integer max = params.getMaximumNumberOfIngredients();
+        Integer min = params.getMinimumNumberOfIngredients();
+
+        RoaringBitmap filtered = new RoaringBitmap();
+        candidates.forEach((int position) -> {
+            int numofings = currentIndex.numofings[position];
+            boolean isOk = (max == null || max <= 0 || numofings <= max) &&
+                    (min == null || min < 0 || numofings >= min) &&
+                    (sourcePageIds == null || sourcePageIds.isEmpty() || sourcePageIds.contains(currentIndex.sourcePageIds[position])) &&
+                    (times == null || times.isEmpty() || times.contains(currentIndex.times[position]));
+            if (isOk) {
+                filtered.add(position);
+            }
+        });
+
+        return filtered;
+    }
+
+    private AdditionalMatcher createAdditionalMatcher(RecipeBitmapIndex currentIndex, Optional<AdditionalIngredients> additionals, Common params) {
+        if (!additionals.isPresent()) {
+            return position -> true;
+        }
+
+        AdditionalIngredients additionalParams = additionals.get();
+        Set<Long> ids = resolve(additionalParams.getAdditionalIngredients(), additionalParams.getAdditionalIngredientTags(), params.getUserId());
+        List<RoaringBitmap> postings = currentIndex.postingsOf(ids);
+
+        // Recipes without any additional ingredient never match, same as in the SQL based query.
+        return position -> {
+            int count = RecipeBitmapIndex.countContaining(postings, position);
+            return count > 0 && isTrue(count, additionalParams.getGoodAdditionalIngredientsRelation(),
+                    additionalParams.getGoodAdditionalIngredients());
+        };
+    }
+
+    private Set<Long> resolveIncluded(IncludedIngredients included, Common params) {
+        return resolve(included.getIncludedIngredients(), included.getIncludedIngredientTags(), params.getUserId());
+    }
+
+    private Set<Long> resolve(List<Long> ingredientIds, List<Long> ingredientTagIds, Long userId) {
+        Set<Long> resolved = new HashSet<>();
+        if (ingredientIds != null) {
+            resolved.addAll(ingredientIds);
+        }
+
+        if (ingredientTagIds != null && ingredientTagIds.size() > 0) {
+            EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(tagExpansionCache, userId);
+            resolved.addAll(resolver.resolve(ingredientTagIds));
+        }
+
+        return resolved;
+    }
+
+    private ShapeHistograms histogramsOf(String queryType, Common params, Optional<AdditionalIngredients> additionals) {
+        boolean useExclude = (params.getExcludedIngredients() != null && params.getExcludedIngredients().size() > 0) ||
+                (params.getExcludedIngredientTags() != null && params.getExcludedIngredientTags().size() > 0);
+        int index = ("ratio".equals(queryType) ? 4 : 0) | (useExclude ? 2 : 0) | (additionals.isPresent() ? 1 : 0);
+
+        ShapeHistograms histograms = shapeHistograms.get(index);
+        if (histograms == null) {
+            // Racing threads resolve the same histograms from the registry.
+            histograms = new ShapeHistograms(metrics, shapeOf(queryType, useExclude, additionals.isPresent()));
+            shapeHistograms.set(index, histograms);
+        }
+
+        return histograms;
+    }
+
+    // Same labels as the shape of the SQL based queries; the ones delegated to it are never answered here.
+    private static String[] shapeOf(String queryType, boolean useExclude, boolean useAdditionals) {
+        return new String[]{
+                "type", queryType,
+                "exclude", String.valueOf(useExclude),
+                "additional", String.valueOf(useAdditionals),
+                "favorites", "false",
+                "recipeBooks", "false",
+                "nameLike", "false"
+        };
+    }
+
+    private static class ShapeHistograms {
+        private final Histogram match;
+        private final Histogram sort;
+        private final Histogram rows;
+
+        private ShapeHistograms(MetricsRegistry metrics, String[] shape) {
+            match = metrics.histogram("recipes_query_bitmap_match_us", "Time of matching recipes in the bitmap index.",
+                    Histogram.LATENCY_US_BUCKETS, shape);
+            sort = metrics.histogram("recipes_query_bitmap_sort_us", "Time of ordering and paging the matching recipes.",
+                    Histogram.LATENCY_US_BUCKETS, shape);
+            rows = metrics.histogram("recipes_query_rows", "Number of recipes returned by the page query.",
+                    Histogram.ROW_COUNT_BUCKETS, shape);
+        }
+    }
+
+    private Page<Long> toPage(RecipeBitmapIndex currentIndex, List<Integer> matching, Common params,
+                              ShapeHistograms histograms, long startNanos) {
+        int offset = params.getOffset() == null ? DEFAULT_OFFSET : params.getOffset();
+        int limit = params.getLimit() == null ? DEFAULT_LIMIT : params.getLimit();
+        long matchUs = microsSince(startNanos);
+
+        long sortStartNanos = System.nanoTime();
+        matching.sort(createOrder(currentIndex, params));
+
+        int from = params.getSeekId() == null ? offset : firstAfterSeek(currentIndex, matching, params);
+        List<Long> pageIds = matching.stream()
+                .skip(from)
+                .limit(limit)
+                .map(position -> currentIndex.ids[position])
+                .collect(Collectors.toList());
+        long sortUs = microsSince(sortStartNanos);
+
+        histograms.match.observe(matchUs);
+        histograms.sort.observe(sortUs);
+        histograms.rows.observe(pageIds.size());
+
+        return new Page<>(pageIds, matching.size());
+    }
+
+    private static long microsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    private static int firstAfterSeek(RecipeBitmapIndex currentIndex, List<Integer> sorted, Common params) {
+        // Collators synchronize on comparing, so concurrent queries use their own copy.
+        Collator collator = (Collator) currentIndex.collator.clone();
+        int i = 0;
+        while (i < sorted.size() && !isAfterSeek(currentIndex, collator, sorted.get(i), params)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean isAfterSeek(RecipeBitmapIndex currentIndex, Collator collator, int position, Common params) {
+        int byId = Long.compare(currentIndex.ids[position], params.getSeekId());
+        if (params.getOrderBy() == null || params.getOrderBySort() == null) {
+            return byId > 0;
+        }
+
+        // Nulls are last ascending, so only nulls can follow a null.
+        int byValue;
+        if (params.getSeekValue() == null) {
+            byValue = isNullValue(currentIndex, position, params.getOrderBy()) ? 0 : -1;
+        } else if ("name".equals(params.getOrderBy())) {
+            String name = currentIndex.names[position];
+            byValue = name == null ? 1 : collator.compare(name, params.getSeekValue());
+        } else if ("numofings".equals(params.getOrderBy())) {
+            byValue = Integer.compare(currentIndex.numofings[position], Integer.parseInt(params.getSeekValue()));
+        } else {
+            int time = currentIndex.times[position];
+            byValue = time < 0 ? 1 : Integer.compare(time, Integer.parseInt(params.getSeekValue()));
+        }
+
+        if ("desc".equals(params.getOrderBySort())) {
+            byValue = -byValue;
+        }
+
+        return byValue > 0 || (byValue == 0 && byId > 0);
+    }
+
+    private static boolean isNullValue(RecipeBitmapIndex currentIndex, int position, String orderBy) {
+        if ("name".equals(orderBy)) {
+            return currentIndex.names[position] == null;
+        } else if ("time".equals(orderBy)) {
+            return currentIndex.times[position] < 0;
+        }
+
+        return false;
+    }
+
+    private static Comparator<Integer> createOrder(RecipeBitmapIndex currentIndex, Common params) {
+        // Positions follow the order of ids, so they serve as the unique tie breaker.
+        Comparator<Integer> byId = Comparator.naturalOrder();
+        if (params.getOrderBy() == null || params.getOrderBySort() == null) {
+            return byId;
+        }
+
+        Comparator<Integer> byOrderBy;
+        if ("name".equals(params.getOrderBy())) {
+            // Same as ORDER BY name of the database: by its collation, nulls last ascending, first descending.
+            byOrderBy = Comparator.comparingInt(position -> currentIndex.nameRanks[position]);
+        } else if ("numofings".equals(params.getOrderBy())) {
+            byOrderBy = Comparator.comparingInt(position -> currentIndex.numofings[position]);
+        } else if ("time".equals(params.getOrderBy())) {
+            // Missing times are held as -1, they are ordered as nulls by the database.
+            byOrderBy = Comparator.comparingInt(position ->
+                    currentIndex.times[position] < 0 ? Integer.MAX_VALUE : currentIndex.times[position]);
+        } else {
+            throw new IllegalArgumentException("Unknown order by: " + params.getOrderBy());
+        }
+
+        if ("desc".equals(params.getOrderBySort())) {
+            byOrderBy = byOrderBy.reversed();
+        }
+
+        return byOrderBy.thenComparing(byId);
+    }
+
+    private static boolean isTrue(int value, Relation relation, int threshold) {
+        switch (relation) {
+            case LT:
+                return value < threshold;
+            case LE:
+                return value <= threshold;
+            case EQ:
+                return value == threshold;
+            case GT:
+                return value > threshold;
+            case GE:
+                return value >= threshold;
+            default:
+                throw new IllegalArgumentException("Relation is invalid!");
+        }
+    }
+
+    private interface AdditionalMatcher {
+        boolean matches(int position);
+    }
+}
@@ -1,38 +1,59 @@
 package data.repositories.imp;
 
-import data.entities.Ingredient;
+import com.typesafe.config.Config;
 import data.entities.IngredientName;
 import data.repositories.IngredientNameRepository;
 import io.ebean.EbeanServer;
 import io.ebean.Query;
 import lombokized.repositories.Page;
+import play.Environment;
 import play.Logger;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 public class EbeanIngredientNameRepository implements IngredientNameRepository {
     private EbeanServer ebean;
+    private IngredientNameIndex index;
+    private boolean useNormalizedNames;
 
     private static final Logger.ALogger logger = Logger.of(EbeanIngredientNameRepository.class);
 
     @Inject
-    public EbeanIngredientNameRepository(EbeanServer ebean) {
+    public EbeanIngredientNameRepository(EbeanServer ebean, IngredientNameIndex index, Config config, Environment environment) {
         this.ebean = ebean;
+        this.index = index;
+        this.useNormalizedNames = config.getBoolean("cooksm.art.names.normalized.enabled") && !environment.isTest();
     }
 
     @Override
     public Page<IngredientName> page(String nameLike, Long languageId, int limit, int offset) {
         logger.info("page(): nameLike = {}, languageId = {}, limit = {}, offset = {}",
                 nameLike, languageId, limit, offset);
+        if (index.isEnabled()) {
+            return index.page(nameLike, languageId, limit, offset);
+        }
+
         Query<IngredientName> query = ebean.createQuery(IngredientName.class);
 
-        query.where()
-                .or()
-                .ilike("name", "%" + nameLike + "%")
-                .ilike("altNames.name", "%" + nameLike + "%")
-                .endOr();
+        // Columns of the subqueries are qualified, so Ebean doesn't take them for properties of the queried entity.
+        if (useNormalizedNames) {
+            String name = nameLike == null ? "" : nameLike;
+            query.where()
+                    .or()
+                    .raw("id IN (SELECT n.id FROM ingredient_name n " +
+                            "WHERE n.name_normalized LIKE ('%' || normalized_name(?) || '%'))", name)
+                    .raw("id IN (SELECT a.ingredient_name_id FROM ingredient_alt_name a " +
+                            "WHERE a.name_normalized LIKE ('%' || normalized_name(?) || '%'))", name)
+                    .endOr();
+        } else {
+            query.where()
+                    .or()
+                    .ilike("name", "%" + nameLike + "%")
+                    .ilike("altNames.name", "%" + nameLike + "%")
+                    .endOr();
+        }
         query.where().eq("language.id", languageId);
 
         query.setFirstRow(offset);
@@ -42,29 +63,35 @@ public class EbeanIngredientNameRepository implements IngredientNameRepository {
         return new Page<>(query.findList(), query.findCount());
     }
 
+    // Names are returned in the order of the ids. Throws if any of the ingredients has no name in the language.
     @Override
     public List<IngredientName> byIngredientIds(List<Long> ingredientIds, Long languageId) {
-        List<IngredientName> names = new ArrayList<>();
         logger.info("byIngredientIds(): ids = {}, languageId = {}", ingredientIds.toString(), languageId);
-        ingredientIds.forEach(id -> {
-            Ingredient ingredient = ebean.find(Ingredient.class, id);
-
-            if (ingredient == null) {
-                logger.warn("byIngredientIds(): ID is not valid. ID = " + id);
-                throw new IllegalArgumentException("ID is not valid. ID = " + id);
-            }
+        if (ingredientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-            IngredientName ingredientName = ingredient.getNames().stream()
-                    .filter(n -> n.getLanguage().getId().equals(languageId))
-                    .findFirst()
-                    .orElseThrow(() ->
-                            new IllegalArgumentException(
-                                    "Not found ingredient name with language id. ingredient ID = " + id + ", languageId = " + languageId)
-                    );
+        Set<Long> uniqueIds = new HashSet<>(ingredientIds);
+        Map<Long, IngredientName> namesByIngredientId = new HashMap<>();
+        ebean.createQuery(IngredientName.class)
+                .where()
+                .in("ingredient.id", uniqueIds)
+                .eq("language.id", languageId)
+                .findList()
+                .forEach(n -> namesByIngredientId.put(n.getIngredient().getId(), n));
 
-            names.add(ingredientName);
-        });
+        if (namesByIngredientId.size() < uniqueIds.size()) {
+            List<Long> missingIds = uniqueIds.stream()
+                    .filter(id -> !namesByIngredientId.containsKey(id))
+                    .sorted()
+                    .collect(Collectors.toList());
+            logger.warn("byIngredientIds(): not found ingredient names! ids = {}, languageId = {}", missingIds, languageId);
+            throw new IllegalArgumentException("Not found ingredient names with language id. ingredient IDs = " +
+                    missingIds + ", languageId = " + languageId);
+        }
 
-        return names;
+        return ingredientIds.stream()
+                .map(namesByIngredientId::get)
+                .collect(Collectors.toList());
     }
 }
@@ -1,53 +1,140 @@
 package data.repositories.imp;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
 import data.entities.*;
 import data.repositories.IngredientTagRepository;
 import data.repositories.exceptions.NotFoundException;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
-import io.ebean.Query;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
+import lombokized.dto.IngredientTagDto;
 import lombokized.repositories.IngredientTagRepositoryParams;
 import lombokized.repositories.Page;
+import play.Environment;
 import play.Logger;
 import play.libs.Json;
 import queryparams.RecipesQueryParams;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 
 public class EbeanIngredientTagRepository implements IngredientTagRepository {
     private EbeanServer ebean;
+    private IngredientTagExpansionCache tagExpansionCache;
+    private boolean useNormalizedNames;
+    // H2 has no window functions.
+    private boolean selectTotalCount;
 
     private static final Logger.ALogger logger = Logger.of(EbeanIngredientTagRepository.class);
 
     @Inject
-    public EbeanIngredientTagRepository(EbeanServer ebean) {
+    public EbeanIngredientTagRepository(EbeanServer ebean, IngredientTagExpansionCache tagExpansionCache,
+                                        Config config, Environment environment) {
         this.ebean = ebean;
+        this.tagExpansionCache = tagExpansionCache;
+        this.useNormalizedNames = config.getBoolean("cooksm.art.names.normalized.enabled") && !environment.isTest();
+        this.selectTotalCount = !environment.isTest();
     }
 
+    // Projection of the tags with their names in the language and ingredient ids, in one statement (plus a count
+    // on H2, which has no window functions). Entities are not loaded, so ingredients aren't lazy loaded per tag.
     @Override
-    public Page<IngredientTag> page(IngredientTagRepositoryParams.Page params) {
+    public Page<IngredientTagDto> page(IngredientTagRepositoryParams.Page params) {
         logger.info("page(): params = {}", params);
-        Query<IngredientTag> query = ebean.createQuery(IngredientTag.class);
-        query.where().ilike("names.name", "%" + params.getNameLike() + "%");
-        query.where().eq("names.language.id", params.getLanguageId());
-        query.setFirstRow(params.getOffset());
-        query.setMaxRows(params.getLimit());
+        SqlQuery query = ebean.createSqlQuery(pageSql(params, selectTotalCount));
+        setPageParameters(query, params);
+        query.setParameter("limit", params.getLimit());
+        query.setParameter("offset", params.getOffset());
+
+        Map<Long, IngredientTagDto> tags = new LinkedHashMap<>();
+        Long totalCount = null;
+        for (SqlRow row : query.findList()) {
+            IngredientTagDto tag = tags.computeIfAbsent(row.getLong("id"),
+                    id -> new IngredientTagDto(id, row.getString("name"), new ArrayList<>()));
+            Long ingredientId = row.getLong("ingredient_id");
+            if (ingredientId != null) {
+                tag.getIngredients().add(ingredientId);
+            }
+
+            if (selectTotalCount) {
+                totalCount = row.getLong("total_count");
+            }
+        }
+
+        // A page that isn't full is the last one, unless it's past the end.
+        boolean isLastPage = tags.size() < params.getLimit() && (!tags.isEmpty() || params.getOffset() == 0);
+        if (totalCount == null && isLastPage) {
+            totalCount = (long) params.getOffset() + tags.size();
+        } else if (totalCount == null) {
+            SqlQuery countQuery = ebean.createSqlQuery(countSql(params));
+            setPageParameters(countQuery, params);
+            totalCount = countQuery.findOne().getLong("total_count");
+        }
+
+        return new Page<>(new ArrayList<>(tags.values()), totalCount.intValue());
+    }
+
+    private String pageSql(IngredientTagRepositoryParams.Page params, boolean selectTotalCount) {
+        return "" +
+                "SELECT page.id, page.name, " + (selectTotalCount ? "page.total_count, " : "") +
+                "  ingredient_tag_ingredient.ingredient_id " +
+                "FROM " +
+                "  (SELECT ingredient_tag.id, ingredient_tag_name.name" +
+                (selectTotalCount ? ", COUNT(*) OVER () AS total_count " : " ") +
+                "  FROM ingredient_tag " +
+                "  JOIN ingredient_tag_name ON ingredient_tag_name.tag_id = ingredient_tag.id " +
+                "  WHERE " + pageConditions(params) +
+                "  ORDER BY ingredient_tag.id " +
+                "  LIMIT :limit OFFSET :offset) AS page " +
+                "LEFT JOIN ingredient_tag_ingredient ON ingredient_tag_ingredient.ingredient_tag_id = page.id " +
+                "ORDER BY page.id, ingredient_tag_ingredient.ingredient_id";
+    }
+
+    private String countSql(IngredientTagRepositoryParams.Page params) {
+        return "" +
+                "SELECT COUNT(*) AS total_count " +
+                "FROM ingredient_tag " +
+                "JOIN ingredient_tag_name ON ingredient_tag_name.tag_id = ingredient_tag.id " +
+                "WHERE " + pageConditions(params);
+    }
+
+    private String pageConditions(IngredientTagRepositoryParams.Page params) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add(" ingredient_tag_name.language_id = :languageId ");
+        if (params.getNameLike() != null) {
+            conditions.add(useNormalizedNames ?
+                    " ingredient_tag_name.name_normalized LIKE ('%' || normalized_name(:nameLike) || '%') " :
+                    " LOWER(ingredient_tag_name.name) LIKE :nameLike ");
+        }
+
+        conditions.add(params.getUserId() == null ?
+                " ingredient_tag.user_id IS NULL " :
+                " (ingredient_tag.user_id IS NULL OR ingredient_tag.user_id = :userId) ");
+
+        return String.join(" AND ", conditions);
+    }
+
+    private void setPageParameters(SqlQuery query, IngredientTagRepositoryParams.Page params) {
+        query.setParameter("languageId", params.getLanguageId());
+        if (params.getNameLike() != null) {
+            // Wildcards are matched literally, as by the in memory search of system tags.
+            String nameLike = escapedForLike(params.getNameLike());
+            query.setParameter("nameLike", useNormalizedNames ?
+                    nameLike :
+                    "%" + nameLike.toLowerCase(Locale.ROOT) + "%");
+        }
 
         if (params.getUserId() != null) {
-            query.where().or()
-                    .isNull("user.id")
-                    .eq("user.id", params.getUserId());
-        } else {
-            query.where()
-                    .isNull("user.id");
+            query.setParameter("userId", params.getUserId());
         }
+    }
 
-        return new Page<>(query.findList(), query.findCount());
+    // Backslash is the default escape character of LIKE in both Postgres and H2.
+    static String escapedForLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
     @Override
@@ -100,6 +187,7 @@ public class EbeanIngredientTagRepository implements IngredientTagRepository {
         entity.setNames(Arrays.asList(tagName));
 
         ebean.save(entity);
+        tagExpansionCache.invalidateUser(userId);
         return entity;
     }
 
@@ -150,6 +238,7 @@ public class EbeanIngredientTagRepository implements IngredientTagRepository {
         entity.setNames(Arrays.asList(tagName));
 
         ebean.update(entity);
+        tagExpansionCache.invalidateUser(userId);
     }
 
     @Override
@@ -168,6 +257,7 @@ public class EbeanIngredientTagRepository implements IngredientTagRepository {
         }
 
         ebean.delete(entity);
+        tagExpansionCache.invalidateUser(userId);
     }
 
     @Override
@@ -175,14 +265,22 @@ public class EbeanIngredientTagRepository implements IngredientTagRepository {
         logger.info("userSearchesOf(): id = {}, userId = {}", id, userId);
         byId(id, userId);
 
-        List<UserSearch> userSearches = ebean.createQuery(UserSearch.class)
+        // Searches are joined to their tag references, no query needs to be parsed.
+        List<UserSearch> userSearchesContainingTag = new ArrayList<>(ebean.createQuery(UserSearch.class)
                 .where()
                 .eq("user.id", userId)
-                .findList();
+                .eq("search.tags.ingredientTagId", id)
+                .findList());
 
-        List<UserSearch> userSearchesContainingTag = userSearches.stream()
+        // Searches stored before tag references existed may not have been backfilled yet, their queries are parsed.
+        ebean.createQuery(UserSearch.class)
+                .where()
+                .eq("user.id", userId)
+                .isEmpty("search.tags")
+                .findList()
+                .stream()
                 .filter(userSearch -> containsTag(userSearch, id))
-                .collect(Collectors.toList());
+                .forEach(userSearchesContainingTag::add);
 
         logger.info("userSearchesOf(): found {} user searches containing tag {}",
                 userSearchesContainingTag.size(), id);
@@ -229,28 +327,18 @@ public class EbeanIngredientTagRepository implements IngredientTagRepository {
                 .findList();
     }
 
+    private static boolean containsTag(UserSearch userSearch, Long tagId) {
+        RecipesQueryParams.Params queryParams = Json.fromJson(Json.parse(userSearch.getSearch().getQuery()),
+                RecipesQueryParams.Params.class);
+
+        return Arrays.asList(queryParams.inIngTags, queryParams.exIngTags, queryParams.addIngTags).stream()
+                .filter(Objects::nonNull)
+                .anyMatch(tagIds -> tagIds.contains(tagId));
+    }
+
     private void throwNotFoundException(Long id, Long userId) {
         String message = String.format("Not found user defined tag with id = %d, userId = %d",
                 id, userId);
         throw new NotFoundException(message);
     }
-
-    private boolean containsTag(UserSearch entity, Long tagId) {
-        String jsonQueryStr = entity.getSearch().getQuery();
-        JsonNode queryJson = Json.parse(jsonQueryStr);
-        RecipesQueryParams.Params queryParams = Json.fromJson(queryJson, RecipesQueryParams.Params.class);
-
-        List<Long> allTagIds = new ArrayList<>();
-        addAllOf(queryParams.inIngTags, allTagIds);
-        addAllOf(queryParams.exIngTags, allTagIds);
-        addAllOf(queryParams.addIngTags, allTagIds);
-
-        return allTagIds.contains(tagId);
-    }
-
-    private void addAllOf(List<Long> source, List<Long> target) {
-        if (source != null) {
-            target.addAll(source);
-        }
-    }
 }
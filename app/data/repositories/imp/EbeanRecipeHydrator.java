@@ -0,0 +1,155 @@
+package data.repositories.imp;
+
+import io.ebean.EbeanServer;
+import io.ebean.SqlRow;
+import lombokized.dto.IngredientNameDto;
+import lombokized.dto.RecipeDto;
+import lombokized.dto.SourcePageDto;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Loads recipes of a result page with their ingredient names of the given language in one query,
+// instead of walking the eagerly fetched entity graph.
+class EbeanRecipeHydrator {
+    // Ids are bound as one array on Postgres, so the statement is the same for any page size. H2 has no arrays.
+    private static final String SQL_WITH_ID_ARRAY = sqlOf("recipe.id = ANY(CAST(:ids AS bigint[]))");
+    private static final String SQL_WITH_ID_LIST = sqlOf("recipe.id IN (:ids)");
+
+    private final EbeanServer ebean;
+    private final boolean useArrayBinds;
+
+    public EbeanRecipeHydrator(EbeanServer ebean, boolean useArrayBinds) {
+        this.ebean = ebean;
+        this.useArrayBinds = useArrayBinds;
+    }
+
+    private static String sqlOf(String idCondition) {
+        return "" +
+                "SELECT " +
+                "  recipe.id AS recipe_id, " +
+                "  recipe.name AS recipe_name, " +
+                "  recipe.url AS recipe_url, " +
+                "  recipe.numofings AS recipe_numofings, " +
+                "  recipe.time AS recipe_time, " +
+                "  recipe.image_url AS recipe_image_url, " +
+                "  source_page.id AS source_page_id, " +
+                "  source_page.name AS source_page_name, " +
+                "  language.iso_name AS source_page_language, " +
+                "  recipe_ingredient.id AS recipe_ingredient_id, " +
+                "  recipe_ingredient.ingredient_id AS ingredient_id, " +
+                "  ingredient_name.id AS ingredient_name_id, " +
+                "  ingredient_name.name AS ingredient_name, " +
+                "  ingredient_alt_name.name AS ingredient_alt_name " +
+                "FROM " +
+                "  recipe " +
+                "LEFT JOIN source_page ON source_page.id = recipe.source_page_id " +
+                "LEFT JOIN language ON language.id = source_page.language_id " +
+                "LEFT JOIN recipe_ingredient ON recipe_ingredient.recipe_id = recipe.id " +
+                "LEFT JOIN ingredient_name ON ingredient_name.ingredient_id = recipe_ingredient.ingredient_id " +
+                "  AND ingredient_name.language_id = :languageId " +
+                "LEFT JOIN ingredient_alt_name ON ingredient_alt_name.ingredient_name_id = ingredient_name.id " +
+                "WHERE " +
+                "  " + idCondition + " " +
+                "ORDER BY " +
+                "  recipe.id, recipe_ingredient.id, ingredient_name.id, ingredient_alt_name.id";
+    }
+
+    public List<RecipeDto> hydrate(List<Long> ids, Long languageId) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, RecipeRows> recipesById = new HashMap<>();
+        ebean.createSqlQuery(useArrayBinds ? SQL_WITH_ID_ARRAY : SQL_WITH_ID_LIST)
+                .setParameter("languageId", languageId)
+                .setParameter("ids", useArrayBinds ? RecipeQuerySql.arrayOf(ids) : ids)
+                .findEach(row -> recipesById.computeIfAbsent(row.getLong("recipe_id"), id -> new RecipeRows(row))
+                        .add(row));
+
+        return ids.stream()
+                .map(recipesById::get)
+                .filter(Objects::nonNull)
+                .map(RecipeRows::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private static class RecipeRows {
+        private final SqlRow recipeRow;
+        private final Map<Long, IngredientRows> ingredients = new LinkedHashMap<>();
+
+        RecipeRows(SqlRow recipeRow) {
+            this.recipeRow = recipeRow;
+        }
+
+        void add(SqlRow row) {
+            Long recipeIngredientId = row.getLong("recipe_ingredient_id");
+            if (recipeIngredientId == null) {
+                return;
+            }
+
+            ingredients.computeIfAbsent(recipeIngredientId, id -> new IngredientRows(row))
+                    .add(row);
+        }
+
+        RecipeDto toDto() {
+            List<IngredientNameDto> ingredientNameDtos = ingredients.values()
+                    .stream()
+                    .map(IngredientRows::toDto)
+                    .collect(Collectors.toList());
+
+            return new RecipeDto(
+                    recipeRow.getLong("recipe_id"),
+                    recipeRow.getString("recipe_name"),
+                    recipeRow.getString("recipe_url"),
+                    recipeRow.getInteger("recipe_numofings"),
+                    toSourcePageDto(),
+                    ingredientNameDtos,
+                    recipeRow.getInteger("recipe_time"),
+                    recipeRow.getString("recipe_image_url")
+            );
+        }
+
+        private SourcePageDto toSourcePageDto() {
+            Long sourcePageId = recipeRow.getLong("source_page_id");
+            if (sourcePageId == null) {
+                return null;
+            }
+
+            return new SourcePageDto(
+                    sourcePageId,
+                    recipeRow.getString("source_page_name"),
+                    recipeRow.getString("source_page_language")
+            );
+        }
+    }
+
+    private static class IngredientRows {
+        private final Long ingredientId;
+        // Rows are ordered by name id, the first name of the language is used, as when mapping entities.
+        private final Long ingredientNameId;
+        private final String name;
+        private final List<String> altNames = new ArrayList<>();
+
+        IngredientRows(SqlRow firstRow) {
+            this.ingredientId = firstRow.getLong("ingredient_id");
+            this.ingredientNameId = firstRow.getLong("ingredient_name_id");
+            this.name = firstRow.getString("ingredient_name");
+        }
+
+        void add(SqlRow row) {
+            String altName = row.getString("ingredient_alt_name");
+            if (altName != null && Objects.equals(ingredientNameId, row.getLong("ingredient_name_id"))) {
+                altNames.add(altName);
+            }
+        }
+
+        IngredientNameDto toDto() {
+            if (ingredientNameId == null) {
+                throw new IllegalArgumentException("Ingredient name with the given language not found!");
+            }
+
+            return new IngredientNameDto(ingredientId, name, altNames);
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package data.repositories.imp;
 
+import com.typesafe.config.Config;
 import data.entities.Recipe;
 import data.entities.RecipeBook;
 import data.repositories.RecipeRepository;
 import io.ebean.EbeanServer;
-import io.ebean.Query;
-import io.ebean.RawSql;
-import io.ebean.RawSqlBuilder;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
+import lombokized.dto.RecipeDto;
 import lombokized.repositories.Page;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
 import play.Environment;
 import play.Logger;
 
 import javax.inject.Inject;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
 
 import static data.repositories.imp.EbeanRepoUtils.assertEntityExists;
 import static lombokized.repositories.RecipeRepositoryParams.*;
@@ -21,66 +29,90 @@ import static lombokized.repositories.RecipeRepositoryParams.*;
 public class EbeanRecipeRepository implements RecipeRepository {
     private EbeanServer ebean;
     private final Environment environment;
+    private final IngredientTagExpansionCache tagExpansionCache;
+    private final IngredientRecipeCounts ingredientRecipeCounts;
+    private final int estimatedCountCap;
+    private final boolean useIngredientArray;
+    private final boolean useNormalizedNames;
+    private final boolean useArrayBinds;
+    private final long excludeAntiJoinMaxRecipes;
+    private final MetricsRegistry metrics;
+    // Histograms of query shapes, resolved on the first query of each shape.
+    private final AtomicReferenceArray<ShapeHistograms> shapeHistograms =
+            new AtomicReferenceArray<>(RecipeQuerySql.Configuration.NUM_OF_SHAPES);
+    private final long slowQueryThresholdMs;
     private static final int DEFAULT_OFFSET = 0;
     private static final int DEFAULT_LIMIT = 50;
 
     private static final Logger.ALogger logger = Logger.of(EbeanRecipeRepository.class);
 
     @Inject
-    public EbeanRecipeRepository(EbeanServer ebean, Environment environment) {
+    public EbeanRecipeRepository(EbeanServer ebean, Environment environment, Config config,
+                                 IngredientTagExpansionCache tagExpansionCache, IngredientRecipeCounts ingredientRecipeCounts,
+                                 MetricsRegistry metrics) {
         this.ebean = ebean;
         this.environment = environment;
+        this.tagExpansionCache = tagExpansionCache;
+        this.ingredientRecipeCounts = ingredientRecipeCounts;
+        this.estimatedCountCap = config.getInt("cooksm.art.recipes.estimatedcount.cap");
+        // H2 has no arrays with intarray operators.
+        this.useIngredientArray = config.getBoolean("cooksm.art.recipes.ingredientarray.enabled") && !environment.isTest();
+        // H2 has neither the normalized columns, nor unaccent.
+        this.useNormalizedNames = config.getBoolean("cooksm.art.names.normalized.enabled") && !environment.isTest();
+        // H2 can't cast text to arrays.
+        this.useArrayBinds = !environment.isTest();
+        this.excludeAntiJoinMaxRecipes = config.getLong("cooksm.art.recipes.excluded.antijoin.maxrecipes");
+        this.metrics = metrics;
+        this.slowQueryThresholdMs = config.getLong("cooksm.art.recipes.slowquery.threshold.ms");
     }
 
     @Override
-    public Page<Recipe> pageOfQueryTypeNumber(QueryTypeNumber params) {
+    public Page<Long> pageOfQueryTypeNumber(QueryTypeNumber params) {
         logger.info("pageOfQueryTypeNumber()");
         RecipeQuerySql.Configuration configuration = createConfig(params);
-        String sqlString = createRecipeQueryBaseSqlWith(configuration);
 
-        sqlString = replaceByQueryTypeNumberParameters(sqlString, params);
-        Query<Recipe> query = prepare(sqlString, params.getCommon());
-        setIncludedIngredientsConditions(query, params.getIncludedIngredients(), params.getCommon().getUserId());
-
-        if(params.getAdditionalIngredients().isPresent()) {
-            setAdditionalIngredientsConditions(query, params.getAdditionalIngredients().get(), params.getCommon().getUserId());
-        }
-
-        return new Page<>(query.findList(), query.findCount());
+        return execute(configuration, params.getCommon(), params, sql -> {
+            SqlQuery query = prepare(sql, params.getCommon());
+            query.setParameter("goodIngredients", params.getGoodIngredients());
+            query.setParameter("unknownIngredients", params.getUnknownIngredients());
+            setIncludedIngredientsConditions(query, params.getIncludedIngredients(), params.getCommon().getUserId());
+            if (params.getAdditionalIngredients().isPresent()) {
+                setAdditionalIngredientsConditions(query, params.getAdditionalIngredients().get(), params.getCommon().getUserId());
+            }
+
+            return query;
+        });
     }
 
     @Override
-    public Page<Recipe> pageOfQueryTypeRatio(QueryTypeRatio params) {
+    public Page<Long> pageOfQueryTypeRatio(QueryTypeRatio params) {
         logger.info("pageOfQueryTypeRatio()");
         RecipeQuerySql.Configuration configuration = createConfig(params);
-        String sqlString = createRecipeQueryBaseSqlWith(configuration);
 
-        sqlString = replaceQueryTypeRatioParams(sqlString, params);
+        return execute(configuration, params.getCommon(), params, sql -> {
+            SqlQuery query = prepare(sql, params.getCommon());
+            query.setParameter("ratio", params.getGoodIngredientsRatio());
+            setIncludedIngredientsConditions(query, params.getIncludedIngredients(), params.getCommon().getUserId());
+            if (params.getAdditionalIngredients().isPresent()) {
+                setAdditionalIngredientsConditions(query, params.getAdditionalIngredients().get(), params.getCommon().getUserId());
+            }
 
-        Query<Recipe> query = prepare(sqlString, params.getCommon());
-        setIncludedIngredientsConditions(query, params.getIncludedIngredients(), params.getCommon().getUserId());
-        if(params.getAdditionalIngredients().isPresent()) {
-            setAdditionalIngredientsConditions(query, params.getAdditionalIngredients().get(), params.getCommon().getUserId());
-        }
-
-        return new Page<>(query.findList(), query.findCount());
+            return query;
+        });
     }
 
     @Override
-    public Page<Recipe> pageOfQueryTypeNone(Common params) {
+    public Page<Long> pageOfQueryTypeNone(Common params) {
         logger.info("pageOfQueryTypeNone()");
-        RecipeQuerySql.Configuration config = new RecipeQuerySql.Configuration(
-                true,
-                useExclude(params),
-                RecipeQuerySql.QueryType.NONE);
-        setUseFavoritesOnly(config, params);
-        setUseRecipeBooks(config, params);
-        setUseNameLike(config, params);
+        RecipeQuerySql.Configuration config = createConfigForCommon(RecipeQuerySql.QueryType.NONE, params);
 
-        String sqlString = createRecipeQueryBaseSqlWith(config);
-        Query<Recipe> query = prepare(sqlString, params);
+        return execute(config, params, params, sql -> prepare(sql, params));
+    }
 
-        return new Page<>(query.findList(), query.findCount());
+    @Override
+    public List<RecipeDto> dtosOf(List<Long> ids, Long languageId) {
+        logger.info("dtosOf(): ids = {}, languageId = {}", ids, languageId);
+        return new EbeanRecipeHydrator(ebean, useArrayBinds).hydrate(ids, languageId);
     }
 
     @Override
@@ -101,142 +133,291 @@ public class EbeanRecipeRepository implements RecipeRepository {
                 .findList();
     }
 
-    private String replaceByQueryTypeNumberParameters(String sql, QueryTypeNumber params) {
-        // All parameters used are Integers, or Enums therefore it's safe to replace them.
-        String replaced = sql;
-        replaced = replaced.replace(":goodIngredientsRelation", params.getGoodIngredientsRelation().getStringRep());
-        replaced = replaced.replace(":goodIngredients", params.getGoodIngredients().toString());
-        replaced = replaced.replace(":unknownIngredientsRelation", params.getUnknownIngredientsRelation().getStringRep());
-        replaced = replaced.replace(":unknownIngredients", params.getUnknownIngredients().toString());
+    private interface QueryPreparation {
+        SqlQuery prepare(String sql);
+    }
+
+    private Page<Long> execute(RecipeQuerySql.Configuration config, Common params, Object queryParams,
+                               QueryPreparation preparation) {
+        int offset = params.getOffset() == null ? DEFAULT_OFFSET : params.getOffset();
+        int limit = params.getLimit() == null ? DEFAULT_LIMIT : params.getLimit();
+        CountMode countMode = params.getCountMode() == null ? CountMode.EXACT : params.getCountMode();
+        boolean useSeek = params.getSeekId() != null;
+        // Seek pages reuse the count of the first page carried by the cursor, or only find out whether there are
+        // more results, so page N costs the same as page 1.
+        boolean reuseCount = useSeek && params.getSeekTotalCount() != null;
+        boolean countMoreOnly = countMode == CountMode.NONE || (useSeek && !reuseCount);
+
+        config.usePaging = true;
+        // Page and total count are returned by the same statement, unless the database lacks window functions,
+        // or the count must not be affected by the seek condition.
+        config.selectTotalCount = countMode == CountMode.EXACT && !environment.isTest() && !useSeek;
+
+        ShapeHistograms histograms = histogramsOf(config);
+        long startNanos = System.nanoTime();
+        String sql = RecipeQuerySql.create(config);
+        SqlQuery pageQuery = preparation.prepare(sql);
+        // In case of no count one more row is queried to find out whether there are more results.
+        int queriedLimit = countMoreOnly ? limit + 1 : limit;
+        pageQuery.setParameter("limit", queriedLimit);
+        if (!useSeek) {
+            pageQuery.setParameter("offset", offset);
+        }
+        long sqlBuildUs = microsSince(startNanos);
+
+        long listStartNanos = System.nanoTime();
+        List<SqlRow> rows = pageQuery.findList();
+        long listMs = millisSince(listStartNanos);
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<Long> ids = rows.stream()
+                .map(r -> r.getLong("id"))
+                .collect(Collectors.toList());
+
+        int totalCount;
+        boolean isTotalCountCapped = false;
+        int usedOffset = useSeek ? 0 : offset;
+        Integer selectedTotalCount = config.selectTotalCount ? selectedTotalCountOf(rows, usedOffset) : null;
+        String countSql = null;
+        long countStartNanos = System.nanoTime();
+        if (reuseCount) {
+            totalCount = params.getSeekTotalCount();
+            isTotalCountCapped = params.isSeekTotalCountCapped();
+        } else if (countMoreOnly) {
+            totalCount = lowerBoundCountOf(usedOffset, ids.size(), hasMore);
+            isTotalCountCapped = hasMore;
+        } else if (countMode == CountMode.ESTIMATE) {
+            countSql = RecipeQuerySql.createCount(config, true);
+            SqlQuery countQuery = preparation.prepare(countSql);
+            countQuery.setParameter("countCap", estimatedCountCap);
+            totalCount = countOf(countQuery);
+            isTotalCountCapped = totalCount >= estimatedCountCap;
+        } else if (selectedTotalCount != null) {
+            totalCount = selectedTotalCount;
+        } else {
+            countSql = RecipeQuerySql.createCount(config, false);
+            totalCount = countOf(preparation.prepare(countSql));
+        }
+        long countMs = millisSince(countStartNanos);
+
+        histograms.sqlBuild.observe(sqlBuildUs);
+        histograms.list.observe(listMs);
+        if (countSql != null) {
+            histograms.count.observe(countMs);
+        }
+        histograms.rows.observe(ids.size());
+
+        long totalMs = millisSince(startNanos);
+        if (totalMs >= slowQueryThresholdMs) {
+            logger.warn("execute(): slow query; totalMs = {}, listMs = {}, countMs = {}, params = {}, sql = {}, countSql = {}",
+                    totalMs, listMs, countMs, queryParams, sql, countSql);
+        }
+
+        Page<Long> page = new Page<>(ids, totalCount);
+        page.setTotalCountCapped(isTotalCountCapped);
+        return page;
+    }
+
+    private ShapeHistograms histogramsOf(RecipeQuerySql.Configuration config) {
+        int index = config.shapeIndex();
+        ShapeHistograms histograms = shapeHistograms.get(index);
+        if (histograms == null) {
+            // Racing threads resolve the same histograms from the registry.
+            histograms = new ShapeHistograms(metrics, config.shapeLabels());
+            shapeHistograms.set(index, histograms);
+        }
 
-        if (params.getAdditionalIngredients().isPresent()) {
-            replaced = replaceAdditionalIngredients(replaced, params.getAdditionalIngredients().get());
+        return histograms;
+    }
+
+    private static class ShapeHistograms {
+        private final Histogram sqlBuild;
+        private final Histogram list;
+        private final Histogram count;
+        private final Histogram rows;
+
+        private ShapeHistograms(MetricsRegistry metrics, String[] shape) {
+            sqlBuild = metrics.histogram("recipes_query_sql_build_us", "Time of building the recipe query SQL.",
+                    Histogram.LATENCY_US_BUCKETS, shape);
+            list = metrics.histogram("recipes_query_list_ms", "Time of the recipe page query.",
+                    Histogram.LATENCY_MS_BUCKETS, shape);
+            count = metrics.histogram("recipes_query_count_ms", "Time of the recipe count query.",
+                    Histogram.LATENCY_MS_BUCKETS, shape);
+            rows = metrics.histogram("recipes_query_rows", "Number of recipes returned by the page query.",
+                    Histogram.ROW_COUNT_BUCKETS, shape);
         }
+    }
 
-        return replaced;
+    // Without counting, only the recipes up to the end of the page are known to exist, and one more if any.
+    static int lowerBoundCountOf(int usedOffset, int numOfRows, boolean hasMore) {
+        return usedOffset + numOfRows + (hasMore ? 1 : 0);
     }
 
-    private Query<Recipe> prepare(String sql, Common params) {
-        RawSql rawSql = setColumnMappings(RawSqlBuilder.parse(sql)).create();
-        Query<Recipe> query = ebean.createQuery(Recipe.class).setRawSql(rawSql);
-        setCommonConditions(query, params);
+    // Total count selected by the page query with COUNT(*) OVER(), or null if it must be queried separately:
+    // an empty page past the first one carries no count, though there may be results before it.
+    static Integer selectedTotalCountOf(List<SqlRow> rows, int usedOffset) {
+        if (rows.size() > 0) {
+            return rows.get(0).getInteger("total_count");
+        } else if (usedOffset == 0) {
+            return 0;
+        } else {
+            return null;
+        }
+    }
 
-        return query;
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
-    private RawSqlBuilder setColumnMappings(RawSqlBuilder builder) {
-        builder
-                .columnMapping("recipe.id", "id")
-                .columnMapping("recipe.name", "name")
-                .columnMapping("recipe.url", "url")
-                .columnMapping("recipe.date_added", "dateAdded")
-                .columnMapping("recipe.numofings", "numofings")
-                .columnMapping("recipe.time", "time")
-                .columnMapping("recipe.source_page_id", "sourcePage.id");
+    private static long microsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
 
-        return builder;
+    private static int countOf(SqlQuery countQuery) {
+        Integer count = countQuery.findOne().getInteger("total_count");
+        return count == null ? 0 : count;
     }
 
-    private void setCommonConditions(Query<Recipe> query, Common params) {
+    private SqlQuery prepare(String sql, Common params) {
+        SqlQuery query = ebean.createSqlQuery(sql);
+        setCommonConditions(query, params);
+
+        return query;
+    }
+
+    private void setCommonConditions(SqlQuery query, Common params) {
         setNumberOfIngredientsCondition(query, params);
-        setOrderByCondition(query, params);
         setSourcePagesCondition(query, params);
         setTimesCondition(query, params);
         setNameLikeCondition(query, params);
-        setPagingCondition(query, params);
+        setSeekCondition(query, params);
         setExcludedIngredientsCondition(query, params);
         setUserIdCondition(query, params);
         setUsedRecipeBooksConditions(query, params);
     }
 
-    private void setNumberOfIngredientsCondition(Query<Recipe> query, Common params) {
-        if (params.getMaximumNumberOfIngredients() != null && params.getMaximumNumberOfIngredients() > 0) {
-            query.where().le("numofings", params.getMaximumNumberOfIngredients());
+    private void setNumberOfIngredientsCondition(SqlQuery query, Common params) {
+        if (useMaxIngs(params)) {
+            query.setParameter("maxIngs", params.getMaximumNumberOfIngredients());
         }
 
-        if (params.getMinimumNumberOfIngredients() != null && params.getMinimumNumberOfIngredients() >= 0) {
-            query.where().ge("numofings", params.getMinimumNumberOfIngredients());
+        if (useMinIngs(params)) {
+            query.setParameter("minIngs", params.getMinimumNumberOfIngredients());
         }
     }
 
-    private void setOrderByCondition(Query<Recipe> query, Common params) {
-        /*
-           Sorting by id is necessary to avoid occurring the same results across different pages.
-           E.g. sorting by number of ingredient is not a unique sorting as many recipes have the same number
-           of ingredients.
-        */
-        String orderByClause = "";
-        if (params.getOrderBy() != null && params.getOrderBySort() != null) {
-            orderByClause = params.getOrderBy() + " " + params.getOrderBySort() + ", id";
-        } else {
-            orderByClause = "id";
+    private void setSourcePagesCondition(SqlQuery query, Common params) {
+        if (useSourcePages(params)) {
+            setListParameter(query, "sourcePageIds", params.getSourcePageIds());
         }
-
-        query.orderBy(orderByClause);
     }
 
-    private void setSourcePagesCondition(Query<Recipe> query, Common params) {
-        if (params.getSourcePageIds() != null && params.getSourcePageIds().size() > 0) {
-            query.where().in("sourcePage.id", params.getSourcePageIds());
+    private void setTimesCondition(SqlQuery query, Common params) {
+        if (useTimes(params)) {
+            setListParameter(query, "times", params.getTimes());
         }
     }
 
-    private void setTimesCondition(Query<Recipe> query, Common params) {
-        if(params.getTimes() != null && params.getTimes().size() > 0) {
-            query.where().in("time", params.getTimes());
+    private void setNameLikeCondition(SqlQuery query, Common params) {
+        if (!useNameLike(params)) {
+            return;
         }
-    }
 
-    private void setNameLikeCondition(Query<Recipe> query, Common params) {
-        if(params.getNameLike() == null || params.getNameLike().isEmpty()) {
+        if (useNormalizedNames) {
+            query.setParameter("nameLike", params.getNameLike());
             return;
         }
 
-        if(environment.isTest()) {
+        if (!environment.isTest()) {
             // H2 does not have similarity operator
-            query.where().ilike("name", "%" + params.getNameLike() + "%");
-        } else {
             query.setParameter("nameLike", params.getNameLike());
-            query.setParameter("nameLikeForIlike", "%"+params.getNameLike()+"%");
         }
+
+        query.setParameter("nameLikeForIlike", "%" + params.getNameLike() + "%");
     }
 
-    private void setPagingCondition(Query<Recipe> query, Common params) {
-        // Paging
-        int offset = params.getOffset() == null ? DEFAULT_OFFSET : params.getOffset();
-        int limit = params.getLimit() == null ? DEFAULT_LIMIT : params.getLimit();
+    private void setSeekCondition(SqlQuery query, Common params) {
+        if (params.getSeekId() == null) {
+            return;
+        }
+
+        query.setParameter("seekId", params.getSeekId());
+        if (params.getOrderBy() != null && params.getOrderBySort() != null && params.getSeekValue() != null) {
+            query.setParameter("seekValue", seekValueOf(params));
+        }
+    }
+
+    private static Object seekValueOf(Common params) {
+        if ("name".equals(params.getOrderBy())) {
+            return params.getSeekValue();
+        }
 
-        query.setFirstRow(offset);
-        query.setMaxRows(limit);
+        return Integer.parseInt(params.getSeekValue());
     }
 
-    private void setIncludedIngredientsConditions(Query<Recipe> query, IncludedIngredients params, Long userId) {
-        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(ebean, userId);
+    private void setIncludedIngredientsConditions(SqlQuery query, IncludedIngredients params, Long userId) {
+        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(tagExpansionCache, userId);
         IngredientsConditionSetter conditionSetter = new IngredientsConditionSetter(
                 resolver, params.getIncludedIngredients(), params.getIncludedIngredientTags());
-        conditionSetter.set(query, "includedIngredients");
+        setListParameter(query, "includedIngredients", conditionSetter.resolve());
     }
 
-    private void setExcludedIngredientsCondition(Query<Recipe> query, Common params) {
-        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(ebean, params.getUserId());
-        IngredientsConditionSetter conditionSetter = new IngredientsConditionSetter(
-                resolver, params.getExcludedIngredients(), params.getExcludedIngredientTags());
-        conditionSetter.set(query, "excludedIngredients");
+    private void setExcludedIngredientsCondition(SqlQuery query, Common params) {
+        if (!useExclude(params)) {
+            return;
+        }
+
+        setListParameter(query, "excludedIngredients", excludedIngredientsConditionSetterOf(params).resolve());
+    }
+
+    private IngredientsConditionSetter excludedIngredientsConditionSetterOf(Common params) {
+        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(tagExpansionCache, params.getUserId());
+        return new IngredientsConditionSetter(resolver, params.getExcludedIngredients(), params.getExcludedIngredientTags());
     }
 
-    private void setAdditionalIngredientsConditions(Query<Recipe> query, AdditionalIngredients additionals, Long userId) {
-        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(ebean, userId);
+    // Anti join is cheaper, if the excluded ingredients are rare; otherwise joining the set of recipes containing them is.
+    private boolean useExcludeAntiJoin(Common params) {
+        if (!useExclude(params) || useIngredientArray) {
+            return false;
+        }
+
+        List<Long> excludedIds = excludedIngredientsConditionSetterOf(params).resolve();
+        long recipesContainingExcluded = ingredientRecipeCounts.recipesContainingAny(excludedIds);
+        logger.info("useExcludeAntiJoin(): recipesContainingExcluded = {}", recipesContainingExcluded);
+
+        return recipesContainingExcluded <= excludeAntiJoinMaxRecipes;
+    }
+
+    private void setAdditionalIngredientsConditions(SqlQuery query, AdditionalIngredients additionals, Long userId) {
+        EbeanIngredientTagsResolver resolver = new EbeanIngredientTagsResolver(tagExpansionCache, userId);
         IngredientsConditionSetter conditionSetter = new IngredientsConditionSetter(
                 resolver, additionals.getAdditionalIngredients(), additionals.getAdditionalIngredientTags());
-        conditionSetter.set(query, "additionalIngredientIds");
+        setListParameter(query, "additionalIngredientIds", conditionSetter.resolve());
+        query.setParameter("goodAdditionalIngredients", additionals.getGoodAdditionalIngredients());
     }
 
-    private void setUserIdCondition(Query<Recipe> query, Common params){
-        query.setParameter("userId", params.getUserId());
+    private void setListParameter(SqlQuery query, String paramName, Collection<? extends Number> values) {
+        if (useArrayBinds) {
+            query.setParameter(paramName, RecipeQuerySql.arrayOf(values));
+        } else {
+            query.setParameter(paramName, values);
+        }
     }
 
-    private void setUsedRecipeBooksConditions(Query<Recipe> query, Common params) {
-        query.setParameter("usedRecipeBooks", params.getUsedRecipeBooks());
+    private void setUserIdCondition(SqlQuery query, Common params) {
+        if (useFavoritesOnly(params)) {
+            query.setParameter("userId", params.getUserId());
+        }
+    }
+
+    private void setUsedRecipeBooksConditions(SqlQuery query, Common params) {
+        if (useRecipeBooks(params)) {
+            setListParameter(query, "usedRecipeBooks", params.getUsedRecipeBooks());
+        }
     }
 
     private static boolean useExclude(Common params) {
@@ -244,80 +425,81 @@ public class EbeanRecipeRepository implements RecipeRepository {
                 (params.getExcludedIngredientTags() != null && params.getExcludedIngredientTags().size() > 0);
     }
 
-    private String replaceQueryTypeRatioParams(String sql, QueryTypeRatio params) {
-        String replaced = sql;
-        replaced = replaced.replace(":ratio", params.getGoodIngredientsRatio().toString());
-        if (params.getAdditionalIngredients().isPresent()) {
-            replaced = replaceAdditionalIngredients(replaced, params.getAdditionalIngredients().get());
-        }
+    private RecipeQuerySql.Configuration createConfig(QueryTypeNumber params) {
+        RecipeQuerySql.Configuration configuration = createConfigForCommon(RecipeQuerySql.QueryType.NUMBER, params.getCommon());
+        configuration.goodIngredientsRelation = params.getGoodIngredientsRelation().getStringRep();
+        configuration.unknownIngredientsRelation = params.getUnknownIngredientsRelation().getStringRep();
+        setAdditionalIngredients(configuration, params.getAdditionalIngredients());
 
-        return replaced;
+        return configuration;
     }
 
-    private static RecipeQuerySql.Configuration createConfig(QueryTypeNumber params) {
-        RecipeQuerySql.Configuration configuration = createConfigForIncludedIngredients(RecipeQuerySql.QueryType.NUMBER, params.getCommon());
-        if (params.getAdditionalIngredients().isPresent()) {
-            configuration.useAdditionalIngrs = true;
-        }
+    private RecipeQuerySql.Configuration createConfig(QueryTypeRatio params) {
+        RecipeQuerySql.Configuration configuration = createConfigForCommon(RecipeQuerySql.QueryType.RATIO, params.getCommon());
+        setAdditionalIngredients(configuration, params.getAdditionalIngredients());
 
         return configuration;
     }
 
-    private static RecipeQuerySql.Configuration createConfig(QueryTypeRatio params) {
-        RecipeQuerySql.Configuration configuration = createConfigForIncludedIngredients(RecipeQuerySql.QueryType.RATIO, params.getCommon());
-        if (params.getAdditionalIngredients().isPresent()) {
+    private static void setAdditionalIngredients(RecipeQuerySql.Configuration configuration, Optional<AdditionalIngredients> additionals) {
+        if (additionals.isPresent()) {
             configuration.useAdditionalIngrs = true;
+            configuration.goodAdditionalIngredientsRelation = additionals.get().getGoodAdditionalIngredientsRelation().getStringRep();
         }
-
-        return configuration;
     }
 
-    private static RecipeQuerySql.Configuration createConfigForIncludedIngredients(RecipeQuerySql.QueryType queryType, Common params) {
+    private RecipeQuerySql.Configuration createConfigForCommon(RecipeQuerySql.QueryType queryType, Common params) {
         RecipeQuerySql.Configuration configuration = new RecipeQuerySql.Configuration(
                 true,
                 useExclude(params),
                 queryType
         );
-        setUseFavoritesOnly(configuration, params);
-        setUseRecipeBooks(configuration, params);
-        setUseNameLike(configuration, params);
+        configuration.useFavoritesOnly = useFavoritesOnly(params);
+        configuration.useRecipeBooks = useRecipeBooks(params);
+        configuration.useNameLike = useNameLike(params);
+        // H2 does not have similarity operator
+        configuration.useNameSimilarity = !environment.isTest();
+        configuration.useNormalizedNames = useNormalizedNames;
+        configuration.useMaxIngs = useMaxIngs(params);
+        configuration.useMinIngs = useMinIngs(params);
+        configuration.useSourcePages = useSourcePages(params);
+        configuration.useTimes = useTimes(params);
+        configuration.useSeek = params.getSeekId() != null;
+        configuration.useNullSeekValue = configuration.useSeek && params.getSeekValue() == null;
+        configuration.orderBy = params.getOrderBy();
+        configuration.orderBySort = params.getOrderBySort();
+        configuration.useIngredientArray = useIngredientArray;
+        configuration.useExcludeAntiJoin = useExcludeAntiJoin(params);
+        configuration.useArrayBinds = useArrayBinds;
 
         return configuration;
     }
 
-    private static void setUseFavoritesOnly(RecipeQuerySql.Configuration config, Common params) {
-        if (params.getUserId() != null && Boolean.TRUE.equals(params.getUseFavoritesOnly())) {
-            config.useFavoritesOnly = true;
-        }
+    private static boolean useFavoritesOnly(Common params) {
+        return params.getUserId() != null && Boolean.TRUE.equals(params.getUseFavoritesOnly());
     }
 
-    private static void setUseRecipeBooks(RecipeQuerySql.Configuration config, Common params) {
-        if(params.getUsedRecipeBooks() != null && params.getUsedRecipeBooks().size() > 0) {
-            config.useRecipeBooks = true;
-        }
+    private static boolean useRecipeBooks(Common params) {
+        return params.getUsedRecipeBooks() != null && params.getUsedRecipeBooks().size() > 0;
     }
 
-    private static void setUseNameLike(RecipeQuerySql.Configuration config, Common params) {
-        if(params.getNameLike() != null && params.getNameLike().length() > 0) {
-            config.useNameLike = true;
-        }
+    private static boolean useNameLike(Common params) {
+        return params.getNameLike() != null && params.getNameLike().length() > 0;
     }
 
-    private String replaceAdditionalIngredients(String currentSql, AdditionalIngredients additionals){
-        String replaced = currentSql;
-        Integer goodAdditionalIngredients = additionals.getGoodAdditionalIngredients();
-        replaced = replaced.replace(":goodAdditionalIngredientIds", goodAdditionalIngredients.toString());
-        String relation = additionals.getGoodAdditionalIngredientsRelation().getStringRep();
-        replaced = replaced.replace(":goodAdditionalIngredientRelation", relation);
+    private static boolean useMaxIngs(Common params) {
+        return params.getMaximumNumberOfIngredients() != null && params.getMaximumNumberOfIngredients() > 0;
+    }
 
-        return replaced;
+    private static boolean useMinIngs(Common params) {
+        return params.getMinimumNumberOfIngredients() != null && params.getMinimumNumberOfIngredients() >= 0;
     }
 
-    private String createRecipeQueryBaseSqlWith(RecipeQuerySql.Configuration config) {
-        if(environment.isTest()) {
-            config.useNameLike = false;
-        }
+    private static boolean useSourcePages(Common params) {
+        return params.getSourcePageIds() != null && params.getSourcePageIds().size() > 0;
+    }
 
-        return RecipeQuerySql.create(config);
+    private static boolean useTimes(Common params) {
+        return params.getTimes() != null && params.getTimes().size() > 0;
     }
 }
@@ -1,19 +1,29 @@
 package data.repositories.imp;
 
 import data.entities.RecipeSearch;
+import data.entities.RecipeSearchTag;
 import data.repositories.RecipeSearchRepository;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.Transaction;
 import play.Logger;
 import play.db.ebean.EbeanConfig;
 
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
+    private static final String PERMANENT_WITHOUT_TAG_REFERENCES_SQL = "" +
+            "SELECT recipe_search.id FROM recipe_search " +
+            "WHERE recipe_search.is_permanent = true AND NOT EXISTS (" +
+            "SELECT 1 FROM recipe_search_tag WHERE recipe_search_tag.recipe_search_id = recipe_search.id) " +
+            "ORDER BY recipe_search.id";
+
     private EbeanServer ebean;
     private static AtomicInteger count;
 
@@ -27,8 +37,8 @@ public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
     }
 
     @Override
-    public RecipeSearch create(String query, boolean isPermanent) {
-        logger.info("create(): isPermanent = {}, query = {}", isPermanent, query);
+    public RecipeSearch create(String query, boolean isPermanent, Set<Long> ingredientTagIds) {
+        logger.info("create(): isPermanent = {}, query = {}, ingredientTagIds = {}", isPermanent, query, ingredientTagIds);
         if (query == null || query.length() == 0) {
             throw new IllegalArgumentException("query is empty!");
         }
@@ -39,7 +49,12 @@ public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
         }
         entity.setPermanent(isPermanent);
         entity.setQuery(query);
-        ebean.save(entity);
+        try (Transaction transaction = ebean.beginTransaction()) {
+            ebean.save(entity);
+            saveTagReferences(entity, ingredientTagIds);
+            transaction.commit();
+        }
+
         count.incrementAndGet();
         logger.info("create(): count = {}", count.get());
         return entity;
@@ -85,6 +100,52 @@ public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<RecipeSearch> recentlyAccessed(int limit) {
+        logger.info("recentlyAccessed(): limit = {}", limit);
+        return ebean.createQuery(RecipeSearch.class)
+                .orderBy()
+                .desc("lastAccessed")
+                .setMaxRows(limit)
+                .findList();
+    }
+
+    @Override
+    public List<Long> permanentWithoutTagReferences() {
+        logger.info("permanentWithoutTagReferences()");
+        return ebean.createSqlQuery(PERMANENT_WITHOUT_TAG_REFERENCES_SQL)
+                .findList()
+                .stream()
+                .map(row -> row.getLong("id"))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean addTagReferencesIfNone(Long id, Function<String, Set<Long>> ingredientTagIdsOfQuery) {
+        logger.info("addTagReferencesIfNone(): id = {}", id);
+        try (Transaction transaction = ebean.beginTransaction()) {
+            // The lock makes a concurrent update either finish before the query is read, or wait until the
+            // references are added, and then replace them.
+            RecipeSearch entity = ebean.createQuery(RecipeSearch.class)
+                    .where()
+                    .idEq(id)
+                    .forUpdate()
+                    .findOne();
+            boolean hasReferences = ebean.createQuery(RecipeSearchTag.class)
+                    .where()
+                    .eq("search.id", id)
+                    .exists();
+            if (entity == null || hasReferences) {
+                return false;
+            }
+
+            Set<Long> ingredientTagIds = ingredientTagIdsOfQuery.apply(entity.getQuery());
+            saveTagReferences(entity, ingredientTagIds);
+            transaction.commit();
+            return !ingredientTagIds.isEmpty();
+        }
+    }
+
     @Override
     public Integer deleteAll(List<Long> ids) {
         logger.info("deleteAll(): ids = {}", ids);
@@ -102,8 +163,9 @@ public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
     }
 
     @Override
-    public RecipeSearch update(String query, boolean isPermanent, Long id) {
-        logger.info("update(): query = {}, isPermanent = {}, id = {}", query, isPermanent, id);
+    public RecipeSearch update(String query, boolean isPermanent, Long id, Set<Long> ingredientTagIds) {
+        logger.info("update(): query = {}, isPermanent = {}, id = {}, ingredientTagIds = {}",
+                query, isPermanent, id, ingredientTagIds);
         EbeanRepoUtils.assertEntityExists(ebean, RecipeSearch.class, id);
         RecipeSearch entity = ebean.find(RecipeSearch.class, id);
 
@@ -112,10 +174,32 @@ public class EbeanRecipeSearchRepository implements RecipeSearchRepository {
         if (!isPermanent) {
             entity.setLastAccessed(Instant.now());
         }
-        ebean.save(entity);
+
+        try (Transaction transaction = ebean.beginTransaction()) {
+            ebean.save(entity);
+            ebean.createQuery(RecipeSearchTag.class)
+                    .where()
+                    .eq("search.id", id)
+                    .delete();
+            saveTagReferences(entity, ingredientTagIds);
+            transaction.commit();
+        }
+
         return entity;
     }
 
+    private void saveTagReferences(RecipeSearch entity, Set<Long> ingredientTagIds) {
+        List<RecipeSearchTag> references = ingredientTagIds.stream()
+                .map(tagId -> {
+                    RecipeSearchTag reference = new RecipeSearchTag();
+                    reference.setSearch(entity);
+                    reference.setIngredientTagId(tagId);
+                    return reference;
+                })
+                .collect(Collectors.toList());
+        ebean.saveAll(references);
+    }
+
     private static synchronized void initCount(EbeanServer ebean) {
         if (count == null) {
             int countEntities = ebean.createQuery(RecipeSearch.class).findCount();
@@ -0,0 +1,335 @@
+package data.repositories.imp;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import data.entities.Ingredient;
+import data.entities.IngredientAltName;
+import data.entities.IngredientName;
+import data.entities.Language;
+import io.ebean.EbeanServer;
+import io.ebean.SqlRow;
+import lombokized.repositories.Page;
+import play.Environment;
+import play.Logger;
+import scala.concurrent.duration.Duration;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In memory index of ingredient names and their alternative names per language, for autocompletion without
+// querying the database. Names are held sorted by relevance score; 2- and 3-grams of the normalized names are
+// mapped to the (sorted) positions of the names containing them, so matches are found by intersecting postings,
+// and come out already in order.
+// Loaded lazily, and reloaded periodically when the ingredient name tables changed.
+public class IngredientNameIndex {
+    private static final String NAMES_SQL = "" +
+            "SELECT id, ingredient_id, language_id, name, relevance_score " +
+            "FROM ingredient_name";
+
+    private static final String ALT_NAMES_SQL = "" +
+            "SELECT ingredient_name_id, name " +
+            "FROM ingredient_alt_name " +
+            "ORDER BY id";
+
+    // Renames keeping the length of names are caught by hashing the contents on Postgres. H2 has no string_agg(),
+    // so there the fingerprint only consists of the aggregates.
+    private static final String NAMES_FINGERPRINT_SQL = "" +
+            "SELECT COUNT(*) AS row_count, COALESCE(MAX(id), 0) AS max_id, " +
+            "COALESCE(SUM(LENGTH(name)), 0) AS name_length, COALESCE(SUM(relevance_score), 0) AS relevance_sum, " +
+            "%s AS content_hash " +
+            "FROM ingredient_name";
+
+    private static final String NAMES_CONTENT_HASH_SQL = "" +
+            "md5(string_agg(id || ':' || ingredient_id || ':' || language_id || ':' || name || ':' || " +
+            "COALESCE(relevance_score::text, ''), '|' ORDER BY id))";
+
+    private static final String ALT_NAMES_FINGERPRINT_SQL = "" +
+            "SELECT COUNT(*) AS row_count, COALESCE(MAX(id), 0) AS max_id, " +
+            "COALESCE(SUM(LENGTH(name)), 0) AS name_length, 0 AS relevance_sum, " +
+            "%s AS content_hash " +
+            "FROM ingredient_alt_name";
+
+    private static final String ALT_NAMES_CONTENT_HASH_SQL = "" +
+            "md5(string_agg(id || ':' || ingredient_name_id || ':' || name, '|' ORDER BY id))";
+
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    private final EbeanServer ebean;
+    private final boolean isEnabled;
+    private final String namesFingerprintSql;
+    private final String altNamesFingerprintSql;
+    private final AtomicLong loads = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private static final Logger.ALogger logger = Logger.of(IngredientNameIndex.class);
+
+    @Inject
+    public IngredientNameIndex(EbeanServer ebean, Config config, Environment environment, ActorSystem actorSystem,
+                               MaintenanceExecutionContext maintenanceExecContext) {
+        this.ebean = ebean;
+        isEnabled = config.getBoolean("cooksm.art.ingredientnames.index.enabled");
+        boolean useContentHash = !environment.isTest();
+        namesFingerprintSql = String.format(NAMES_FINGERPRINT_SQL, useContentHash ? NAMES_CONTENT_HASH_SQL : "''");
+        altNamesFingerprintSql = String.format(ALT_NAMES_FINGERPRINT_SQL,
+                useContentHash ? ALT_NAMES_CONTENT_HASH_SQL : "''");
+
+        int refreshIntervalSecs = config.getInt("cooksm.art.ingredientnames.index.refresh.interval.secs");
+        actorSystem.scheduler().scheduleAtFixedRate(
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                this::refreshIfChanged,
+                maintenanceExecContext);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    // Whether pages can be served without touching the database.
+    public boolean isLoaded() {
+        return isEnabled && snapshot != null;
+    }
+
+    // Changes whenever the index is (re)loaded, so derived caches can tell they're stale.
+    public long version() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.version;
+    }
+
+    // Names or alternative names of the language containing nameLike (case and accent insensitive), by relevance score.
+    public Page<IngredientName> page(String nameLike, Long languageId, int limit, int offset) {
+        LanguageIndex languageIndex = snapshot().byLanguage.get(languageId);
+        if (languageIndex == null) {
+            return new Page<>(Collections.emptyList(), 0);
+        }
+
+        return languageIndex.page(nameLike == null ? "" : NormalizedNames.of(nameLike), limit, offset);
+    }
+
+    public void preload() {
+        if (isEnabled) {
+            snapshot();
+        }
+    }
+
+    // Can be called right after changing ingredient names, instead of waiting for the periodic check.
+    public void refresh() {
+        logger.info("refresh()");
+        snapshot = load();
+    }
+
+    // Only an already loaded index is refreshed; an unused one stays unloaded.
+    private void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current != null && !current.fingerprint.equals(fingerprint())) {
+            refresh();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    // Changes made by imports outside of the application are noticed too, as the tables themselves are checked.
+    private String fingerprint() {
+        return fingerprintOf(ebean.createSqlQuery(namesFingerprintSql).findOne()) + "/" +
+                fingerprintOf(ebean.createSqlQuery(altNamesFingerprintSql).findOne());
+    }
+
+    private static String fingerprintOf(SqlRow row) {
+        return row.getLong("row_count") + ":" + row.getLong("max_id") + ":" + row.getLong("name_length") + ":" +
+                row.getLong("relevance_sum") + ":" + row.getString("content_hash");
+    }
+
+    private Snapshot load() {
+        long startMillis = System.currentTimeMillis();
+        String fingerprint = fingerprint();
+
+        Map<Long, Entry> entries = new HashMap<>();
+        ebean.createSqlQuery(NAMES_SQL).findEach(row -> {
+            Entry entry = new Entry(row.getLong("id"), row.getLong("ingredient_id"), row.getLong("language_id"),
+                    row.getString("name"), row.getInteger("relevance_score"));
+            entries.put(entry.ingredientName.getId(), entry);
+        });
+        ebean.createSqlQuery(ALT_NAMES_SQL).findEach(row -> {
+            Entry entry = entries.get(row.getLong("ingredient_name_id"));
+            if (entry != null) {
+                entry.addAltName(row.getString("name"));
+            }
+        });
+
+        Map<Long, List<Entry>> entriesByLanguage = new HashMap<>();
+        entries.values().forEach(e -> entriesByLanguage.computeIfAbsent(e.languageId, l -> new ArrayList<>()).add(e));
+
+        Map<Long, LanguageIndex> byLanguage = new HashMap<>();
+        entriesByLanguage.forEach((languageId, languageEntries) ->
+                byLanguage.put(languageId, new LanguageIndex(languageEntries)));
+
+        logger.info("load(): indexed {} names of {} languages in {} ms", entries.size(), byLanguage.size(),
+                System.currentTimeMillis() - startMillis);
+        return new Snapshot(loads.incrementAndGet(), fingerprint, byLanguage);
+    }
+
+    private static class Snapshot {
+        final long version;
+        final String fingerprint;
+        final Map<Long, LanguageIndex> byLanguage;
+
+        Snapshot(long version, String fingerprint, Map<Long, LanguageIndex> byLanguage) {
+            this.version = version;
+            this.fingerprint = fingerprint;
+            this.byLanguage = byLanguage;
+        }
+    }
+
+    private static class Entry {
+        final IngredientName ingredientName;
+        final Long languageId;
+        final Integer relevanceScore;
+        final List<String> searchables = new ArrayList<>();
+
+        Entry(Long id, Long ingredientId, Long languageId, String name, Integer relevanceScore) {
+            this.languageId = languageId;
+            this.relevanceScore = relevanceScore;
+
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(ingredientId);
+            Language language = new Language();
+            language.setId(languageId);
+
+            ingredientName = new IngredientName();
+            ingredientName.setId(id);
+            ingredientName.setName(name);
+            ingredientName.setIngredient(ingredient);
+            ingredientName.setLanguage(language);
+            ingredientName.setAltNames(new ArrayList<>());
+
+            searchables.add(NormalizedNames.of(name));
+        }
+
+        void addAltName(String name) {
+            IngredientAltName altName = new IngredientAltName();
+            altName.setName(name);
+            altName.setIngredientName(ingredientName);
+            ingredientName.getAltNames().add(altName);
+
+            searchables.add(NormalizedNames.of(name));
+        }
+    }
+
+    private static class LanguageIndex {
+        // Same order as the database query had: highest relevance first (nulls first, as in Postgres).
+        private static final Comparator<Entry> BY_RELEVANCE = Comparator
+                .comparing((Entry e) -> e.relevanceScore, Comparator.nullsFirst(Comparator.reverseOrder()))
+                .thenComparing(e -> e.ingredientName.getId());
+
+        private final Entry[] entries;
+        private final Map<String, int[]> postings;
+
+        LanguageIndex(List<Entry> unsorted) {
+            entries = unsorted.toArray(new Entry[0]);
+            Arrays.sort(entries, BY_RELEVANCE);
+
+            // Positions are visited in increasing order, so postings end up sorted.
+            Map<String, List<Integer>> positionsByGram = new HashMap<>();
+            for (int position = 0; position < entries.length; position++) {
+                for (String searchable : entries[position].searchables) {
+                    for (int length = 2; length <= MAX_GRAM_LENGTH; length++) {
+                        for (int i = 0; i + length <= searchable.length(); i++) {
+                            List<Integer> positions = positionsByGram.computeIfAbsent(
+                                    searchable.substring(i, i + length), g -> new ArrayList<>());
+                            if (positions.isEmpty() || positions.get(positions.size() - 1) != position) {
+                                positions.add(position);
+                            }
+                        }
+                    }
+                }
+            }
+
+            postings = new HashMap<>(positionsByGram.size() * 2);
+            positionsByGram.forEach((gram, positions) ->
+                    postings.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        Page<IngredientName> page(String needle, int limit, int offset) {
+            List<IngredientName> items = new ArrayList<>(Math.min(limit, 64));
+            int totalCount = 0;
+            for (int position : candidatesOf(needle)) {
+                if (matches(entries[position], needle)) {
+                    if (totalCount >= offset && items.size() < limit) {
+                        items.add(entries[position].ingredientName);
+                    }
+
+                    totalCount++;
+                }
+            }
+
+            return new Page<>(items, totalCount);
+        }
+
+        // Positions of names containing all grams of the needle; these still have to be checked for the needle
+        // itself. Needles too short to have grams are checked against all names.
+        private int[] candidatesOf(String needle) {
+            if (needle.length() < 2) {
+                int[] all = new int[entries.length];
+                Arrays.setAll(all, i -> i);
+                return all;
+            }
+
+            int gramLength = Math.min(needle.length(), MAX_GRAM_LENGTH);
+            List<int[]> lists = new ArrayList<>();
+            for (int i = 0; i + gramLength <= needle.length(); i++) {
+                int[] positions = postings.get(needle.substring(i, i + gramLength));
+                if (positions == null) {
+                    return new int[0];
+                }
+
+                lists.add(positions);
+            }
+
+            lists.sort(Comparator.comparingInt(l -> l.length));
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size(); i++) {
+                result = intersect(result, lists.get(i));
+            }
+
+            return result;
+        }
+
+        private static int[] intersect(int[] smaller, int[] larger) {
+            int[] result = new int[smaller.length];
+            int size = 0;
+            for (int position : smaller) {
+                if (Arrays.binarySearch(larger, position) >= 0) {
+                    result[size++] = position;
+                }
+            }
+
+            return Arrays.copyOf(result, size);
+        }
+
+        private static boolean matches(Entry entry, String needle) {
+            for (String searchable : entry.searchables) {
+                if (searchable.contains(needle)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
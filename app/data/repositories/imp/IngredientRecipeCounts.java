@@ -0,0 +1,86 @@
+package data.repositories.imp;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import io.ebean.EbeanServer;
+import play.Logger;
+import scala.concurrent.duration.Duration;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Number of recipes containing each ingredient. Used for estimating the selectivity of ingredient conditions.
+// Refreshed periodically, so counts may be slightly stale.
+public class IngredientRecipeCounts {
+    private static final String SQL = "" +
+            "SELECT ingredient_id, COUNT(*) AS recipe_count " +
+            "FROM recipe_ingredient " +
+            "GROUP BY ingredient_id";
+
+    private final EbeanServer ebean;
+    private volatile Map<Long, Long> counts;
+
+    private static final Logger.ALogger logger = Logger.of(IngredientRecipeCounts.class);
+
+    @Inject
+    public IngredientRecipeCounts(EbeanServer ebean, Config config, ActorSystem actorSystem,
+                                  MaintenanceExecutionContext maintenanceExecContext) {
+        this.ebean = ebean;
+
+        int refreshIntervalSecs = config.getInt("cooksm.art.ingredientrecipecounts.refresh.interval.secs");
+        actorSystem.scheduler().scheduleAtFixedRate(
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                this::refresh,
+                maintenanceExecContext);
+    }
+
+    // Upper estimate of the number of recipes containing any of the ingredients.
+    public long recipesContainingAny(Collection<Long> ingredientIds) {
+        Map<Long, Long> current = counts();
+        long sum = 0;
+        for (Long id : ingredientIds) {
+            sum += current.getOrDefault(id, 0L);
+        }
+
+        return sum;
+    }
+
+    public void preload() {
+        counts();
+    }
+
+    public void refresh() {
+        logger.info("refresh()");
+        counts = load();
+    }
+
+    private Map<Long, Long> counts() {
+        Map<Long, Long> current = counts;
+        if (current == null) {
+            synchronized (this) {
+                current = counts;
+                if (current == null) {
+                    current = load();
+                    counts = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    private Map<Long, Long> load() {
+        Map<Long, Long> loaded = new HashMap<>();
+        ebean.createSqlQuery(SQL)
+                .findEach(row -> loaded.put(row.getLong("ingredient_id"), row.getLong("recipe_count")));
+
+        logger.info("load(): loaded counts of {} ingredients", loaded.size());
+        return Collections.unmodifiableMap(loaded);
+    }
+}
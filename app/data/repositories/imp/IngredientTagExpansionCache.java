@@ -0,0 +1,82 @@
+package data.repositories.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.typesafe.config.Config;
+import io.ebean.EbeanServer;
+import io.ebean.SqlQuery;
+import play.Logger;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Expands ingredient tags to the ids of their ingredients without querying the database for every request.
+// System tags are served from the snapshot of SystemIngredientTags, so they're reloaded together with the tags
+// listed by anonymous tag searches; user defined tags are cached per user, and must be invalidated when the user's
+// tags change.
+public class IngredientTagExpansionCache {
+    private static final String USER_TAGS_SQL = "" +
+            "SELECT ingredient_tag_ingredient.ingredient_tag_id, ingredient_tag_ingredient.ingredient_id " +
+            "FROM ingredient_tag_ingredient " +
+            "JOIN ingredient_tag ON ingredient_tag.id = ingredient_tag_ingredient.ingredient_tag_id " +
+            "WHERE ingredient_tag.user_id = :userId";
+
+    private final EbeanServer ebean;
+    private final SystemIngredientTags systemTags;
+    private final Cache<Long, Map<Long, List<Long>>> userTags;
+
+    private static final Logger.ALogger logger = Logger.of(IngredientTagExpansionCache.class);
+
+    @Inject
+    public IngredientTagExpansionCache(EbeanServer ebean, Config config, SystemIngredientTags systemTags) {
+        this.ebean = ebean;
+        this.systemTags = systemTags;
+        userTags = Caffeine.newBuilder()
+                .maximumSize(config.getLong("cooksm.art.ingredienttags.expansioncache.maxusers"))
+                .expireAfterAccess(config.getLong("cooksm.art.ingredienttags.expansioncache.ttl.secs"), TimeUnit.SECONDS)
+                .build();
+    }
+
+    // Tags not visible to the user (other users' tags), or not existing are ignored.
+    public List<Long> resolve(List<Long> ingredientTagIds, Long userId) {
+        List<Long> result = new ArrayList<>();
+        if (ingredientTagIds == null || ingredientTagIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<Long>> system = systemTags.ingredientIdsByTag();
+        Map<Long, List<Long>> user = userId == null ? Collections.emptyMap() : userTags.get(userId, this::loadUserTags);
+        for (Long tagId : ingredientTagIds) {
+            List<Long> ingredientIds = system.getOrDefault(tagId, user.get(tagId));
+            if (ingredientIds != null) {
+                result.addAll(ingredientIds);
+            }
+        }
+
+        return result;
+    }
+
+    public void preload() {
+        systemTags.preload();
+    }
+
+    public void invalidateUser(Long userId) {
+        logger.info("invalidateUser(): userId = {}", userId);
+        userTags.invalidate(userId);
+    }
+
+    private Map<Long, List<Long>> loadUserTags(Long userId) {
+        logger.info("loadUserTags(): userId = {}", userId);
+        return load(ebean.createSqlQuery(USER_TAGS_SQL).setParameter("userId", userId));
+    }
+
+    private static Map<Long, List<Long>> load(SqlQuery query) {
+        Map<Long, List<Long>> tags = new HashMap<>();
+        query.findEach(row -> tags.computeIfAbsent(row.getLong("ingredient_tag_id"), k -> new ArrayList<>())
+                .add(row.getLong("ingredient_id")));
+
+        tags.replaceAll((tagId, ingredientIds) -> Collections.unmodifiableList(ingredientIds));
+        return Collections.unmodifiableMap(tags);
+    }
+}
@@ -1,8 +1,5 @@
 package data.repositories.imp;
 
-import data.entities.Recipe;
-import io.ebean.Query;
-
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -19,13 +16,14 @@ class IngredientsConditionSetter {
         this.tagsResolver = tagsResolver;
     }
 
-    public void set(Query<Recipe> query, String paramName) {
+    // Ingredient ids, and the ingredient ids of the tags.
+    public List<Long> resolve() {
         if(ingredientTagIds != null && ingredientTagIds.size() > 0) {
             List<Long> ingredientIdsOfTags = tagsResolver.resolve(ingredientTagIds);
             mergeToIngredientIds(ingredientIdsOfTags);
         }
 
-        query.setParameter(paramName, ingredientIds);
+        return ingredientIds;
     }
 
     private void mergeToIngredientIds(List<Long> ingredientIdsToAdd) {
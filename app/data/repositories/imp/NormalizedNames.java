@@ -0,0 +1,17 @@
+package data.repositories.imp;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Names as matched by the in memory name searches: lower cased, with accents removed. Mirrors normalized_name() of
+// conf/sql/postgres/normalized-names.sql; searches in the database normalize with that function instead, as the
+// two may differ for some characters (unaccent's rules aren't the same as Unicode decomposition).
+class NormalizedNames {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    static String of(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,123 @@
+package data.repositories.imp;
+
+import io.ebean.EbeanServer;
+import io.ebean.SqlRow;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.text.Collator;
+import java.util.*;
+
+// Immutable, in-memory snapshot of the recipe catalogue. Recipes are addressed by their position
+// in the id ordered columns, and every ingredient has a compressed bitmap of the positions of the recipes it's part of.
+class RecipeBitmapIndex {
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    final long[] ids;
+    final String[] names;
+    // Positions of the names in the collation order (equal names have the same rank), missing names are last.
+    final int[] nameRanks;
+    final Collator collator;
+    final int[] numofings;
+    final int[] times;
+    final long[] sourcePageIds;
+
+    private final Map<Long, RoaringBitmap> postings;
+
+    private RecipeBitmapIndex(long[] ids, String[] names, Collator collator, int[] numofings, int[] times,
+                              long[] sourcePageIds, Map<Long, RoaringBitmap> postings) {
+        this.ids = ids;
+        this.names = names;
+        this.collator = collator;
+        this.nameRanks = rankedByCollation(names, collator);
+        this.numofings = numofings;
+        this.times = times;
+        this.sourcePageIds = sourcePageIds;
+        this.postings = postings;
+    }
+
+    public static RecipeBitmapIndex load(EbeanServer ebean, Collator collator) {
+        List<SqlRow> recipeRows = ebean
+                .createSqlQuery("SELECT id, name, numofings, time, source_page_id FROM recipe ORDER BY id")
+                .findList();
+
+        int size = recipeRows.size();
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        int[] numofings = new int[size];
+        int[] times = new int[size];
+        long[] sourcePageIds = new long[size];
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            SqlRow row = recipeRows.get(i);
+            ids[i] = row.getLong("id");
+            names[i] = row.getString("name");
+            numofings[i] = valueOrDefault(row.getInteger("numofings"), 0);
+            times[i] = valueOrDefault(row.getInteger("time"), -1);
+            sourcePageIds[i] = valueOrDefault(row.getLong("source_page_id"), -1L);
+            positions.put(ids[i], i);
+        }
+
+        Map<Long, RoaringBitmap> postings = new HashMap<>();
+        ebean.createSqlQuery("SELECT recipe_id, ingredient_id FROM recipe_ingredient")
+                .findEach(row -> {
+                    Integer position = positions.get(row.getLong("recipe_id"));
+                    if (position != null) {
+                        postings.computeIfAbsent(row.getLong("ingredient_id"), k -> new RoaringBitmap())
+                                .add(position);
+                    }
+                });
+        postings.values().forEach(RoaringBitmap::runOptimize);
+
+        return new RecipeBitmapIndex(ids, names, collator, numofings, times, sourcePageIds, postings);
+    }
+
+    // Names are compared with the collator once per load, so ordering pages only compares ints.
+    private static int[] rankedByCollation(String[] names, Collator collator) {
+        Integer[] sorted = new Integer[names.length];
+        Arrays.setAll(sorted, i -> i);
+        Comparator<String> byCollation = Comparator.nullsLast(collator::compare);
+        Arrays.sort(sorted, (a, b) -> byCollation.compare(names[a], names[b]));
+
+        int[] ranks = new int[names.length];
+        for (int i = 0; i < sorted.length; i++) {
+            boolean isSameAsPrevious = i > 0 && byCollation.compare(names[sorted[i - 1]], names[sorted[i]]) == 0;
+            ranks[sorted[i]] = isSameAsPrevious ? ranks[sorted[i - 1]] : i;
+        }
+
+        return ranks;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public RoaringBitmap postingOf(Long ingredientId) {
+        return postings.getOrDefault(ingredientId, EMPTY);
+    }
+
+    public List<RoaringBitmap> postingsOf(Collection<Long> ingredientIds) {
+        List<RoaringBitmap> result = new ArrayList<>(ingredientIds.size());
+        ingredientIds.forEach(id -> result.add(postingOf(id)));
+        return result;
+    }
+
+    public RoaringBitmap unionOf(Collection<Long> ingredientIds) {
+        return RoaringBitmap.or(postingsOf(ingredientIds).iterator());
+    }
+
+    public static int countContaining(List<RoaringBitmap> postings, int position) {
+        int count = 0;
+        for (RoaringBitmap posting : postings) {
+            if (posting.contains(position)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static <T> T valueOrDefault(T value, T defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+}
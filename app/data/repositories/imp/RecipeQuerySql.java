@@ -1,27 +1,62 @@
 package data.repositories.imp;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
 // Contains code for generating raw SQL strings for queries.
 class RecipeQuerySql {
+    // The generated SQL of the most used configurations is cached. As every value is a bind parameter the SQL text
+    // stays the same, and prepared statements can be reused by the database. This includes lists (with
+    // useArrayBinds), bound as a single array parameter.
+    // Configurations are combinations of request params, so there can be millions of them: the caches are bounded.
+    private static final int MAX_CACHED_CONFIGURATIONS = 2000;
+
+    private static final Cache<Configuration, String> cache = newCache();
+    private static final Cache<Configuration, String> countCache = newCache();
+    private static final Cache<Configuration, String> boundedCountCache = newCache();
+
     public static String create(Configuration config) {
+        return cache.get(config.copy(), RecipeQuerySql::generate);
+    }
+
+    // Counts the results of the query described by config. Ordering, paging, and seeking are not taken into account.
+    // If bounded is true, counting stops at :countCap results.
+    public static String createCount(Configuration config, boolean bounded) {
+        Cache<Configuration, String> usedCache = bounded ? boundedCountCache : countCache;
+        return usedCache.get(config.copy(), c -> generateCount(c, bounded));
+    }
+
+    private static Cache<Configuration, String> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_CONFIGURATIONS)
+                .build();
+    }
+
+    static String generate(Configuration config) {
         String otherFields = createOtherFieldsSelections(config);
+        String totalCountField = createTotalCountSelection(config);
         String includedIngredientsJoin = createIncludedIngredientsJoin(config);
         String excludedJoin = createExcludedJoin(config);
         String useFavoritesJoin = createUseFavoritesJoin(config);
         String userRecipeBooksJoin = createUseRecipeBooksJoin(config);
         String where = createWhereClause(config);
-        String includedIngredientsCondition = createIncludedIngredientsCondition(config);
-        String excludedCondition = createExcludedCondition(config);
         String groupByCondition = createGroupByCondition(config);
         String havingCondition = createHavingCondition(config);
-        String useFavoritesCondition = createUseFavoritesCondition(config);
-        String useRecipeBooksCondition = createRecipeBooksCondition(config);
-        String useNameLikeCondition = createNameLikeCondition(config);
+        String orderBy = createOrderBy(config);
+        String paging = createPaging(config);
 
         return "" +
                 "" +
                 "SELECT " +
                 "  recipe.id " +
                 otherFields +
+                totalCountField +
                 "FROM " +
                 "  recipe " +
                 includedIngredientsJoin +
@@ -29,13 +64,24 @@ class RecipeQuerySql {
                 useFavoritesJoin + " " +
                 userRecipeBooksJoin + " " +
                 where +
-                includedIngredientsCondition +
-                excludedCondition + " " +
-                useFavoritesCondition + " " +
-                useRecipeBooksCondition + " " +
-                useNameLikeCondition + " " +
                 groupByCondition + " " +
-                havingCondition;
+                havingCondition + " " +
+                orderBy +
+                paging;
+    }
+
+    private static String generateCount(Configuration config, boolean bounded) {
+        Configuration countConfig = config.copy();
+        countConfig.selectOtherFields = false;
+        countConfig.selectTotalCount = false;
+        countConfig.useSeek = false;
+        countConfig.usePaging = false;
+        countConfig.orderBy = null;
+        countConfig.orderBySort = null;
+
+        String bound = bounded ? " LIMIT :countCap " : "";
+
+        return "SELECT COUNT(*) AS total_count FROM (" + generate(countConfig) + bound + ") AS counted";
     }
 
     static class Configuration {
@@ -46,12 +92,137 @@ class RecipeQuerySql {
         public boolean useFavoritesOnly;
         public boolean useRecipeBooks;
         public boolean useNameLike;
+        // If false, only case insensitive matching is used for name like (e.g. H2 has no similarity operator).
+        public boolean useNameSimilarity = true;
+        // Name like is matched on recipe.name_normalized (lower cased, accent folded), with the name like
+        // parameters normalized the same way.
+        public boolean useNormalizedNames;
+        public boolean useMaxIngs;
+        public boolean useMinIngs;
+        public boolean useSourcePages;
+        public boolean useTimes;
+        public boolean useSeek;
+        // The order by value of the row to seek after is null (e.g. recipes without time).
+        public boolean useNullSeekValue;
+        public boolean usePaging;
+        // Adds the total number of results as a column to every row (window function).
+        public boolean selectTotalCount;
+        public String orderBy;
+        public String orderBySort;
+        // Relations can't be bind parameters, they are part of the SQL.
+        public String goodIngredientsRelation;
+        public String unknownIngredientsRelation;
+        public String goodAdditionalIngredientsRelation;
+        // Ingredient conditions are evaluated on the recipe.ingredient_ids array (Postgres intarray) instead of
+        // joining recipe_ingredient.
+        public boolean useIngredientArray;
+        // Excluded ingredients are filtered with NOT EXISTS, instead of joining the set of recipes containing them.
+        // Cheaper when only a few recipes contain the excluded ingredients.
+        public boolean useExcludeAntiJoin;
+        // Lists are bound as one array parameter (written by arrayOf()) instead of one parameter per element, so
+        // the SQL text doesn't depend on list sizes. H2 can't cast text to arrays, so it's Postgres only.
+        public boolean useArrayBinds;
 
         public Configuration(boolean selectOtherFields, boolean useExclude, QueryType queryType) {
             this.selectOtherFields = selectOtherFields;
             this.useExclude = useExclude;
             this.queryType = queryType;
         }
+
+        public Configuration copy() {
+            Configuration copy = new Configuration(selectOtherFields, useExclude, queryType);
+            copy.useAdditionalIngrs = useAdditionalIngrs;
+            copy.useFavoritesOnly = useFavoritesOnly;
+            copy.useRecipeBooks = useRecipeBooks;
+            copy.useNameLike = useNameLike;
+            copy.useNameSimilarity = useNameSimilarity;
+            copy.useNormalizedNames = useNormalizedNames;
+            copy.useMaxIngs = useMaxIngs;
+            copy.useMinIngs = useMinIngs;
+            copy.useSourcePages = useSourcePages;
+            copy.useTimes = useTimes;
+            copy.useSeek = useSeek;
+            copy.useNullSeekValue = useNullSeekValue;
+            copy.usePaging = usePaging;
+            copy.selectTotalCount = selectTotalCount;
+            copy.orderBy = orderBy;
+            copy.orderBySort = orderBySort;
+            copy.goodIngredientsRelation = goodIngredientsRelation;
+            copy.unknownIngredientsRelation = unknownIngredientsRelation;
+            copy.goodAdditionalIngredientsRelation = goodAdditionalIngredientsRelation;
+            copy.useIngredientArray = useIngredientArray;
+            copy.useExcludeAntiJoin = useExcludeAntiJoin;
+            copy.useArrayBinds = useArrayBinds;
+
+            return copy;
+        }
+
+        // Number of the different shapes, see shapeIndex().
+        public static final int NUM_OF_SHAPES = QueryType.values().length * 32;
+
+        // Index of the shape described by shapeLabels(), between 0 and NUM_OF_SHAPES - 1, so metrics of a shape
+        // can be looked up without building its labels.
+        public int shapeIndex() {
+            int flags = (useExclude ? 1 : 0) |
+                    (useAdditionalIngrs ? 2 : 0) |
+                    (useFavoritesOnly ? 4 : 0) |
+                    (useRecipeBooks ? 8 : 0) |
+                    (useNameLike ? 16 : 0);
+            return queryType.ordinal() * 32 + flags;
+        }
+
+        // Labels of metrics describing the shape of the query, as name, value pairs.
+        public String[] shapeLabels() {
+            return new String[]{
+                    "type", queryType.name().toLowerCase(),
+                    "exclude", String.valueOf(useExclude),
+                    "additional", String.valueOf(useAdditionalIngrs),
+                    "favorites", String.valueOf(useFavoritesOnly),
+                    "recipeBooks", String.valueOf(useRecipeBooks),
+                    "nameLike", String.valueOf(useNameLike)
+            };
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Configuration that = (Configuration) o;
+            return selectOtherFields == that.selectOtherFields &&
+                    useExclude == that.useExclude &&
+                    useAdditionalIngrs == that.useAdditionalIngrs &&
+                    useFavoritesOnly == that.useFavoritesOnly &&
+                    useRecipeBooks == that.useRecipeBooks &&
+                    useNameLike == that.useNameLike &&
+                    useNameSimilarity == that.useNameSimilarity &&
+                    useNormalizedNames == that.useNormalizedNames &&
+                    useMaxIngs == that.useMaxIngs &&
+                    useMinIngs == that.useMinIngs &&
+                    useSourcePages == that.useSourcePages &&
+                    useTimes == that.useTimes &&
+                    useSeek == that.useSeek &&
+                    useNullSeekValue == that.useNullSeekValue &&
+                    usePaging == that.usePaging &&
+                    selectTotalCount == that.selectTotalCount &&
+                    useIngredientArray == that.useIngredientArray &&
+                    useExcludeAntiJoin == that.useExcludeAntiJoin &&
+                    useArrayBinds == that.useArrayBinds &&
+                    queryType == that.queryType &&
+                    Objects.equals(orderBy, that.orderBy) &&
+                    Objects.equals(orderBySort, that.orderBySort) &&
+                    Objects.equals(goodIngredientsRelation, that.goodIngredientsRelation) &&
+                    Objects.equals(unknownIngredientsRelation, that.unknownIngredientsRelation) &&
+                    Objects.equals(goodAdditionalIngredientsRelation, that.goodAdditionalIngredientsRelation);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(selectOtherFields, useExclude, queryType, useAdditionalIngrs, useFavoritesOnly,
+                    useRecipeBooks, useNameLike, useNameSimilarity, useMaxIngs, useMinIngs, useSourcePages, useTimes,
+                    useSeek, usePaging, selectTotalCount, orderBy, orderBySort, goodIngredientsRelation,
+                    unknownIngredientsRelation, goodAdditionalIngredientsRelation, useIngredientArray,
+                    useExcludeAntiJoin, useNormalizedNames, useArrayBinds, useNullSeekValue);
+        }
     }
 
     public enum QueryType {
@@ -60,7 +231,7 @@ class RecipeQuerySql {
 
     private static String createExcludedJoin(Configuration config) {
         String excludedJoin = "";
-        if (config.useExclude) {
+        if (config.useExclude && !config.useIngredientArray && !config.useExcludeAntiJoin) {
             excludedJoin = "" +
                     "LEFT JOIN " +
                     "  (SELECT " +
@@ -71,7 +242,7 @@ class RecipeQuerySql {
                     "  JOIN " +
                     "    recipe_ingredient ie on ie.recipe_id = re.id " +
                     "  WHERE " +
-                    "    ie.ingredient_id in (:excludedIngredients) " +
+                    "    " + inListOf(config, "ie.ingredient_id", "excludedIngredients", "bigint") +
                     "  GROUP BY " +
                     "    re.id " +
                     "  HAVING " +
@@ -88,16 +259,21 @@ class RecipeQuerySql {
             return "";
         }
 
-        String condition = " (badIngs IS NULL) ";
-        if (config.queryType == QueryType.NUMBER || config.queryType == QueryType.RATIO) {
-            condition = " AND " + condition;
+        if (config.useIngredientArray) {
+            return " NOT (recipe.ingredient_ids && " + intArrayOf(config, "excludedIngredients") + ") ";
+        }
+
+        if (config.useExcludeAntiJoin) {
+            return " NOT EXISTS (" +
+                    "  SELECT 1 FROM recipe_ingredient ie " +
+                    "  WHERE ie.recipe_id = recipe.id AND " + inListOf(config, "ie.ingredient_id", "excludedIngredients", "bigint") + ") ";
         }
 
-        return condition;
+        return " (badIngs IS NULL) ";
     }
 
     private static String createGroupByCondition(Configuration config) {
-        if (config.useRecipeBooks || !QueryType.NONE.equals(config.queryType)) {
+        if (config.useRecipeBooks || (!QueryType.NONE.equals(config.queryType) && !config.useIngredientArray)) {
             return "GROUP BY recipe.id ";
         }
 
@@ -108,8 +284,12 @@ class RecipeQuerySql {
         String prefix = "" +
                 "HAVING ";
 
+        if (config.useIngredientArray) {
+            return "";
+        }
+
         if (QueryType.NUMBER.equals(config.queryType)) {
-            return prefix + havingNumberCondition();
+            return prefix + havingNumberCondition(config);
         } else if (QueryType.RATIO.equals(config.queryType)) {
             return prefix + havingRatioCondition();
         } else if (QueryType.NONE.equals(config.queryType)) {
@@ -123,16 +303,47 @@ class RecipeQuerySql {
         return " (COUNT(recipe_ingredient.ingredient_id) * 1.0) / (recipe.numofings * 1.0) >= :ratio";
     }
 
-    private static String havingNumberCondition() {
-        return "  COUNT(recipe_ingredient.ingredient_id) :goodIngredientsRelation :goodIngredients AND " +
-                "  (recipe.numofings - COUNT(recipe_ingredient.ingredient_id)) :unknownIngredientsRelation :unknownIngredients";
+    private static String havingNumberCondition(Configuration config) {
+        return "  COUNT(recipe_ingredient.ingredient_id) " + relationOf(config.goodIngredientsRelation) + " :goodIngredients AND " +
+                "  (recipe.numofings - COUNT(recipe_ingredient.ingredient_id)) " + relationOf(config.unknownIngredientsRelation) + " :unknownIngredients";
+    }
+
+    private static String relationOf(String relation) {
+        if (relation == null) {
+            throw new IllegalArgumentException("Relation is invalid!");
+        }
+
+        return relation;
     }
 
     private static String createIncludedIngredientsCondition(Configuration config) {
+        if (config.useIngredientArray) {
+            return createIncludedIngredientsArrayCondition(config);
+        }
+
         if (QueryType.RATIO.equals(config.queryType) ||
                 QueryType.NUMBER.equals(config.queryType)) {
-            return "" +
-                    "  recipe_ingredient.ingredient_id IN (:includedIngredients) ";
+            return "  " + inListOf(config, "recipe_ingredient.ingredient_id", "includedIngredients", "bigint");
+        } else if (QueryType.NONE.equals(config.queryType)) {
+            return "";
+        }
+
+        throw new IllegalArgumentException("Query type is invalid!");
+    }
+
+    private static String createIncludedIngredientsArrayCondition(Configuration config) {
+        String included = intArrayOf(config, "includedIngredients");
+        String goodCount = "icount(recipe.ingredient_ids & " + included + ")";
+        // Overlap is checked first, so the GIN index can narrow down the candidates.
+        String overlap = " recipe.ingredient_ids && " + included + " ";
+
+        if (QueryType.NUMBER.equals(config.queryType)) {
+            return overlap + " AND " +
+                    goodCount + " " + relationOf(config.goodIngredientsRelation) + " :goodIngredients AND " +
+                    "(recipe.numofings - " + goodCount + ") " + relationOf(config.unknownIngredientsRelation) + " :unknownIngredients ";
+        } else if (QueryType.RATIO.equals(config.queryType)) {
+            return overlap + " AND " +
+                    "(" + goodCount + " * 1.0) / (recipe.numofings * 1.0) >= :ratio ";
         } else if (QueryType.NONE.equals(config.queryType)) {
             return "";
         }
@@ -140,7 +351,46 @@ class RecipeQuerySql {
         throw new IllegalArgumentException("Query type is invalid!");
     }
 
+    private static String createAdditionalIngredientsArrayCondition(Configuration config) {
+        if (!config.useIngredientArray || !config.useAdditionalIngrs || QueryType.NONE.equals(config.queryType)) {
+            return "";
+        }
+
+        String additionals = intArrayOf(config, "additionalIngredientIds");
+        return " recipe.ingredient_ids && " + additionals + " AND " +
+                "icount(recipe.ingredient_ids & " + additionals + ") " +
+                relationOf(config.goodAdditionalIngredientsRelation) + " :goodAdditionalIngredients ";
+    }
+
+    private static String intArrayOf(Configuration config, String paramName) {
+        if (config.useArrayBinds) {
+            return "CAST(:" + paramName + " AS int[])";
+        }
+
+        // The id list is expanded to one bind parameter per element.
+        return "ARRAY[:" + paramName + "]::int[]";
+    }
+
+    private static String inListOf(Configuration config, String column, String paramName, String elementType) {
+        if (config.useArrayBinds) {
+            return column + " = ANY(CAST(:" + paramName + " AS " + elementType + "[])) ";
+        }
+
+        return column + " IN (:" + paramName + ") ";
+    }
+
+    // Value of a list parameter bound with useArrayBinds: an array literal, cast to the array type by the SQL.
+    public static String arrayOf(Collection<? extends Number> values) {
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        values.forEach(v -> joiner.add(v.toString()));
+        return joiner.toString();
+    }
+
     private static String createIncludedIngredientsJoin(Configuration config) {
+        if (config.useIngredientArray) {
+            return "";
+        }
+
         String join = "";
         if (QueryType.RATIO.equals(config.queryType) || QueryType.NUMBER.equals(config.queryType)) {
             join = " JOIN recipe_ingredient ON recipe.id = recipe_ingredient.recipe_id ";
@@ -148,7 +398,7 @@ class RecipeQuerySql {
 
         if ((QueryType.RATIO.equals(config.queryType) || QueryType.NUMBER.equals(config.queryType))
                 && config.useAdditionalIngrs) {
-            join = join + " JOIN (" + createAdditionalIngredientsQuery() + ") AS additionals " +
+            join = join + " JOIN (" + createAdditionalIngredientsQuery(config) + ") AS additionals " +
                     " ON recipe.id = additionals.recipe_id ";
         }
 
@@ -156,18 +406,29 @@ class RecipeQuerySql {
     }
 
     private static String createWhereClause(Configuration config) {
-        String whereClause = "";
-
-        if (QueryType.RATIO.equals(config.queryType) ||
-                QueryType.NUMBER.equals(config.queryType) ||
-                config.useExclude ||
-                config.useFavoritesOnly ||
-                config.useRecipeBooks ||
-                config.useNameLike) {
-            whereClause = "WHERE ";
+        List<String> conditions = new ArrayList<>();
+        addIfNotEmpty(conditions, createIncludedIngredientsCondition(config));
+        addIfNotEmpty(conditions, createAdditionalIngredientsArrayCondition(config));
+        addIfNotEmpty(conditions, createExcludedCondition(config));
+        addIfNotEmpty(conditions, createUseFavoritesCondition(config));
+        addIfNotEmpty(conditions, createRecipeBooksCondition(config));
+        addIfNotEmpty(conditions, createNameLikeCondition(config));
+        addIfNotEmpty(conditions, createNumberOfIngredientsCondition(config));
+        addIfNotEmpty(conditions, createSourcePagesCondition(config));
+        addIfNotEmpty(conditions, createTimesCondition(config));
+        addIfNotEmpty(conditions, createSeekCondition(config));
+
+        if (conditions.isEmpty()) {
+            return "";
         }
 
-        return whereClause;
+        return "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    private static void addIfNotEmpty(List<String> conditions, String condition) {
+        if (!condition.isEmpty()) {
+            conditions.add(condition);
+        }
     }
 
     private static String createOtherFieldsSelections(Configuration config) {
@@ -180,14 +441,22 @@ class RecipeQuerySql {
         return otherFieldSelections;
     }
 
-    private static String createAdditionalIngredientsQuery() {
+    private static String createTotalCountSelection(Configuration config) {
+        if (!config.selectTotalCount) {
+            return "";
+        }
+
+        return ", COUNT(*) OVER() AS total_count ";
+    }
+
+    private static String createAdditionalIngredientsQuery(Configuration config) {
         return " SELECT recipe.id AS recipe_id " +
                 " FROM recipe " +
                 " JOIN recipe_ingredient ON recipe.id = recipe_ingredient.recipe_id " +
-                " WHERE recipe_ingredient.ingredient_id IN (:additionalIngredientIds) " +
+                " WHERE " + inListOf(config, "recipe_ingredient.ingredient_id", "additionalIngredientIds", "bigint") +
                 " GROUP BY recipe.id " +
                 " HAVING " +
-                "   COUNT(recipe_ingredient.ingredient_id) :goodAdditionalIngredientRelation :goodAdditionalIngredientIds ";
+                "   COUNT(recipe_ingredient.ingredient_id) " + relationOf(config.goodAdditionalIngredientsRelation) + " :goodAdditionalIngredients ";
     }
 
     private static String createUseFavoritesJoin(Configuration config) {
@@ -211,49 +480,140 @@ class RecipeQuerySql {
             return "";
         }
 
-        String condition = " favorite_recipe.user_id = :userId ";
+        return " favorite_recipe.user_id = :userId ";
+    }
 
-        if (config.queryType == QueryType.NUMBER ||
-                config.queryType == QueryType.RATIO ||
-                config.useExclude) {
-            condition = " AND " + condition;
+    private static String createRecipeBooksCondition(Configuration config) {
+        if (!config.useRecipeBooks) {
+            return "";
         }
 
-        return condition;
+        return " " + inListOf(config, "recipe_book_recipe.recipe_book_id", "usedRecipeBooks", "bigint");
     }
 
-    private static String createRecipeBooksCondition(Configuration config) {
-        if (!config.useRecipeBooks) {
+    private static String createNameLikeCondition(Configuration config) {
+        if (!config.useNameLike) {
             return "";
         }
 
-        String condition = " recipe_book_recipe.recipe_book_id IN (:usedRecipeBooks) ";
+        // The searched name is normalized by the database too, the same way the column was. Similarity is checked
+        // with % (similarity above pg_trgm.similarity_threshold, set to 0.45 by normalized-names.sql, i.e. a distance
+        // below 0.55), as unlike <-> it's served by the GIN trigram index, same as the LIKE.
+        if (config.useNormalizedNames) {
+            return config.useNameSimilarity ?
+                    " (recipe.name_normalized % normalized_name(:nameLike) OR " +
+                            "recipe.name_normalized LIKE ('%' || normalized_name(:nameLike) || '%')) " :
+                    " recipe.name_normalized LIKE ('%' || normalized_name(:nameLike) || '%') ";
+        }
 
-        if (config.queryType == QueryType.NUMBER ||
-                config.queryType == QueryType.RATIO ||
-                config.useExclude ||
-                config.useFavoritesOnly) {
-            condition = " AND " + condition;
+        if (!config.useNameSimilarity) {
+            return " recipe.name ILIKE :nameLikeForIlike ";
         }
 
-        return condition;
+        return " (recipe.name <-> :nameLike < 0.55 OR recipe.name ILIKE :nameLikeForIlike) ";
     }
 
-    private static String createNameLikeCondition(Configuration config) {
-        if(!config.useNameLike) {
+    private static String createNumberOfIngredientsCondition(Configuration config) {
+        List<String> conditions = new ArrayList<>();
+        if (config.useMaxIngs) {
+            conditions.add(" recipe.numofings <= :maxIngs ");
+        }
+
+        if (config.useMinIngs) {
+            conditions.add(" recipe.numofings >= :minIngs ");
+        }
+
+        return String.join(" AND ", conditions);
+    }
+
+    private static String createSourcePagesCondition(Configuration config) {
+        if (!config.useSourcePages) {
+            return "";
+        }
+
+        return " " + inListOf(config, "recipe.source_page_id", "sourcePageIds", "bigint");
+    }
+
+    private static String createTimesCondition(Configuration config) {
+        if (!config.useTimes) {
+            return "";
+        }
+
+        return " " + inListOf(config, "recipe.time", "times", "int");
+    }
+
+    private static String createSeekCondition(Configuration config) {
+        // Keyset paging: continue right after the last row of the previous page, relying on the
+        // (orderBy, id) ordering being unique.
+        if (!config.useSeek) {
+            return "";
+        }
+
+        if (config.orderBy == null || config.orderBySort == null) {
+            return " recipe.id > :seekId ";
+        }
+
+        // Nulls are ordered last ascending, and first descending.
+        String column = orderByColumnOf(config.orderBy);
+        if (config.useNullSeekValue) {
+            return isDescending(config) ?
+                    " (" + column + " IS NOT NULL OR recipe.id > :seekId) " :
+                    " (" + column + " IS NULL AND recipe.id > :seekId) ";
+        }
+
+        String relation = isDescending(config) ? "<" : ">";
+        String nulls = isDescending(config) ? "" : " OR " + column + " IS NULL";
+
+        return " (" + column + " " + relation + " :seekValue OR " +
+                "(" + column + " = :seekValue AND recipe.id > :seekId)" + nulls + ") ";
+    }
+
+    private static String createOrderBy(Configuration config) {
+        /*
+           Sorting by id is necessary to avoid occurring the same results across different pages.
+           E.g. sorting by number of ingredient is not a unique sorting as many recipes have the same number
+           of ingredients.
+        */
+        if (config.orderBy == null || config.orderBySort == null) {
+            return config.usePaging ? " ORDER BY recipe.id " : "";
+        }
+
+        // Nulls ordering is given explicitly, as it's the opposite on H2 by default.
+        String sort = isDescending(config) ? "DESC NULLS FIRST" : "ASC NULLS LAST";
+        return " ORDER BY " + orderByColumnOf(config.orderBy) + " " + sort + ", recipe.id ";
+    }
+
+    private static String createPaging(Configuration config) {
+        if (!config.usePaging) {
             return "";
         }
 
-        String condition = " (recipe.name <-> :nameLike < 0.55 OR recipe.name ILIKE :nameLikeForIlike) ";
+        if (config.useSeek) {
+            return " LIMIT :limit ";
+        }
+
+        return " LIMIT :limit OFFSET :offset ";
+    }
+
+    private static boolean isDescending(Configuration config) {
+        if ("desc".equals(config.orderBySort)) {
+            return true;
+        } else if ("asc".equals(config.orderBySort)) {
+            return false;
+        }
+
+        throw new IllegalArgumentException("Order by sort is invalid!");
+    }
 
-        if (config.queryType == QueryType.NUMBER ||
-                config.queryType == QueryType.RATIO ||
-                config.useExclude ||
-                config.useFavoritesOnly ||
-                config.useRecipeBooks) {
-            condition = " AND " + condition;
+    private static String orderByColumnOf(String orderBy) {
+        if ("name".equals(orderBy)) {
+            return "recipe.name";
+        } else if ("numofings".equals(orderBy)) {
+            return "recipe.numofings";
+        } else if ("time".equals(orderBy)) {
+            return "recipe.time";
         }
 
-        return condition;
+        throw new IllegalArgumentException("Order by is invalid!");
     }
 }
@@ -0,0 +1,164 @@
+package data.repositories.imp;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import io.ebean.EbeanServer;
+import lombokized.dto.IngredientTagDto;
+import lombokized.repositories.Page;
+import play.Environment;
+import play.Logger;
+import scala.concurrent.duration.Duration;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Immutable snapshot of the system (not user defined) ingredient tags with their names and ingredient ids, so
+// anonymous tag searches are answered, and system tags of recipe searches are expanded (by
+// IngredientTagExpansionCache) without querying the database. Loaded lazily, and reloaded periodically, as system
+// tags only change by imports.
+public class SystemIngredientTags {
+    private static final String NAMES_SQL = "" +
+            "SELECT ingredient_tag_name.tag_id, ingredient_tag_name.language_id, ingredient_tag_name.name " +
+            "FROM ingredient_tag_name " +
+            "JOIN ingredient_tag ON ingredient_tag.id = ingredient_tag_name.tag_id " +
+            "WHERE ingredient_tag.user_id IS NULL";
+
+    private static final String INGREDIENTS_SQL = "" +
+            "SELECT ingredient_tag_ingredient.ingredient_tag_id, ingredient_tag_ingredient.ingredient_id " +
+            "FROM ingredient_tag_ingredient " +
+            "JOIN ingredient_tag ON ingredient_tag.id = ingredient_tag_ingredient.ingredient_tag_id " +
+            "WHERE ingredient_tag.user_id IS NULL " +
+            "ORDER BY ingredient_tag_ingredient.ingredient_id";
+
+    private final EbeanServer ebean;
+    // Same as the database searches of signed in users (EbeanIngredientTagRepository), so both match the same tags.
+    private final boolean useNormalizedNames;
+    private volatile Snapshot snapshot;
+
+    private static final Logger.ALogger logger = Logger.of(SystemIngredientTags.class);
+
+    @Inject
+    public SystemIngredientTags(EbeanServer ebean, Config config, ActorSystem actorSystem,
+                                MaintenanceExecutionContext maintenanceExecContext, Environment environment) {
+        this.ebean = ebean;
+        useNormalizedNames = config.getBoolean("cooksm.art.names.normalized.enabled") && !environment.isTest();
+
+        int refreshIntervalSecs = config.getInt("cooksm.art.ingredienttags.systemtags.refresh.interval.secs");
+        actorSystem.scheduler().scheduleAtFixedRate(
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                Duration.create(refreshIntervalSecs, TimeUnit.SECONDS),
+                this::refreshIfLoaded,
+                maintenanceExecContext);
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    // Ingredient ids of system tags, by tag id.
+    public Map<Long, List<Long>> ingredientIdsByTag() {
+        return snapshot().ingredientIdsByTag;
+    }
+
+    // Tags with a name in the language containing nameLike literally, by id. Case insensitive, and accent
+    // insensitive too with normalized names, as in the database.
+    public Page<IngredientTagDto> page(String nameLike, Long languageId, int limit, int offset) {
+        String needle = nameLike == null ? "" : matchNameOf(nameLike);
+        List<IngredientTagDto> items = new ArrayList<>(Math.min(limit, 64));
+        int totalCount = 0;
+        for (Entry entry : snapshot().byLanguage.getOrDefault(languageId, Collections.emptyList())) {
+            if (entry.matchName.contains(needle)) {
+                if (totalCount >= offset && items.size() < limit) {
+                    items.add(entry.dto);
+                }
+
+                totalCount++;
+            }
+        }
+
+        return new Page<>(items, totalCount);
+    }
+
+    public void preload() {
+        snapshot();
+    }
+
+    public void refresh() {
+        logger.info("refresh()");
+        snapshot = load();
+    }
+
+    private void refreshIfLoaded() {
+        if (isLoaded()) {
+            refresh();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    private Snapshot load() {
+        Map<Long, List<Long>> ingredientIdsByTag = new HashMap<>();
+        ebean.createSqlQuery(INGREDIENTS_SQL)
+                .findEach(row -> ingredientIdsByTag
+                        .computeIfAbsent(row.getLong("ingredient_tag_id"), t -> new ArrayList<>())
+                        .add(row.getLong("ingredient_id")));
+
+        ingredientIdsByTag.replaceAll((tagId, ingredientIds) -> Collections.unmodifiableList(ingredientIds));
+
+        Map<Long, List<Entry>> loaded = new HashMap<>();
+        ebean.createSqlQuery(NAMES_SQL).findEach(row -> {
+            Long tagId = row.getLong("tag_id");
+            List<Long> ingredientIds = ingredientIdsByTag.getOrDefault(tagId, Collections.emptyList());
+            IngredientTagDto dto = new IngredientTagDto(tagId, row.getString("name"), ingredientIds);
+            loaded.computeIfAbsent(row.getLong("language_id"), l -> new ArrayList<>())
+                    .add(new Entry(dto, matchNameOf(dto.getName())));
+        });
+
+        loaded.replaceAll((languageId, entries) -> {
+            entries.sort(Comparator.comparing(e -> e.dto.getId()));
+            return Collections.unmodifiableList(entries);
+        });
+
+        logger.info("load(): loaded {} names of system tags", loaded.values().stream().mapToInt(List::size).sum());
+        return new Snapshot(Collections.unmodifiableMap(loaded), Collections.unmodifiableMap(ingredientIdsByTag));
+    }
+
+    private String matchNameOf(String name) {
+        return useNormalizedNames ? NormalizedNames.of(name) : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Snapshot {
+        final Map<Long, List<Entry>> byLanguage;
+        final Map<Long, List<Long>> ingredientIdsByTag;
+
+        Snapshot(Map<Long, List<Entry>> byLanguage, Map<Long, List<Long>> ingredientIdsByTag) {
+            this.byLanguage = byLanguage;
+            this.ingredientIdsByTag = ingredientIdsByTag;
+        }
+    }
+
+    private static class Entry {
+        final IngredientTagDto dto;
+        final String matchName;
+
+        Entry(IngredientTagDto dto, String matchName) {
+            this.dto = dto;
+            this.matchName = matchName;
+        }
+    }
+}
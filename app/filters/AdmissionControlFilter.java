@@ -0,0 +1,128 @@
+package filters;
+
+import akka.stream.Materializer;
+import com.typesafe.config.Config;
+import data.DatabaseExecutionContext;
+import data.InstrumentedExecutionContext;
+import data.SearchExecutionContext;
+import data.repositories.imp.IngredientNameIndex;
+import data.repositories.imp.SystemIngredientTags;
+import metrics.MetricsRegistry;
+import play.Logger;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import static play.mvc.Results.status;
+
+// Rejects requests early with 503, when the dispatcher that would serve them is backed up, instead of letting them
+// wait unboundedly. Authenticated writes are admitted up to a higher queue depth than other requests.
+// Requests served from memory are always admitted.
+public class AdmissionControlFilter extends Filter {
+    private final SearchExecutionContext searchExecContext;
+    private final DatabaseExecutionContext dbExecContext;
+    private final IngredientNameIndex ingredientNameIndex;
+    private final SystemIngredientTags systemTags;
+    private final MetricsRegistry metrics;
+
+    private final boolean isEnabled;
+    private final long searchMaxQueue;
+    private final long searchMaxWaitMs;
+    private final long crudMaxQueue;
+    private final long crudWriteMaxQueue;
+    private final long crudMaxWaitMs;
+    private final String retryAfterSecs;
+
+    private static final Logger.ALogger logger = Logger.of(AdmissionControlFilter.class);
+
+    @Inject
+    public AdmissionControlFilter(Materializer mat, Config config, SearchExecutionContext searchExecContext,
+                                  DatabaseExecutionContext dbExecContext, IngredientNameIndex ingredientNameIndex,
+                                  SystemIngredientTags systemTags, MetricsRegistry metrics) {
+        super(mat);
+        this.searchExecContext = searchExecContext;
+        this.dbExecContext = dbExecContext;
+        this.ingredientNameIndex = ingredientNameIndex;
+        this.systemTags = systemTags;
+        this.metrics = metrics;
+
+        isEnabled = config.getBoolean("cooksm.art.admission.enabled");
+        searchMaxQueue = config.getLong("cooksm.art.admission.search.maxqueue");
+        searchMaxWaitMs = config.getLong("cooksm.art.admission.search.maxwait.ms");
+        crudMaxQueue = config.getLong("cooksm.art.admission.crud.maxqueue");
+        crudWriteMaxQueue = config.getLong("cooksm.art.admission.crud.write.maxqueue");
+        crudMaxWaitMs = config.getLong("cooksm.art.admission.crud.maxwait.ms");
+        retryAfterSecs = String.valueOf(config.getInt("cooksm.art.admission.retryafter.secs"));
+    }
+
+    @Override
+    public CompletionStage<Result> apply(Function<Http.RequestHeader, CompletionStage<Result>> nextFilter, Http.RequestHeader requestHeader) {
+        // Health checks must not fail because of load, or overloaded nodes would be taken out of rotation one by one.
+        if (!isEnabled || requestHeader.path().startsWith("/health/") || isServedFromMemory(requestHeader)) {
+            return nextFilter.apply(requestHeader);
+        }
+
+        if (isSearch(requestHeader)) {
+            if (isOverloaded(searchExecContext, searchMaxQueue, searchMaxWaitMs)) {
+                return reject(requestHeader, "search");
+            }
+        } else if (isAuthenticatedWrite(requestHeader)) {
+            if (isOverloaded(dbExecContext, crudWriteMaxQueue, Long.MAX_VALUE)) {
+                return reject(requestHeader, "write");
+            }
+        } else if (isOverloaded(dbExecContext, crudMaxQueue, crudMaxWaitMs)) {
+            return reject(requestHeader, "read");
+        }
+
+        return nextFilter.apply(requestHeader);
+    }
+
+    private boolean isServedFromMemory(Http.RequestHeader requestHeader) {
+        String path = requestHeader.path();
+        if ("/metrics".equals(path)) {
+            return true;
+        }
+
+        if (!"GET".equals(requestHeader.method())) {
+            return false;
+        }
+
+        return ("/ingredientnames".equals(path) && ingredientNameIndex.isLoaded()) ||
+                ("/ingredienttags".equals(path) && !isAuthenticated(requestHeader) && systemTags.isLoaded());
+    }
+
+    // Only the routes run on the search dispatcher; the rest (e.g. single recipe searches) run on the database one.
+    private static boolean isSearch(Http.RequestHeader requestHeader) {
+        String path = requestHeader.path();
+        return "GET".equals(requestHeader.method()) &&
+                ("/recipes".equals(path) || path.startsWith("/ingredientnames") ||
+                        ("/ingredienttags".equals(path) && isAuthenticated(requestHeader)));
+    }
+
+    private static boolean isAuthenticated(Http.RequestHeader requestHeader) {
+        return requestHeader.header(Http.HeaderNames.AUTHORIZATION).isPresent();
+    }
+
+    private static boolean isAuthenticatedWrite(Http.RequestHeader requestHeader) {
+        return !"GET".equals(requestHeader.method()) && isAuthenticated(requestHeader);
+    }
+
+    private static boolean isOverloaded(InstrumentedExecutionContext executionContext, long maxQueue, long maxWaitMs) {
+        return executionContext.queueDepth() > maxQueue || executionContext.oldestQueuedWaitMs() > maxWaitMs;
+    }
+
+    private CompletionStage<Result> reject(Http.RequestHeader requestHeader, String kind) {
+        logger.warn("reject(): overloaded; kind = {}, method = {}, path = {}", kind, requestHeader.method(), requestHeader.path());
+        metrics.counter("admission_rejected_total", "Number of requests rejected by admission control.", "kind", kind)
+                .increment();
+
+        Result result = status(Http.Status.SERVICE_UNAVAILABLE)
+                .withHeader(Http.HeaderNames.RETRY_AFTER, retryAfterSecs);
+        return CompletableFuture.completedFuture(result);
+    }
+}
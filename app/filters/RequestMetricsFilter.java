@@ -0,0 +1,74 @@
+package filters;
+
+import akka.stream.Materializer;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.routing.HandlerDef;
+import play.routing.Router;
+
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Records request latencies per route, where the route is the controller method of conf/routes handling it.
+public class RequestMetricsFilter extends Filter {
+    private static final String UNMATCHED = "unmatched";
+
+    private final MetricsRegistry metrics;
+    // Histograms by controller, and method, indexed by status class. Resolved on the first request of each.
+    private final Map<String, Map<String, Histogram[]>> histograms = new ConcurrentHashMap<>();
+
+    @Inject
+    public RequestMetricsFilter(Materializer mat, MetricsRegistry metrics) {
+        super(mat);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletionStage<Result> apply(Function<Http.RequestHeader, CompletionStage<Result>> nextFilter, Http.RequestHeader requestHeader) {
+        long startNanos = System.nanoTime();
+        // Failed requests are recorded too (as 5xx, which is what the error handler turns them into).
+        return nextFilter.apply(requestHeader).whenComplete((result, error) -> {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            int statusClass = error == null ? result.status() / 100 : 5;
+            histogramOf(requestHeader, statusClass).observe(elapsedMs);
+        });
+    }
+
+    private Histogram histogramOf(Http.RequestHeader requestHeader, int statusClass) {
+        String controller = UNMATCHED;
+        String method = UNMATCHED;
+        if (requestHeader.attrs().containsKey(Router.Attrs.HANDLER_DEF)) {
+            HandlerDef handlerDef = requestHeader.attrs().get(Router.Attrs.HANDLER_DEF);
+            controller = handlerDef.controller();
+            method = handlerDef.method();
+        }
+
+        Map<String, Histogram[]> ofController = histograms.get(controller);
+        if (ofController == null) {
+            ofController = histograms.computeIfAbsent(controller, c -> new ConcurrentHashMap<>());
+        }
+
+        Histogram[] byStatusClass = ofController.get(method);
+        if (byStatusClass == null) {
+            byStatusClass = ofController.computeIfAbsent(method, m -> new Histogram[6]);
+        }
+
+        Histogram histogram = byStatusClass[statusClass];
+        if (histogram == null) {
+            // Racing threads resolve the same histogram from the registry.
+            String route = UNMATCHED.equals(controller) ? UNMATCHED : controller + "." + method;
+            histogram = metrics.histogram("http_request_ms", "Time of serving requests.", Histogram.LATENCY_MS_BUCKETS,
+                    "route", route, "status", statusClass + "xx");
+            byStatusClass[statusClass] = histogram;
+        }
+
+        return histogram;
+    }
+}
@@ -0,0 +1,243 @@
+package filters;
+
+import akka.stream.Materializer;
+import akka.util.ByteString;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.typesafe.config.Config;
+import metrics.MetricsRegistry;
+import play.Logger;
+import play.http.HttpEntity;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.routing.HandlerDef;
+import play.routing.Router;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+// Caches whole responses of anonymous GETs of configured routes, keyed by the normalized URI and the accepted encoding.
+// Bodies are stored serialized (and gzipped when accepted), with a strong ETag, so hits and If-None-Match revalidations
+// are answered without binding forms or touching the database.
+public class ResponseCacheFilter extends Filter {
+    private final Materializer mat;
+    private final MetricsRegistry metrics;
+    private final boolean isEnabled;
+    private final Set<String> routes;
+    private final String jwtFilterTag;
+    private final int maxEntryBytes;
+    private final Cache<String, CachedResponse> cache;
+
+    private static final Logger.ALogger logger = Logger.of(ResponseCacheFilter.class);
+
+    @Inject
+    public ResponseCacheFilter(Materializer mat, Config config, MetricsRegistry metrics) {
+        super(mat);
+        this.mat = mat;
+        this.metrics = metrics;
+
+        isEnabled = config.getBoolean("cooksm.art.responsecache.enabled");
+        routes = new HashSet<>(config.getStringList("cooksm.art.responsecache.routes"));
+        jwtFilterTag = config.getString("cooksm.art.jwt.filtertag");
+        maxEntryBytes = config.getInt("cooksm.art.responsecache.maxentrybytes");
+        cache = Caffeine.newBuilder()
+                .maximumWeight(config.getLong("cooksm.art.responsecache.maxbytes"))
+                .weigher((String key, CachedResponse response) -> key.length() + response.body.length)
+                .expireAfterWrite(config.getLong("cooksm.art.responsecache.ttl.secs"), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public CompletionStage<Result> apply(Function<Http.RequestHeader, CompletionStage<Result>> nextFilter, Http.RequestHeader requestHeader) {
+        if (!isEnabled || !isCacheable(requestHeader)) {
+            return nextFilter.apply(requestHeader);
+        }
+
+        boolean isGzipAccepted = isGzipAccepted(requestHeader);
+        String key = keyOf(requestHeader, isGzipAccepted);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            count("hit");
+            return CompletableFuture.completedFuture(resultOf(cached, requestHeader));
+        }
+
+        count("miss");
+        return nextFilter.apply(requestHeader).thenCompose(result -> {
+            if (result.status() != Http.Status.OK) {
+                return CompletableFuture.completedFuture(result);
+            }
+
+            return result.body().consumeData(mat).thenApply(body -> {
+                if (body.size() > maxEntryBytes) {
+                    logger.info("apply(): too large to cache; path = {}, size = {}", requestHeader.path(), body.size());
+                    return result.sendEntity(new HttpEntity.Strict(body, result.contentType()));
+                }
+
+                CachedResponse response = new CachedResponse(body.toArray(), result.contentType().orElse(null), isGzipAccepted);
+                cache.put(key, response);
+                return resultOf(response, requestHeader);
+            });
+        });
+    }
+
+    private boolean isCacheable(Http.RequestHeader requestHeader) {
+        if (!"GET".equals(requestHeader.method()) || requestHeader.header(Http.HeaderNames.AUTHORIZATION).isPresent()) {
+            return false;
+        }
+
+        Optional<HandlerDef> handlerDef = requestHeader.attrs().getOptional(Router.Attrs.HANDLER_DEF);
+        return handlerDef
+                .filter(h -> !h.getModifiers().contains(jwtFilterTag))
+                .map(h -> routes.contains(h.controller() + "." + h.method()))
+                .orElse(false);
+    }
+
+    private static boolean isGzipAccepted(Http.RequestHeader requestHeader) {
+        return requestHeader.header(Http.HeaderNames.ACCEPT_ENCODING)
+                .map(ResponseCacheFilter::isGzipAccepted)
+                .orElse(false);
+    }
+
+    // Gzip is accepted if listed (or covered by "*") without a zero quality, e.g. "gzip;q=0" refuses it.
+    private static boolean isGzipAccepted(String acceptEncoding) {
+        boolean isAccepted = false;
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equals("gzip")) {
+                return qualityOf(parts) > 0;
+            }
+
+            if (name.equals("*")) {
+                isAccepted = qualityOf(parts) > 0;
+            }
+        }
+
+        return isAccepted;
+    }
+
+    private static double qualityOf(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String param = codingParts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    // Query params are sorted, so the same query in different param order shares the entry. Names and values are
+    // encoded again, so decoded separators in them can't make a different query's key.
+    private static String keyOf(Http.RequestHeader requestHeader, boolean isGzipAccepted) {
+        StringBuilder key = new StringBuilder(isGzipAccepted ? "gzip " : "identity ")
+                .append(requestHeader.path());
+
+        SortedMap<String, String[]> params = new TreeMap<>(requestHeader.queryString());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(encode(param.getKey())).append('=').append(encode(value));
+                separator = '&';
+            }
+        }
+
+        return key.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Result resultOf(CachedResponse response, Http.RequestHeader requestHeader) {
+        boolean isNotModified = requestHeader.header(Http.HeaderNames.IF_NONE_MATCH)
+                .map(response::matches)
+                .orElse(false);
+
+        Result result;
+        if (isNotModified) {
+            result = new Result(Http.Status.NOT_MODIFIED);
+        } else {
+            result = new Result(Http.Status.OK, new HttpEntity.Strict(ByteString.fromArray(response.body),
+                    Optional.ofNullable(response.contentType)));
+            if (response.isGzipped) {
+                result = result.withHeader(Http.HeaderNames.CONTENT_ENCODING, "gzip");
+            }
+        }
+
+        return result.withHeader(Http.HeaderNames.ETAG, response.etag)
+                .withHeader(Http.HeaderNames.VARY, Http.HeaderNames.ACCEPT_ENCODING);
+    }
+
+    private void count(String outcome) {
+        metrics.counter("response_cache_requests_total", "Number of cacheable requests.", "outcome", outcome)
+                .increment();
+    }
+
+    private static class CachedResponse {
+        final byte[] body;
+        final String contentType;
+        final boolean isGzipped;
+        // Strong, as the stored bytes are exactly what's sent. Differs between the gzipped and plain variants.
+        final String etag;
+
+        CachedResponse(byte[] uncompressedBody, String contentType, boolean shouldGzip) {
+            body = shouldGzip ? gzip(uncompressedBody) : uncompressedBody;
+            this.contentType = contentType;
+            isGzipped = shouldGzip;
+            etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(body)) + "\"";
+        }
+
+        boolean matches(String ifNoneMatch) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.equals("*") || trimmed.equals(etag)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return out.toByteArray();
+        }
+
+        private static byte[] sha256(byte[] data) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(data);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
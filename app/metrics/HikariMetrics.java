@@ -0,0 +1,88 @@
+package metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import play.Logger;
+import play.db.DBApi;
+import play.db.Database;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+// Registers connection pool statistics of the databases.
+public class HikariMetrics {
+    private static final Logger.ALogger logger = Logger.of(HikariMetrics.class);
+
+    @Inject
+    public HikariMetrics(DBApi dbApi, MetricsRegistry metrics) {
+        for (Database database : dbApi.getDatabases()) {
+            HikariDataSource dataSource = hikariOf(database.getDataSource());
+            if (dataSource == null) {
+                logger.warn("HikariMetrics(): not a Hikari data source; database = {}", database.getName());
+                continue;
+            }
+
+            register(database.getName(), dataSource, metrics);
+        }
+    }
+
+    private static void register(String databaseName, HikariDataSource dataSource, MetricsRegistry metrics) {
+        metrics.gauge("hikari_connections_active", "Number of connections in use.",
+                () -> valueOf(dataSource, HikariPoolMXBean::getActiveConnections), "db", databaseName);
+        metrics.gauge("hikari_connections_idle", "Number of idle connections.",
+                () -> valueOf(dataSource, HikariPoolMXBean::getIdleConnections), "db", databaseName);
+        metrics.gauge("hikari_connections_pending", "Number of threads waiting for a connection.",
+                () -> valueOf(dataSource, HikariPoolMXBean::getThreadsAwaitingConnection), "db", databaseName);
+        metrics.gauge("hikari_connections", "Number of connections in the pool.",
+                () -> valueOf(dataSource, HikariPoolMXBean::getTotalConnections), "db", databaseName);
+
+        Histogram acquireTime = metrics.histogram("hikari_connection_acquire_ms", "Time of acquiring a connection.",
+                Histogram.LATENCY_MS_BUCKETS, "db", databaseName);
+        Histogram usageTime = metrics.histogram("hikari_connection_usage_ms", "Time a connection is used before returned.",
+                Histogram.LATENCY_MS_BUCKETS, "db", databaseName);
+        Counter timeouts = metrics.counter("hikari_connection_timeouts_total", "Number of connection acquire timeouts.",
+                "db", databaseName);
+
+        try {
+            dataSource.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquireTime.observe(TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos));
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    usageTime.observe(elapsedBorrowedMillis);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    timeouts.increment();
+                }
+            });
+        } catch (IllegalStateException e) {
+            logger.warn("register(): metrics tracker already set; database = {}", databaseName);
+        }
+    }
+
+    private static long valueOf(HikariDataSource dataSource, ToIntFunction<HikariPoolMXBean> statistic) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : statistic.applyAsInt(pool);
+    }
+
+    private static HikariDataSource hikariOf(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            logger.warn("hikariOf(): failed to unwrap data source!", e);
+        }
+
+        return null;
+    }
+}
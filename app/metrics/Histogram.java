@@ -0,0 +1,59 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Histogram with fixed bucket upper bounds. Observations are recorded without locking.
+public class Histogram {
+    public static final long[] LATENCY_MS_BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    // For steps mostly taking less than a millisecond (e.g. building SQL, in memory matching).
+    public static final long[] LATENCY_US_BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 100000};
+    public static final long[] ROW_COUNT_BUCKETS = {0, 1, 5, 10, 25, 50, 100, 250, 500, 1000, 10000, 100000};
+
+    private final long[] upperBounds;
+    // One more than the bounds, the last one counts the observations above the largest bound.
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    public Histogram(long[] upperBounds) {
+        this.upperBounds = upperBounds.clone();
+        buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observe(long value) {
+        buckets[bucketOf(value)].increment();
+        sum.add(value);
+    }
+
+    public long[] upperBounds() {
+        return upperBounds.clone();
+    }
+
+    // Cumulative counts of the buckets; the last element is the total count.
+    public long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            counts[i] = cumulative;
+        }
+
+        return counts;
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    private int bucketOf(long value) {
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (value <= upperBounds[i]) {
+                return i;
+            }
+        }
+
+        return upperBounds.length;
+    }
+}
@@ -0,0 +1,52 @@
+package metrics;
+
+import javax.inject.Inject;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+// Registers garbage collection, memory and allocation figures of the JVM.
+public class JvmMetrics {
+    @Inject
+    public JvmMetrics(MetricsRegistry metrics) {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            metrics.gauge("jvm_gc_collections", "Number of collections of the garbage collector.",
+                    gc::getCollectionCount, "gc", gc.getName());
+            metrics.gauge("jvm_gc_collection_ms", "Accumulated collection time of the garbage collector.",
+                    gc::getCollectionTime, "gc", gc.getName());
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metrics.gauge("jvm_memory_used_bytes", "Used memory.",
+                () -> memory.getHeapMemoryUsage().getUsed(), "area", "heap");
+        metrics.gauge("jvm_memory_committed_bytes", "Committed memory.",
+                () -> memory.getHeapMemoryUsage().getCommitted(), "area", "heap");
+        metrics.gauge("jvm_memory_used_bytes", "Used memory.",
+                () -> memory.getNonHeapMemoryUsage().getUsed(), "area", "nonheap");
+        metrics.gauge("jvm_memory_committed_bytes", "Committed memory.",
+                () -> memory.getNonHeapMemoryUsage().getCommitted(), "area", "nonheap");
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        metrics.gauge("jvm_threads", "Number of live threads.", threads::getThreadCount);
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                metrics.gauge("jvm_threads_allocated_bytes", "Bytes allocated by the live threads.",
+                        () -> sumOf(allocations.getThreadAllocatedBytes(allocations.getAllThreadIds())));
+            }
+        }
+    }
+
+    private static long sumOf(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            // -1 for threads terminated in the meantime.
+            if (value > 0) {
+                sum += value;
+            }
+        }
+
+        return sum;
+    }
+}
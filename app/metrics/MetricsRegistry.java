@@ -0,0 +1,112 @@
+package metrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Holds the metrics of the application. Metrics are identified by their name and labels, and created on first use.
+// Looking up an existing metric, and recording to it are lock free.
+public class MetricsRegistry {
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Key, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<Key, Gauge> gauges = new ConcurrentHashMap<>();
+    // Gauges whose value is read when the metrics are collected, e.g. from MXBeans.
+    private final Map<Key, LongSupplier> suppliedGauges = new ConcurrentHashMap<>();
+    private final Map<String, String> helps = new ConcurrentHashMap<>();
+
+    // Labels are given as name, value pairs.
+    public Counter counter(String name, String help, String... labels) {
+        return getOrCreate(counters, name, help, labels, k -> new Counter());
+    }
+
+    public Gauge gauge(String name, String help, String... labels) {
+        return getOrCreate(gauges, name, help, labels, k -> new Gauge());
+    }
+
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        helps.putIfAbsent(name, help);
+        suppliedGauges.put(new Key(name, labelsOf(labels)), value);
+    }
+
+    public Histogram histogram(String name, String help, long[] upperBounds, String... labels) {
+        return getOrCreate(histograms, name, help, labels, k -> new Histogram(upperBounds));
+    }
+
+    public Map<Key, Counter> counters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<Key, Histogram> histograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<Key, Gauge> gauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    public Map<Key, LongSupplier> suppliedGauges() {
+        return Collections.unmodifiableMap(suppliedGauges);
+    }
+
+    public String helpOf(String name) {
+        return helps.get(name);
+    }
+
+    private <T> T getOrCreate(Map<Key, T> metrics, String name, String help, String[] labels, Function<Key, T> creator) {
+        Key key = new Key(name, labelsOf(labels));
+        // computeIfAbsent may lock even if the metric exists, so it's only used when creating one.
+        T metric = metrics.get(key);
+        if (metric != null) {
+            return metric;
+        }
+
+        helps.putIfAbsent(name, help);
+        return metrics.computeIfAbsent(key, creator);
+    }
+
+    private static SortedMap<String, String> labelsOf(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name, value pairs!");
+        }
+
+        SortedMap<String, String> result = new TreeMap<>();
+        for (int i = 0; i < labels.length; i += 2) {
+            result.put(labels[i], labels[i + 1]);
+        }
+
+        return Collections.unmodifiableSortedMap(result);
+    }
+
+    public static class Key {
+        private final String name;
+        private final SortedMap<String, String> labels;
+
+        private Key(String name, SortedMap<String, String> labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SortedMap<String, String> getLabels() {
+            return labels;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return name.equals(key.name) &&
+                    labels.equals(key.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, labels);
+        }
+    }
+}
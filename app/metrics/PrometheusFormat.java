@@ -0,0 +1,85 @@
+package metrics;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Renders the metrics of a registry in the Prometheus text exposition format.
+public class PrometheusFormat {
+    public static String of(MetricsRegistry registry) {
+        StringBuilder builder = new StringBuilder();
+        write(builder, registry, "counter", registry.counters(), Counter::value);
+        write(builder, registry, "gauge", registry.gauges(), Gauge::value);
+        write(builder, registry, "gauge", registry.suppliedGauges(), LongSupplier::getAsLong);
+        writeHistograms(builder, registry);
+
+        return builder.toString();
+    }
+
+    private static <T> void write(StringBuilder builder, MetricsRegistry registry, String type,
+                                  Map<MetricsRegistry.Key, T> metrics, Function<T, Long> valueOf) {
+        for (Map.Entry<String, List<MetricsRegistry.Key>> byName : groupByName(metrics.keySet()).entrySet()) {
+            writeHeader(builder, registry, byName.getKey(), type);
+            for (MetricsRegistry.Key key : byName.getValue()) {
+                writeSample(builder, key.getName(), key.getLabels(), valueOf.apply(metrics.get(key)));
+            }
+        }
+    }
+
+    private static void writeHistograms(StringBuilder builder, MetricsRegistry registry) {
+        Map<MetricsRegistry.Key, Histogram> histograms = registry.histograms();
+        for (Map.Entry<String, List<MetricsRegistry.Key>> byName : groupByName(histograms.keySet()).entrySet()) {
+            String name = byName.getKey();
+            writeHeader(builder, registry, name, "histogram");
+            for (MetricsRegistry.Key key : byName.getValue()) {
+                Histogram histogram = histograms.get(key);
+                long[] upperBounds = histogram.upperBounds();
+                long[] counts = histogram.cumulativeCounts();
+
+                for (int i = 0; i < counts.length; i++) {
+                    SortedMap<String, String> labels = new TreeMap<>(key.getLabels());
+                    labels.put("le", i < upperBounds.length ? String.valueOf(upperBounds[i]) : "+Inf");
+                    writeSample(builder, name + "_bucket", labels, counts[i]);
+                }
+
+                writeSample(builder, name + "_sum", key.getLabels(), histogram.sum());
+                writeSample(builder, name + "_count", key.getLabels(), counts[counts.length - 1]);
+            }
+        }
+    }
+
+    private static SortedMap<String, List<MetricsRegistry.Key>> groupByName(Set<MetricsRegistry.Key> keys) {
+        SortedMap<String, List<MetricsRegistry.Key>> byName = new TreeMap<>();
+        for (MetricsRegistry.Key key : keys) {
+            byName.computeIfAbsent(key.getName(), k -> new ArrayList<>()).add(key);
+        }
+
+        return byName;
+    }
+
+    private static void writeHeader(StringBuilder builder, MetricsRegistry registry, String name, String type) {
+        String help = registry.helpOf(name);
+        if (help != null) {
+            builder.append("# HELP ").append(name).append(' ').append(escape(help)).append('\n');
+        }
+
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeSample(StringBuilder builder, String name, Map<String, String> labels, long value) {
+        builder.append(name);
+        if (!labels.isEmpty()) {
+            StringJoiner joiner = new StringJoiner(",", "{", "}");
+            labels.forEach((labelName, labelValue) -> joiner.add(labelName + "=\"" + escape(labelValue) + "\""));
+            builder.append(joiner.toString());
+        }
+
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import javax.inject.Provider;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Counts and times the calls of repository methods, i.e. the database work done by each of them.
+public class RepositoryCallsInterceptor implements MethodInterceptor {
+    private final Provider<MetricsRegistry> metrics;
+    // Metrics by repository method, resolved on the first call of each.
+    private final Map<Method, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+
+    public RepositoryCallsInterceptor(Provider<MetricsRegistry> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodMetrics metricsOfMethod = metricsOf(invocation.getMethod());
+        long startNanos = System.nanoTime();
+        boolean isOk = false;
+        try {
+            Object result = invocation.proceed();
+            isOk = true;
+            return result;
+        } finally {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            (isOk ? metricsOfMethod.okCalls : metricsOfMethod.failedCalls).increment();
+            metricsOfMethod.callTime.observe(elapsedMs);
+        }
+    }
+
+    private MethodMetrics metricsOf(Method method) {
+        MethodMetrics metricsOfMethod = methodMetrics.get(method);
+        if (metricsOfMethod == null) {
+            metricsOfMethod = methodMetrics.computeIfAbsent(method, m -> new MethodMetrics(metrics.get(),
+                    m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        }
+
+        return metricsOfMethod;
+    }
+
+    private static class MethodMetrics {
+        private final Counter okCalls;
+        private final Counter failedCalls;
+        private final Histogram callTime;
+
+        private MethodMetrics(MetricsRegistry registry, String method) {
+            okCalls = registry.counter("repository_calls_total", "Number of repository method calls.",
+                    "method", method, "outcome", "ok");
+            failedCalls = registry.counter("repository_calls_total", "Number of repository method calls.",
+                    "method", method, "outcome", "error");
+            callTime = registry.histogram("repository_call_ms", "Time of repository method calls.",
+                    Histogram.LATENCY_MS_BUCKETS, "method", method);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package queryparams;
+
+import data.entities.Recipe;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque continuation cursor of recipe pages. Holds the (order by value, id) pair of the last recipe of a page, and
+// the total count of the first page (if it was counted), so continuation pages don't have to count again.
+// The order by value of the last recipe may be null (e.g. recipes without time), it's encoded with a marker to tell
+// it apart from an empty name.
+public class RecipesCursor {
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE_MARKER = "0";
+    private static final String VALUE_MARKER = "1";
+
+    private final String orderBy;
+    private final String orderBySort;
+    private final Long lastId;
+    private final String lastValue;
+    private final Integer totalCount;
+    private final boolean isTotalCountCapped;
+
+    public RecipesCursor(String orderBy, String orderBySort, Long lastId, String lastValue) {
+        this(orderBy, orderBySort, lastId, lastValue, null, false);
+    }
+
+    public RecipesCursor(String orderBy, String orderBySort, Long lastId, String lastValue, Integer totalCount,
+                         boolean isTotalCountCapped) {
+        this.orderBy = orderBy;
+        this.orderBySort = orderBySort;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+        this.totalCount = totalCount;
+        this.isTotalCountCapped = isTotalCountCapped;
+    }
+
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    public String getOrderBySort() {
+        return orderBySort;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    public Integer getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isTotalCountCapped() {
+        return isTotalCountCapped;
+    }
+
+    public boolean isValidFor(String orderBy, String orderBySort) {
+        if (orderBy == null || orderBySort == null) {
+            return this.orderBy == null;
+        }
+
+        return orderBy.equals(this.orderBy) && orderBySort.equals(this.orderBySort);
+    }
+
+    public String encode() {
+        // Value is the last part as it might contain the separator.
+        String raw = emptyIfNull(orderBy) + SEPARATOR +
+                emptyIfNull(orderBySort) + SEPARATOR +
+                lastId + SEPARATOR +
+                (totalCount == null ? "" : totalCount.toString()) + SEPARATOR +
+                (isTotalCountCapped ? "1" : "") + SEPARATOR +
+                (lastValue == null ? NULL_VALUE_MARKER : VALUE_MARKER) + SEPARATOR +
+                emptyIfNull(lastValue);
+
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipesCursor decode(String encoded) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor!", e);
+        }
+
+        String[] parts = raw.split("\\" + SEPARATOR, 7);
+        if (parts.length != 7 || !(NULL_VALUE_MARKER.equals(parts[5]) || VALUE_MARKER.equals(parts[5]))) {
+            throw new IllegalArgumentException("Invalid cursor!");
+        }
+
+        Long lastId;
+        Integer totalCount;
+        try {
+            lastId = Long.parseLong(parts[2]);
+            totalCount = parts[3].isEmpty() ? null : Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor!", e);
+        }
+
+        if (totalCount != null && totalCount < 0) {
+            throw new IllegalArgumentException("Invalid cursor!");
+        }
+
+        String orderBy = nullIfEmpty(parts[0]);
+        String orderBySort = nullIfEmpty(parts[1]);
+        String lastValue = orderBy == null || NULL_VALUE_MARKER.equals(parts[5]) ? null : parts[6];
+        if (lastValue != null && !isValidValue(orderBy, lastValue)) {
+            throw new IllegalArgumentException("Invalid cursor!");
+        }
+
+        return new RecipesCursor(orderBy, orderBySort, lastId, lastValue, totalCount, "1".equals(parts[4]));
+    }
+
+    // Values are used as seek parameters as they are, so they have to be in the range of the ordered column.
+    private static boolean isValidValue(String orderBy, String value) {
+        if ("name".equals(orderBy)) {
+            return true;
+        }
+
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        if ("time".equals(orderBy)) {
+            return number >= 0 && number < Recipe.Time.values().length;
+        }
+
+        return number >= 0;
+    }
+
+    private static String emptyIfNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -60,6 +60,14 @@ public class RecipesQueryParams {
         @Constraints.Max(50)
         public Integer limit;
 
+        // Continuation cursor returned by a previous page. Replaces offset. Check by validate()
+        public String cursor;
+
+        // With none the total count is not queried, only a lower bound is returned: the recipes up to the end of
+        // the page, plus one if there are more (then the count is flagged as capped).
+        @Constraints.Pattern("(none|estimate|exact)")
+        public String countMode;
+
         // Must be between 0.0, and 1.0. Check by validate()
         @Constraints.Required(groups = {VGRecSearchModeComposedOfRatio.class})
         public Float goodIngsRatio;
@@ -97,6 +105,11 @@ public class RecipesQueryParams {
                 return new ValidationError("", "Invalid search mode!");
             }
 
+            ValidationError cursorError = checkCursor();
+            if (cursorError != null) {
+                return cursorError;
+            }
+
             if (searchModeEnum != null && searchModeEnum != SearchMode.NONE) {
                 return checkSearchModeRelatedParams(searchModeEnum);
             }
@@ -131,6 +144,8 @@ public class RecipesQueryParams {
                     ", goodIngsRel='" + goodIngsRel + '\'' +
                     ", offset=" + offset +
                     ", limit=" + limit +
+                    ", cursor='" + cursor + '\'' +
+                    ", countMode='" + countMode + '\'' +
                     ", goodIngsRatio=" + goodIngsRatio +
                     ", nameLike='" + nameLike + '\'' +
                     ", exIngs=" + exIngs +
@@ -159,6 +174,27 @@ public class RecipesQueryParams {
             return null;
         }
 
+        private ValidationError checkCursor() {
+            if (cursor == null) {
+                return null;
+            }
+
+            if (offset != null && offset > 0) {
+                return new ValidationError("", "Cursor and offset can't be used together!");
+            }
+
+            try {
+                RecipesCursor decoded = RecipesCursor.decode(cursor);
+                if (!decoded.isValidFor(orderBy, orderBySort)) {
+                    return new ValidationError("", "Cursor doesn't match the order!");
+                }
+            } catch (IllegalArgumentException e) {
+                return new ValidationError("", "Invalid cursor!");
+            }
+
+            return null;
+        }
+
         private ValidationError checkGoodIngsRatio() {
             if (goodIngsRatio == null || goodIngsRatio < 0.0 || goodIngsRatio > 1.0) {
                 return new ValidationError("", "Invalid good ingredients ratio! Must be between 0.0 and 1.0!");
@@ -1,5 +1,8 @@
 package security;
 
+import java.time.Instant;
+
 public interface VerifiedJwt {
     Long getUserId();
+    Instant getExpiresAt();
 }
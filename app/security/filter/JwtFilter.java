@@ -48,7 +48,7 @@ import static play.mvc.Results.forbidden;
 public class JwtFilter extends Filter {
     private static Logger.ALogger logger = Logger.of(JwtFilter.class);
     private static final String ERR_AUTHORIZATION_HEADER = "ERR_AUTHORIZATION_HEADER";
-    private JwtCenter jwtCenter;
+    private VerifiedJwtCache verifiedJwtCache;
 
     private String jwtFilterTag;
     private String headerAuthorization;
@@ -56,9 +56,9 @@ public class JwtFilter extends Filter {
     private String jwtOptionalFilterTag;
 
     @Inject
-    public JwtFilter(Materializer mat, JwtCenter jwtCenter, Config config) {
+    public JwtFilter(Materializer mat, VerifiedJwtCache verifiedJwtCache, Config config) {
         super(mat);
-        this.jwtCenter = jwtCenter;
+        this.verifiedJwtCache = verifiedJwtCache;
 
         jwtFilterTag = config.getString("cooksm.art.jwt.filtertag");
         headerAuthorization = config.getString("cooksm.art.jwt.header.authorization");
@@ -93,7 +93,7 @@ public class JwtFilter extends Filter {
         }
 
         String token = authHeader.map(ah -> ah.replace(bearer, "")).orElse("");
-        Either<JwtCenter.Error, VerifiedJwt> res = jwtCenter.verify(token);
+        Either<JwtCenter.Error, VerifiedJwt> res = verifiedJwtCache.verify(token);
 
         if (res.left.isPresent()) {
             return CompletableFuture.completedFuture(forbidden(res.left.get().toString()));
@@ -0,0 +1,92 @@
+package security.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.typesafe.config.Config;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import play.libs.F.Either;
+import security.JwtCenter;
+import security.VerifiedJwt;
+
+import javax.inject.Inject;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+// Verified tokens, so repeated requests with the same token skip signature verification and claim parsing.
+// Tokens are keyed by their digest, and are never held longer than they are valid. Failed verifications are not cached.
+public class VerifiedJwtCache {
+    private final JwtCenter jwtCenter;
+    private final Cache<ByteBuffer, VerifiedJwt> cache;
+    private final long maxTtlNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Inject
+    public VerifiedJwtCache(JwtCenter jwtCenter, Config config, MetricsRegistry metrics) {
+        this.jwtCenter = jwtCenter;
+        maxTtlNanos = Duration.ofSeconds(config.getLong("cooksm.art.jwt.verifiedcache.maxttl.secs")).toNanos();
+        cache = Caffeine.newBuilder()
+                .maximumSize(config.getLong("cooksm.art.jwt.verifiedcache.maxsize"))
+                .expireAfter(new UntilTokenExpires())
+                .build();
+
+        hits = metrics.counter("jwt_cache_requests_total", "Number of token verifications.", "outcome", "hit");
+        misses = metrics.counter("jwt_cache_requests_total", "Number of token verifications.", "outcome", "miss");
+    }
+
+    public Either<JwtCenter.Error, VerifiedJwt> verify(String token) {
+        ByteBuffer key = digestOf(token);
+        VerifiedJwt cached = cache.getIfPresent(key);
+        if (cached != null && isNotExpired(cached)) {
+            hits.increment();
+            return Either.Right(cached);
+        }
+
+        misses.increment();
+        Either<JwtCenter.Error, VerifiedJwt> verified = jwtCenter.verify(token);
+        verified.right.ifPresent(jwt -> cache.put(key, jwt));
+        return verified;
+    }
+
+    // Expiry of the cache entry may lag behind a bit.
+    private static boolean isNotExpired(VerifiedJwt jwt) {
+        return jwt.getExpiresAt() == null || Instant.now().isBefore(jwt.getExpiresAt());
+    }
+
+    private static ByteBuffer digestOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class UntilTokenExpires implements Expiry<ByteBuffer, VerifiedJwt> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedJwt jwt, long currentTime) {
+            if (jwt.getExpiresAt() == null) {
+                return maxTtlNanos;
+            }
+
+            long untilExpiryNanos = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiryNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedJwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedJwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
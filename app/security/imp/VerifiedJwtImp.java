@@ -4,16 +4,25 @@ import com.auth0.jwt.interfaces.DecodedJWT;
 import com.typesafe.config.Config;
 import security.VerifiedJwt;
 
+import java.time.Instant;
+
 public class VerifiedJwtImp implements VerifiedJwt {
     private final Long userId;
+    private final Instant expiresAt;
 
     public VerifiedJwtImp(DecodedJWT jwt, Config config) {
         String userIdClaim = config.getString("cooksm.art.jwt.useridclaim");
         userId = jwt.getClaim(userIdClaim).asLong();
+        expiresAt = jwt.getExpiresAt() == null ? null : jwt.getExpiresAt().toInstant();
     }
 
     @Override
     public Long getUserId() {
         return userId;
     }
+
+    @Override
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
 }
@@ -0,0 +1,107 @@
+package services;
+
+import com.typesafe.config.Config;
+import data.entities.IngredientName;
+import data.repositories.IngredientNameRepository;
+import data.repositories.imp.IngredientNameIndex;
+import lombokized.dto.IngredientNameDto;
+import play.Logger;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// (ingredient id, language id) -> ingredient name dictionary, for resolving ids of ingredients in searches and
+// tags. It's an immutable map replaced on write: names missing from it are looked up with a single query, and
+// added to a copy. Dropped whenever the ingredient name index is reloaded, as names may have changed, and after a
+// TTL, as the index may be disabled, or not loaded (yet).
+public class IngredientNameDictionary {
+    private final IngredientNameRepository repository;
+    private final IngredientNameIndex index;
+    private final long ttlNanos;
+    private volatile Dictionary dictionary = new Dictionary(0, System.nanoTime(), Collections.emptyMap());
+
+    private static final Logger.ALogger logger = Logger.of(IngredientNameDictionary.class);
+
+    @Inject
+    public IngredientNameDictionary(IngredientNameRepository repository, IngredientNameIndex index, Config config) {
+        this.repository = repository;
+        this.index = index;
+        ttlNanos = TimeUnit.SECONDS.toNanos(config.getLong("cooksm.art.ingredientnames.dictionary.ttl.secs"));
+    }
+
+    // Names are returned in the order of the ids. Throws if any of the ingredients has no name in the language.
+    public List<IngredientNameDto> byIngredientIds(List<Long> ingredientIds, Long languageId) {
+        Dictionary current = current();
+        Map<Long, IngredientNameDto> names = current.namesOf(languageId);
+        List<Long> missingIds = ingredientIds.stream()
+                .filter(id -> !names.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, IngredientNameDto> used = names;
+        if (!missingIds.isEmpty()) {
+            used = add(current, repository.byIngredientIds(missingIds, languageId), languageId).namesOf(languageId);
+        }
+
+        return ingredientIds.stream()
+                .map(used::get)
+                .collect(Collectors.toList());
+    }
+
+    private Dictionary current() {
+        Dictionary current = dictionary;
+        long indexVersion = index.version();
+        long nowNanos = System.nanoTime();
+        if (current.indexVersion != indexVersion) {
+            logger.info("current(): ingredient name index changed, dropping dictionary");
+            current = new Dictionary(indexVersion, nowNanos, Collections.emptyMap());
+            dictionary = current;
+        } else if (nowNanos - current.createdNanos > ttlNanos) {
+            logger.info("current(): dictionary expired, dropping it");
+            current = new Dictionary(indexVersion, nowNanos, Collections.emptyMap());
+            dictionary = current;
+        }
+
+        return current;
+    }
+
+    private synchronized Dictionary add(Dictionary base, List<IngredientName> ingredientNames, Long languageId) {
+        Dictionary latest = dictionary.indexVersion == base.indexVersion &&
+                dictionary.createdNanos == base.createdNanos ? dictionary : base;
+
+        Map<Long, IngredientNameDto> names = new HashMap<>(latest.namesOf(languageId));
+        ingredientNames.forEach(n -> names.put(n.getIngredient().getId(), immutableDtoOf(n)));
+
+        Map<Long, Map<Long, IngredientNameDto>> byLanguage = new HashMap<>(latest.byLanguage);
+        byLanguage.put(languageId, Collections.unmodifiableMap(names));
+
+        Dictionary added = new Dictionary(latest.indexVersion, latest.createdNanos,
+                Collections.unmodifiableMap(byLanguage));
+        dictionary = added;
+        return added;
+    }
+
+    // DTOs are shared between requests.
+    private static IngredientNameDto immutableDtoOf(IngredientName ingredientName) {
+        IngredientNameDto dto = DtoMapper.toDto(ingredientName);
+        return new IngredientNameDto(dto.getId(), dto.getName(), Collections.unmodifiableList(dto.getAltNames()));
+    }
+
+    private static class Dictionary {
+        final long indexVersion;
+        final long createdNanos;
+        final Map<Long, Map<Long, IngredientNameDto>> byLanguage;
+
+        Dictionary(long indexVersion, long createdNanos, Map<Long, Map<Long, IngredientNameDto>> byLanguage) {
+            this.indexVersion = indexVersion;
+            this.createdNanos = createdNanos;
+            this.byLanguage = byLanguage;
+        }
+
+        Map<Long, IngredientNameDto> namesOf(Long languageId) {
+            return byLanguage.getOrDefault(languageId, Collections.emptyMap());
+        }
+    }
+}
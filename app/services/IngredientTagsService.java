@@ -3,12 +3,14 @@ package services;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.typesafe.config.Config;
 import data.DatabaseExecutionContext;
+import data.SearchExecutionContext;
 import data.entities.*;
 import data.repositories.IngredientNameRepository;
 import data.repositories.IngredientTagRepository;
 import data.repositories.exceptions.BusinessLogicViolationException;
 import data.repositories.exceptions.ForbiddenExeption;
 import data.repositories.exceptions.NotFoundException;
+import data.repositories.imp.SystemIngredientTags;
 import dto.IngredientTagCreateUpdateDto;
 import lombokized.dto.IngredientNameDto;
 import lombokized.dto.IngredientTagDto;
@@ -27,44 +29,54 @@ import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 public class IngredientTagsService {
     private IngredientTagRepository repository;
     private IngredientNameRepository ingredientNameRepository;
+    private IngredientNameDictionary ingredientNameDictionary;
+    private SystemIngredientTags systemTags;
     private LanguageService languageService;
     private DatabaseExecutionContext dbExecContext;
+    private SearchExecutionContext searchExecContext;
+    private RecipesResultCache recipesResultCache;
     private int maxPerUser;
 
     private static final Logger.ALogger logger = Logger.of(IngredientTagsService.class);
 
     @Inject
-    public IngredientTagsService(IngredientTagRepository repository, IngredientNameRepository ingredientNameRepository, LanguageService languageService, Config config, DatabaseExecutionContext dbExecContext) {
+    public IngredientTagsService(IngredientTagRepository repository, IngredientNameRepository ingredientNameRepository, IngredientNameDictionary ingredientNameDictionary, SystemIngredientTags systemTags, LanguageService languageService, Config config, DatabaseExecutionContext dbExecContext, SearchExecutionContext searchExecContext, RecipesResultCache recipesResultCache) {
         this.repository = repository;
+        this.recipesResultCache = recipesResultCache;
         this.ingredientNameRepository = ingredientNameRepository;
+        this.ingredientNameDictionary = ingredientNameDictionary;
+        this.systemTags = systemTags;
         this.dbExecContext = dbExecContext;
+        this.searchExecContext = searchExecContext;
         this.languageService = languageService;
         this.maxPerUser = config.getInt("cooksm.art.userdefinedtags.maxperuser");
     }
 
+    // Anonymous users only see system tags, these are served from memory.
     public CompletionStage<Page<IngredientTagDto>> page(IngredientTagQueryParams queryParams) {
         logger.info("page(): queryParams = {}", queryParams);
-        IngredientTagRepositoryParams.Page repositoryParams = toPageParams(queryParams);
+        if (systemTags.isLoaded()) {
+            return completedFuture(systemTagsPage(queryParams));
+        }
 
-        return supplyAsync(() -> {
-            Page<IngredientTag> ingredientTagPage = repository.page(repositoryParams);
-            return toPageDto(ingredientTagPage, queryParams.getLanguageId());
-        }, dbExecContext);
+        return supplyAsync(() -> systemTagsPage(queryParams), dbExecContext);
     }
 
+    // Name searches of signed in users (including their own tags) hit the database, so they run with the other
+    // searches, not taking threads of CRUD requests.
     public CompletionStage<Page<IngredientTagDto>> page(IngredientTagQueryParams queryParams, Long userId) {
         logger.info("page(): queryParams = {}, userId = {}", queryParams, userId);
         return supplyAsync(() -> {
             IngredientTagRepositoryParams.Page repositoryParams = toPageParams(queryParams, userId);
-            Page<IngredientTag> ingredientTagPage = repository.page(repositoryParams);
-            return toPageDto(ingredientTagPage, queryParams.getLanguageId());
-        }, dbExecContext);
+            return repository.page(repositoryParams);
+        }, searchExecContext);
     }
 
     public CompletionStage<Long> create(IngredientTagCreateUpdateDto dto, Long userId) {
@@ -79,6 +91,7 @@ public class IngredientTagsService {
             checkAllIngredientIdsExist(uniqueIngredientIds);
 
             IngredientTag createdIngredientTag = repository.create(userId, dto.name, uniqueIngredientIds, dto.languageId);
+            recipesResultCache.invalidateUser(userId);
             return createdIngredientTag.getId();
 
         }, dbExecContext);
@@ -88,7 +101,7 @@ public class IngredientTagsService {
         logger.info("single(): id = {}, languageId = {}, userId = {}", id, languageId, userId);
         return supplyAsync(() -> {
             IngredientTag ingredientTag = repository.byId(id, userId);
-            List<IngredientName> ingredientNames = namesOfTag(ingredientTag, languageId);
+            List<IngredientNameDto> ingredientNames = namesOfTag(ingredientTag, languageId);
             return createResolvedDto(ingredientTag, ingredientNames, languageId);
         }, dbExecContext);
     }
@@ -100,6 +113,7 @@ public class IngredientTagsService {
             checkAllIngredientIdsExist(dto.ingredientIds);
 
             repository.update(id, userId, dto.name, uniqueIngredientIds, dto.languageId);
+            recipesResultCache.invalidateUser(userId);
         }, dbExecContext);
     }
 
@@ -113,6 +127,7 @@ public class IngredientTagsService {
             }
 
             repository.delete(id, userId);
+            recipesResultCache.invalidateUser(userId);
         }, dbExecContext);
     }
 
@@ -148,9 +163,9 @@ public class IngredientTagsService {
         return builder.build();
     }
 
-    private Page<IngredientTagDto> toPageDto(Page<IngredientTag> page, Long languageId) {
-        List<IngredientTagDto> items = toDtoList(page.getItems(), languageId);
-        return new Page<>(items, page.getTotalCount());
+    private Page<IngredientTagDto> systemTagsPage(IngredientTagQueryParams queryParams) {
+        return systemTags.page(queryParams.getNameLike(), queryParams.getLanguageId(), queryParams.getLimit(),
+                queryParams.getOffset());
     }
 
     private List<IngredientTagDto> toDtoList(List<IngredientTag> entities, Long languageId) {
@@ -183,27 +198,23 @@ public class IngredientTagsService {
                 .collect(Collectors.toList());
     }
 
-    private List<IngredientName> namesOfTag(IngredientTag tag, Long languageId) {
+    private List<IngredientNameDto> namesOfTag(IngredientTag tag, Long languageId) {
         if (tag != null) {
             List<Long> ingredientIds = toIds(tag.getIngredients());
-            return ingredientNameRepository
+            return ingredientNameDictionary
                     .byIngredientIds(ingredientIds, languageService.getLanguageIdOrDefault(languageId));
         }
 
         return null;
     }
 
-    private IngredientTagResolvedDto createResolvedDto(IngredientTag tag, List<IngredientName> names, Long languageId) {
+    private IngredientTagResolvedDto createResolvedDto(IngredientTag tag, List<IngredientNameDto> names, Long languageId) {
         if (tag == null) {
             throw new NotFoundException("Not found tag!");
         }
 
-        List<IngredientNameDto> namesDto = names.stream()
-                .map(DtoMapper::toDto)
-                .collect(Collectors.toList());
-
         Long usedLanguage = languageService.getLanguageIdOrDefault(languageId);
-        return DtoMapper.toDto(tag, namesDto, usedLanguage);
+        return DtoMapper.toDto(tag, names, usedLanguage);
     }
 
     private BusinessLogicViolationException createConlictingUserSearchesException(Long id, List<UserSearch> searches) {
@@ -73,8 +73,8 @@ public class MenuService {
     public CompletionStage<MenuDto> single(Long menuId, Long languageId, Long userId) {
         logger.info("single(): menuId = {}, languageId = {}, userId = {}", menuId, userId);
         Long usedLanguageId = languageService.getLanguageIdOrDefault(languageId);
-        return supplyAsync(() -> repository.single(menuId, userId), dbExecContext)
-                .thenApplyAsync(m -> DtoMapper.toDto(m, usedLanguageId));
+        // Mapping lazy loads the groups and their recipes, so it's done on the database dispatcher.
+        return supplyAsync(() -> DtoMapper.toDto(repository.single(menuId, userId), usedLanguageId), dbExecContext);
     }
 
     public CompletionStage<List<MenuTitleDto>> all(Long userId) {
@@ -54,18 +54,14 @@ public class RecipeBooksService {
 
     public CompletionStage<List<RecipeBookDto>> all(Long user) {
         logger.info("all(): user = {}", user);
-        return supplyAsync(() -> {
-            List<RecipeBook> recipeBooks = repository.allOf(user);
-            return toDtoList(recipeBooks);
-        }, dbExecContext);
+        return supplyAsync(() -> repository.allOf(user), dbExecContext)
+                .thenApplyAsync(this::toDtoList);
     }
 
     public CompletionStage<RecipeBookDto> single(Long user, Long id) {
         logger.info("single(): user = {}, id = {}", user, id);
-        return supplyAsync(() -> {
-            RecipeBook recipeBook = repository.single(id, user);
-            return DtoMapper.toDto(recipeBook);
-        }, dbExecContext);
+        return supplyAsync(() -> repository.single(id, user), dbExecContext)
+                .thenApplyAsync(DtoMapper::toDto);
     }
 
     public CompletionStage<Void> update(Long userId, Long id, RecipeBookCreateUpdateDto dto) {
@@ -103,6 +99,7 @@ public class RecipeBooksService {
 
     public CompletionStage<RecipeBookWithRecipesDto> recipesOf(Long userId, Long id) {
         logger.info("recipesOf(): userId = {}, id = {}", userId, id);
+        // Mapping lazy loads the recipes, so it's done on the database dispatcher.
         return supplyAsync(() -> {
             RecipeBook recipeBook = repository.single(id, userId);
             return DtoMapper.toRecipeBookWithRecipesDto(recipeBook);
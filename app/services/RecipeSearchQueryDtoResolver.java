@@ -1,10 +1,8 @@
 package services;
 
-import data.entities.IngredientName;
 import data.entities.IngredientTag;
 import data.entities.RecipeBook;
 import data.entities.SourcePage;
-import data.repositories.IngredientNameRepository;
 import data.repositories.IngredientTagRepository;
 import data.repositories.RecipeBookRepository;
 import data.repositories.SourcePageRepository;
@@ -22,7 +20,7 @@ import java.util.stream.Collectors;
 import static services.DtoMapper.*;
 
 class RecipeSearchQueryDtoResolver {
-    private IngredientNameRepository ingredientNameRepository;
+    private IngredientNameDictionary ingredientNameDictionary;
     private IngredientTagRepository ingredientTagRepository;
     private SourcePageRepository sourcePageRepository;
     private RecipeBookRepository recipeBookRepository;
@@ -42,8 +40,8 @@ class RecipeSearchQueryDtoResolver {
 
     private Long usedLanguageId;
 
-    public void setIngredientNameRepository(IngredientNameRepository ingredientNameRepository) {
-        this.ingredientNameRepository = ingredientNameRepository;
+    public void setIngredientNameDictionary(IngredientNameDictionary ingredientNameDictionary) {
+        this.ingredientNameDictionary = ingredientNameDictionary;
     }
 
     public void setIngredientTagRepository(IngredientTagRepository ingredientTagRepository) {
@@ -86,22 +84,19 @@ class RecipeSearchQueryDtoResolver {
 
     private void collectIncludedIngredients() {
         if (queryParams.inIngs != null) {
-            List<IngredientName> ingredientNames = ingredientNameRepository.byIngredientIds(queryParams.inIngs, usedLanguageId);
-            includedIngredients = toIngredientNameDtoList(ingredientNames);
+            includedIngredients = ingredientNameDictionary.byIngredientIds(queryParams.inIngs, usedLanguageId);
         }
     }
 
     private void collectExcludedIngredients() {
         if (queryParams.exIngs != null) {
-            List<IngredientName> ingredientNames = ingredientNameRepository.byIngredientIds(queryParams.exIngs, usedLanguageId);
-            excludedIngredients = toIngredientNameDtoList(ingredientNames);
+            excludedIngredients = ingredientNameDictionary.byIngredientIds(queryParams.exIngs, usedLanguageId);
         }
     }
 
     private void collectAdditionalIngredients() {
         if (queryParams.addIngs != null) {
-            List<IngredientName> ingredientNames = ingredientNameRepository.byIngredientIds(queryParams.addIngs, usedLanguageId);
-            additionalIngredients = toIngredientNameDtoList(ingredientNames);
+            additionalIngredients = ingredientNameDictionary.byIngredientIds(queryParams.addIngs, usedLanguageId);
         }
     }
 
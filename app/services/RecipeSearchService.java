@@ -1,11 +1,13 @@
 package services;
 
 import com.typesafe.config.Config;
+import com.fasterxml.jackson.databind.JsonNode;
 import data.DatabaseExecutionContext;
 import data.repositories.*;
 import data.repositories.exceptions.BusinessLogicViolationException;
 import lombokized.dto.RecipeSearchDto;
 import play.Logger;
+import play.libs.Json;
 import queryparams.RecipesQueryParams;
 
 import javax.inject.Inject;
@@ -13,6 +15,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 
 import static java.util.concurrent.CompletableFuture.*;
@@ -20,6 +23,7 @@ import static java.util.concurrent.CompletableFuture.*;
 public class RecipeSearchService {
     private RecipeSearchRepository recipeSearchRepository;
     private IngredientNameRepository ingredientNameRepository;
+    private IngredientNameDictionary ingredientNameDictionary;
     private IngredientTagRepository ingredientTagRepository;
     private SourcePageRepository sourcePageRepository;
     private RecipeBookRepository recipeBookRepository;
@@ -36,9 +40,10 @@ public class RecipeSearchService {
     private static final Logger.ALogger logger = Logger.of(RecipeSearchService.class);
 
     @Inject
-    public RecipeSearchService(RecipeSearchRepository recipeSearchRepository, IngredientNameRepository ingredientNameRepository, IngredientTagRepository ingredientTagRepository, SourcePageRepository sourcePageRepository, RecipeBookRepository recipeBookRepository, LanguageService languageService, Config config, RecipeRepositoryQueryCheck queryCheck, DatabaseExecutionContext dbExecContext) {
+    public RecipeSearchService(RecipeSearchRepository recipeSearchRepository, IngredientNameRepository ingredientNameRepository, IngredientNameDictionary ingredientNameDictionary, IngredientTagRepository ingredientTagRepository, SourcePageRepository sourcePageRepository, RecipeBookRepository recipeBookRepository, LanguageService languageService, Config config, RecipeRepositoryQueryCheck queryCheck, DatabaseExecutionContext dbExecContext) {
         this.recipeSearchRepository = recipeSearchRepository;
         this.ingredientNameRepository = ingredientNameRepository;
+        this.ingredientNameDictionary = ingredientNameDictionary;
         this.ingredientTagRepository = ingredientTagRepository;
         this.sourcePageRepository = sourcePageRepository;
         this.recipeBookRepository = recipeBookRepository;
@@ -100,10 +105,29 @@ public class RecipeSearchService {
         createHelper.update(query, isPermanent, id);
     }
 
+    // Tag references of searches stored before they were maintained. Searches having references are skipped, so
+    // it can be rerun after a failure.
+    public void backfillTagReferences() {
+        List<Long> ids = recipeSearchRepository.permanentWithoutTagReferences();
+        logger.info("backfillTagReferences(): about to backfill {} searches", ids.size());
+        int backfilledCount = 0;
+        for (Long id : ids) {
+            try {
+                if (recipeSearchRepository.addTagReferencesIfNone(id, this::ingredientTagIdsOf)) {
+                    backfilledCount++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("backfillTagReferences(): failed to backfill search with id = " + id, e);
+            }
+        }
+
+        logger.info("backfillTagReferences(): added references of {} / {} searches", backfilledCount, ids.size());
+    }
+
     private void initGetHelper() {
         getHelper = new RecipeSearchServiceGetHelper();
         getHelper.recipeSearchRepository = recipeSearchRepository;
-        getHelper.ingredientNameRepository = ingredientNameRepository;
+        getHelper.ingredientNameDictionary = ingredientNameDictionary;
         getHelper.ingredientTagRepository = ingredientTagRepository;
         getHelper.languageService = languageService;
         getHelper.sourcePageRepository = sourcePageRepository;
@@ -122,6 +146,12 @@ public class RecipeSearchService {
         createHelper.queryCheck = queryCheck;
     }
 
+    private Set<Long> ingredientTagIdsOf(String query) {
+        JsonNode queryJson = Json.parse(query);
+        RecipesQueryParams.Params queryParams = Json.fromJson(queryJson, RecipesQueryParams.Params.class);
+        return RecipeSearchServiceCreateUpdateHelper.ingredientTagIdsOf(queryParams);
+    }
+
     private Boolean containsUserDefinedIngredientTag(RecipesQueryParams.Params queryParams) {
         List<Long> ingredientTagIds = new ArrayList<>();
         addAllOf(queryParams.inIngTags, ingredientTagIds);
@@ -15,7 +15,9 @@ import play.libs.Json;
 import queryparams.RecipesQueryParams;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 class RecipeSearchServiceCreateUpdateHelper {
@@ -45,7 +47,7 @@ class RecipeSearchServiceCreateUpdateHelper {
         String queryStr = Json.toJson(query).toString();
         checkQueryLength(queryStr);
 
-        RecipeSearch recipeSearch = recipeSearchRepository.create(queryStr, isPermanent);
+        RecipeSearch recipeSearch = recipeSearchRepository.create(queryStr, isPermanent, ingredientTagIdsOf(query));
         return recipeSearch.getId();
     }
 
@@ -57,7 +59,16 @@ class RecipeSearchServiceCreateUpdateHelper {
 
         String queryStr = Json.toJson(query).toString();
         checkQueryLength(queryStr);
-        recipeSearchRepository.update(queryStr, isPermanent, id);
+        recipeSearchRepository.update(queryStr, isPermanent, id, ingredientTagIdsOf(query));
+    }
+
+    // Searches and the ingredient tags they reference are stored together.
+    static Set<Long> ingredientTagIdsOf(RecipesQueryParams.Params query) {
+        Set<Long> ingredientTagIds = new HashSet<>();
+        addAllOf(query.inIngTags, ingredientTagIds);
+        addAllOf(query.exIngTags, ingredientTagIds);
+        addAllOf(query.addIngTags, ingredientTagIds);
+        return ingredientTagIds;
     }
 
     private void prepareQuery(RecipesQueryParams.Params query) {
@@ -139,6 +150,12 @@ class RecipeSearchServiceCreateUpdateHelper {
         }
     }
 
+    private static void addAllOf(List<Long> source, Set<Long> target) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
     private void checkQueryCount() {
         if (recipeSearchRepository.countAll() >= maxQueryCount) {
             throw new ForbiddenExeption("Query count limit reached!");
@@ -15,7 +15,7 @@ import java.util.concurrent.CompletionStage;
 
 class RecipeSearchServiceGetHelper {
     RecipeSearchRepository recipeSearchRepository;
-    IngredientNameRepository ingredientNameRepository;
+    IngredientNameDictionary ingredientNameDictionary;
     IngredientTagRepository ingredientTagRepository;
     SourcePageRepository sourcePageRepository;
     RecipeBookRepository recipeBookRepository;
@@ -24,7 +24,7 @@ class RecipeSearchServiceGetHelper {
     public RecipeSearchDto single(String id) {
         long decodedId = Base62Conversions.decode(id);
         RecipeSearchQueryDtoResolver resolver = new RecipeSearchQueryDtoResolver();
-        resolver.setIngredientNameRepository(ingredientNameRepository);
+        resolver.setIngredientNameDictionary(ingredientNameDictionary);
         resolver.setIngredientTagRepository(ingredientTagRepository);
         resolver.setSourcePageRepository(sourcePageRepository);
         resolver.setRecipeBookRepository(recipeBookRepository);
@@ -0,0 +1,105 @@
+package services;
+
+import queryparams.RecipesQueryParams;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+// Canonical form of recipe query params: id lists are sorted and deduplicated, and defaults are filled in,
+// so equivalent queries share the same key.
+public class RecipesQueryCacheKey {
+    private static final int DEFAULT_OFFSET = 0;
+    private static final int DEFAULT_LIMIT = 50;
+
+    // Only set, if results depend on the user (e.g. user defined tags may be used).
+    private final Long userId;
+    private final String canonical;
+
+    private RecipesQueryCacheKey(Long userId, String canonical) {
+        this.userId = userId;
+        this.canonical = canonical;
+    }
+
+    public static RecipesQueryCacheKey of(RecipesQueryParams.Params params, Long languageId, Long userId) {
+        String canonical = "searchMode=" + RecipesQueryParams.Params.toEnum(params.searchMode) +
+                "&minIngs=" + params.minIngs +
+                "&maxIngs=" + params.maxIngs +
+                "&orderBy=" + params.orderBy +
+                "&orderBySort=" + params.orderBySort +
+                "&unknownIngs=" + params.unknownIngs +
+                "&unknownIngsRel=" + params.unknownIngsRel +
+                "&goodIngs=" + params.goodIngs +
+                "&goodIngsRel=" + params.goodIngsRel +
+                "&goodAdditionalIngs=" + params.goodAdditionalIngs +
+                "&goodAdditionalIngsRel=" + params.goodAdditionalIngsRel +
+                "&goodIngsRatio=" + params.goodIngsRatio +
+                "&offset=" + (params.offset == null ? DEFAULT_OFFSET : params.offset) +
+                "&limit=" + (params.limit == null ? DEFAULT_LIMIT : params.limit) +
+                "&cursor=" + params.cursor +
+                "&countMode=" + (params.countMode == null ? "exact" : params.countMode) +
+                "&nameLike=" + params.nameLike +
+                "&exIngs=" + canonical(params.exIngs) +
+                "&exIngTags=" + canonical(params.exIngTags) +
+                "&inIngs=" + canonical(params.inIngs) +
+                "&inIngTags=" + canonical(params.inIngTags) +
+                "&addIngs=" + canonical(params.addIngs) +
+                "&addIngTags=" + canonical(params.addIngTags) +
+                "&sourcePages=" + canonical(params.sourcePages) +
+                "&times=" + canonical(params.times) +
+                "&languageId=" + languageId;
+
+        Long keyUserId = usesTags(params) ? userId : null;
+        return new RecipesQueryCacheKey(keyUserId, canonical);
+    }
+
+    // Results of these queries are specific to the user, and can change any time.
+    public static boolean isCacheable(RecipesQueryParams.Params params, Long userId) {
+        boolean useFavoritesOnly = userId != null && Boolean.TRUE.equals(params.useFavoritesOnly);
+        boolean useRecipeBooks = params.recipeBooks != null && params.recipeBooks.size() > 0;
+
+        return !useFavoritesOnly && !useRecipeBooks;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    private static boolean usesTags(RecipesQueryParams.Params params) {
+        return isNotEmpty(params.inIngTags) || isNotEmpty(params.exIngTags) || isNotEmpty(params.addIngTags);
+    }
+
+    private static boolean isNotEmpty(List<?> list) {
+        return list != null && list.size() > 0;
+    }
+
+    private static <T extends Comparable<T>> String canonical(List<T> values) {
+        if (values == null || values.isEmpty()) {
+            return "";
+        }
+
+        return new TreeSet<>(values).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecipesQueryCacheKey that = (RecipesQueryCacheKey) o;
+        return Objects.equals(userId, that.userId) &&
+                canonical.equals(that.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, canonical);
+    }
+
+    @Override
+    public String toString() {
+        return "RecipesQueryCacheKey{" +
+                "userId=" + userId +
+                ", canonical='" + canonical + '\'' +
+                '}';
+    }
+}
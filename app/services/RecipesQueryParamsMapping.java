@@ -1,5 +1,6 @@
 package services;
 
+import queryparams.RecipesCursor;
 import queryparams.RecipesQueryParams;
 
 import static lombokized.repositories.RecipeRepositoryParams.*;
@@ -47,6 +48,10 @@ class RecipesQueryParamsMapping {
 
         builder.limit(queryParams.limit);
         builder.offset(queryParams.offset);
+        setSeekParams(builder, queryParams);
+        if (queryParams.countMode != null) {
+            builder.countMode(CountMode.fromString(queryParams.countMode));
+        }
         builder.maximumNumberOfIngredients(queryParams.maxIngs);
         builder.minimumNumberOfIngredients(queryParams.minIngs);
         builder.nameLike(queryParams.nameLike);
@@ -113,4 +118,16 @@ class RecipesQueryParamsMapping {
 
         return builder.build();
     }
+
+    private static void setSeekParams(Common.Builder builder, RecipesQueryParams.Params queryParams) {
+        if (queryParams.cursor == null) {
+            return;
+        }
+
+        RecipesCursor cursor = RecipesCursor.decode(queryParams.cursor);
+        builder.seekId(cursor.getLastId());
+        builder.seekValue(cursor.getLastValue());
+        builder.seekTotalCount(cursor.getTotalCount());
+        builder.seekTotalCountCapped(cursor.isTotalCountCapped());
+    }
 }
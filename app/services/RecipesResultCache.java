@@ -0,0 +1,86 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.typesafe.config.Config;
+import lombokized.dto.PageDto;
+import lombokized.dto.RecipeDto;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import play.Logger;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Bounded cache of recipe query results. Weight of an entry is the number of recipes in it.
+// Pages are cached as they are queried, so a key is queried once even if it's requested again before the query
+// finishes. Cached pages are not modifiable, callers get their own copy of them.
+public class RecipesResultCache {
+    private final boolean isEnabled;
+    private final AsyncCache<RecipesQueryCacheKey, PageDto<RecipeDto>> cache;
+    private final Counter coalescedCounter;
+
+    private static final Logger.ALogger logger = Logger.of(RecipesResultCache.class);
+
+    @Inject
+    public RecipesResultCache(Config config, MetricsRegistry metrics) {
+        isEnabled = config.getBoolean("cooksm.art.recipes.resultcache.enabled");
+        cache = Caffeine.newBuilder()
+                .maximumWeight(config.getLong("cooksm.art.recipes.resultcache.maxrecipes"))
+                .weigher((RecipesQueryCacheKey key, PageDto<RecipeDto> page) -> page.getItems().size() + 1)
+                .expireAfterWrite(config.getLong("cooksm.art.recipes.resultcache.ttl.secs"), TimeUnit.SECONDS)
+                .buildAsync();
+        coalescedCounter = metrics.counter("recipes_query_coalesced_total",
+                "Number of recipe queries served by an identical query in flight.");
+    }
+
+    public CompletionStage<PageDto<RecipeDto>> get(RecipesQueryCacheKey key, Supplier<CompletionStage<PageDto<RecipeDto>>> query) {
+        if (!isEnabled) {
+            return query.get();
+        }
+
+        CompletableFuture<PageDto<RecipeDto>> cached = cache.getIfPresent(key);
+        if (cached != null && cached.isDone()) {
+            logger.info("get(): hit; key = {}", key);
+        } else if (cached != null) {
+            logger.info("get(): joining in flight query; key = {}", key);
+            coalescedCounter.increment();
+        }
+
+        // Failed queries are removed by the cache.
+        return cache.get(key, (k, executor) -> query.get()
+                .thenApply(RecipesResultCache::unmodifiableCopyOf)
+                .toCompletableFuture())
+                .thenApply(RecipesResultCache::copyOf);
+    }
+
+    public void invalidateAll() {
+        logger.info("invalidateAll()");
+        cache.synchronous().invalidateAll();
+    }
+
+    public void invalidateUser(Long userId) {
+        logger.info("invalidateUser(): userId = {}", userId);
+        cache.asMap().keySet().removeIf(key -> userId.equals(key.getUserId()));
+    }
+
+    private static PageDto<RecipeDto> unmodifiableCopyOf(PageDto<RecipeDto> page) {
+        PageDto<RecipeDto> copy = new PageDto<>(Collections.unmodifiableList(new ArrayList<>(page.getItems())),
+                page.getTotalCount());
+        copy.setTotalCountCapped(page.isTotalCountCapped());
+        copy.setNextCursor(page.getNextCursor());
+        return copy;
+    }
+
+    private static PageDto<RecipeDto> copyOf(PageDto<RecipeDto> page) {
+        PageDto<RecipeDto> copy = new PageDto<>(page.getItems(), page.getTotalCount());
+        copy.setTotalCountCapped(page.isTotalCountCapped());
+        copy.setNextCursor(page.getNextCursor());
+        return copy;
+    }
+}
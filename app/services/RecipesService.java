@@ -2,8 +2,8 @@ package services;
 
 import com.typesafe.config.Config;
 import data.DatabaseExecutionContext;
+import data.SearchExecutionContext;
 import data.entities.Recipe;
-import data.entities.RecipeBook;
 import data.repositories.RecipeBookRepository;
 import data.repositories.RecipeRepository;
 import lombokized.dto.PageDto;
@@ -11,14 +11,19 @@ import lombokized.dto.RecipeBooksOfRecipeDto;
 import lombokized.dto.RecipeDto;
 import lombokized.repositories.Page;
 import lombokized.repositories.RecipeRepositoryParams;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
 import play.Logger;
+import queryparams.RecipesCursor;
 import queryparams.RecipesQueryParams;
 
 import javax.inject.Inject;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static lombokized.repositories.RecipeRepositoryParams.*;
@@ -43,46 +48,61 @@ public class RecipesService {
     @Inject
     private DatabaseExecutionContext dbExecContext;
 
+    @Inject
+    private SearchExecutionContext searchExecContext;
+
+    @Inject
+    private RecipesResultCache resultCache;
+
+    @Inject
+    private MetricsRegistry metrics;
+
+    // Histograms by query type, resolved on the first query of each type.
+    private final Map<String, Histogram> dtoMappingHistograms = new ConcurrentHashMap<>();
+
+    private static final int DEFAULT_LIMIT = 50;
+
     private static final Logger.ALogger logger = Logger.of(RecipesService.class);
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeNumber(RecipesQueryParams.Params queryParams) {
         logger.info("pageOfQueryTypeNumber(): queryParams = {}", queryParams);
         QueryTypeNumber queryTypeNumber = toQueryTypeNumber(queryParams);
-        return queryRecipesByQueryTypeNumber(queryTypeNumber, queryParams.languageId);
+        return cachedIfPossible(queryParams, null, () -> queryRecipesByQueryTypeNumber(queryTypeNumber, queryParams.languageId));
     }
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeNumber(RecipesQueryParams.Params queryParams, Long userId) {
         logger.info("pageOfQueryTypeNumber(): userId = {}, queryParams = {}", userId, queryParams);
         QueryTypeNumber queryTypeNumber = toQueryTypeNumber(queryParams, userId);
-        return queryRecipesByQueryTypeNumber(queryTypeNumber, queryParams.languageId);
+        return cachedIfPossible(queryParams, userId, () -> queryRecipesByQueryTypeNumber(queryTypeNumber, queryParams.languageId));
     }
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeRatio(RecipesQueryParams.Params queryParams) {
         logger.info("pageOfQueryTypeRatio(): queryParams = {}", queryParams);
         QueryTypeRatio queryTypeRatio = toQueryTypeRatio(queryParams);
-        return queryRecipesByQueryTypeRatio(queryTypeRatio, queryParams.languageId);
+        return cachedIfPossible(queryParams, null, () -> queryRecipesByQueryTypeRatio(queryTypeRatio, queryParams.languageId));
     }
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeRatio(RecipesQueryParams.Params queryParams, Long userId) {
         logger.info("pageOfQueryTypeRatio(): userId = {}. queryParams = {}", userId, queryParams);
         QueryTypeRatio queryTypeRatio = toQueryTypeRatio(queryParams, userId);
-        return queryRecipesByQueryTypeRatio(queryTypeRatio, queryParams.languageId);
+        return cachedIfPossible(queryParams, userId, () -> queryRecipesByQueryTypeRatio(queryTypeRatio, queryParams.languageId));
     }
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeNone(RecipesQueryParams.Params queryParams) {
         logger.info("pageOfQueryTypeNone(): queryParams = {}", queryParams);
         RecipeRepositoryParams.Common commonQueryParams = toCommon(queryParams);
-        return queryRecipesByCommonParams(commonQueryParams, queryParams.languageId);
+        return cachedIfPossible(queryParams, null, () -> queryRecipesByCommonParams(commonQueryParams, queryParams.languageId));
     }
 
     public CompletionStage<PageDto<RecipeDto>> pageOfQueryTypeNone(RecipesQueryParams.Params queryParams, Long userId) {
         logger.info("pageOfQueryTypeNone(): userId = {}, queryParams = {}", userId, queryParams);
         RecipeRepositoryParams.Common commonQueryParams = toCommon(queryParams, userId);
-        return queryRecipesByCommonParams(commonQueryParams, queryParams.languageId);
+        return cachedIfPossible(queryParams, userId, () -> queryRecipesByCommonParams(commonQueryParams, queryParams.languageId));
     }
 
     public CompletionStage<RecipeDto> single(Long id, Long languageId) {
         logger.info("single(): id = {}, languageId = {}", id, languageId);
+        // Mapping lazy loads ingredients, their names, and the source page, so it's done on the database dispatcher.
         return supplyAsync(() -> {
             Recipe recipe = repository.single(id);
             if(recipe!= null){
@@ -97,45 +117,119 @@ public class RecipesService {
 
     public CompletionStage<RecipeBooksOfRecipeDto> recipeBooksOf(Long id, Long userId) {
         logger.info("recipeBooksOf(): id = {}, userId = {}", id, userId);
-        return supplyAsync(() -> {
-            List<RecipeBook> recipeBooks = repository.recipeBooksOf(id, userId);
-            return DtoMapper.toDto(recipeBooks);
-        }, dbExecContext);
+        return supplyAsync(() -> repository.recipeBooksOf(id, userId), dbExecContext)
+                .thenApplyAsync(DtoMapper::toDto);
     }
 
-    private PageDto<RecipeDto> toPageDto(Page<Recipe> page, Long languageId) {
+    private CompletionStage<PageDto<RecipeDto>> cachedIfPossible(RecipesQueryParams.Params queryParams, Long userId,
+                                                                Supplier<CompletionStage<PageDto<RecipeDto>>> query) {
+        if (!RecipesQueryCacheKey.isCacheable(queryParams, userId)) {
+            return query.get();
+        }
+
+        Long usedLanguageId = languageService.getLanguageIdOrDefault(queryParams.languageId);
+        RecipesQueryCacheKey key = RecipesQueryCacheKey.of(queryParams, usedLanguageId, userId);
+        // Concurrent calls with the same key share the query in flight.
+        return resultCache.get(key, query);
+    }
+
+    // Runs on the database dispatcher, loads the recipes of the page.
+    private Page<RecipeDto> recipesOf(Page<Long> page, Long languageId, String queryType) {
+        long startNanos = System.nanoTime();
         Long usedLanguageId = languageService.getLanguageIdOrDefault(languageId);
-        List<RecipeDto> dtos = page.getItems()
-                .stream()
-                .map(entity -> DtoMapper.toDto(entity, usedLanguageId))
-                .collect(Collectors.toList());
-        return new PageDto<>(dtos, page.getTotalCount());
+        List<RecipeDto> dtos = repository.dtosOf(page.getItems(), usedLanguageId);
+
+        dtoMappingHistogramOf(queryType).observe(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        Page<RecipeDto> dtoPage = new Page<>(dtos, page.getTotalCount());
+        dtoPage.setTotalCountCapped(page.isTotalCountCapped());
+        return dtoPage;
+    }
+
+    private Histogram dtoMappingHistogramOf(String queryType) {
+        Histogram histogram = dtoMappingHistograms.get(queryType);
+        if (histogram == null) {
+            histogram = dtoMappingHistograms.computeIfAbsent(queryType, type -> metrics.histogram(
+                    "recipes_query_dto_mapping_us", "Time of loading and mapping recipes of a result page.",
+                    Histogram.LATENCY_US_BUCKETS, "type", type));
+        }
+
+        return histogram;
+    }
+
+    private static PageDto<RecipeDto> toPageDto(Page<RecipeDto> page, Common params) {
+        PageDto<RecipeDto> pageDto = new PageDto<>(page.getItems(), page.getTotalCount());
+        pageDto.setTotalCountCapped(page.isTotalCountCapped());
+        pageDto.setNextCursor(nextCursorOf(page, params));
+        return pageDto;
+    }
+
+    private static String nextCursorOf(Page<RecipeDto> page, Common params) {
+        List<RecipeDto> items = page.getItems();
+        int limit = params.getLimit() == null ? DEFAULT_LIMIT : params.getLimit();
+        if (items.size() < limit) {
+            return null;
+        }
+
+        RecipeDto last = items.get(items.size() - 1);
+        if (params.getOrderBy() == null || params.getOrderBySort() == null) {
+            return new RecipesCursor(null, null, last.getId(), null, carriedCountOf(page, params),
+                    page.isTotalCountCapped()).encode();
+        }
+
+        String lastValue;
+        if ("name".equals(params.getOrderBy())) {
+            lastValue = last.getName();
+        } else if ("numofings".equals(params.getOrderBy())) {
+            lastValue = last.getNumofings() == null ? null : last.getNumofings().toString();
+        } else {
+            lastValue = last.getTime() == null ? null : last.getTime().toString();
+        }
+
+        return new RecipesCursor(params.getOrderBy(), params.getOrderBySort(), last.getId(), lastValue,
+                carriedCountOf(page, params), page.isTotalCountCapped()).encode();
+    }
+
+    // Counts of pages without counting (countMode=none) only tell whether there are more results, they aren't
+    // carried to the next page.
+    private static Integer carriedCountOf(Page<RecipeDto> page, Common params) {
+        if (params.getCountMode() == CountMode.NONE) {
+            return null;
+        }
+
+        if (params.getSeekId() != null && params.getSeekTotalCount() == null) {
+            return null;
+        }
+
+        return page.getTotalCount();
     }
 
     private CompletionStage<PageDto<RecipeDto>> queryRecipesByCommonParams(Common params, Long languageId) {
         return supplyAsync(() -> {
             checkRecipeBookOfUserIfNeeded(params.getUsedRecipeBooks(), params.getUserId());
-            Page<Recipe> recipesPage = repository.pageOfQueryTypeNone(params);
-            return toPageDto(recipesPage, languageId);
-        }, dbExecContext);
+            Page<Long> recipesPage = repository.pageOfQueryTypeNone(params);
+            return recipesOf(recipesPage, languageId, "none");
+        }, searchExecContext)
+                .thenApplyAsync(page -> toPageDto(page, params));
     }
 
     private CompletionStage<PageDto<RecipeDto>> queryRecipesByQueryTypeRatio(QueryTypeRatio params, Long languageId) {
         return supplyAsync(() -> {
             queryCheck.check(params);
             checkRecipeBookOfUserIfNeeded(params.getCommon().getUsedRecipeBooks(), params.getCommon().getUserId());
-            Page<Recipe> recipePage = repository.pageOfQueryTypeRatio(params);
-            return toPageDto(recipePage, languageId);
-        }, dbExecContext);
+            Page<Long> recipePage = repository.pageOfQueryTypeRatio(params);
+            return recipesOf(recipePage, languageId, "ratio");
+        }, searchExecContext)
+                .thenApplyAsync(page -> toPageDto(page, params.getCommon()));
     }
 
     private CompletionStage<PageDto<RecipeDto>> queryRecipesByQueryTypeNumber(QueryTypeNumber params, Long languageId) {
         return supplyAsync(() -> {
             queryCheck.check(params);
             checkRecipeBookOfUserIfNeeded(params.getCommon().getUsedRecipeBooks(), params.getCommon().getUserId());
-            Page<Recipe> recipePage = repository.pageOfQueryTypeNumber(params);
-            return toPageDto(recipePage, languageId);
-        }, dbExecContext);
+            Page<Long> recipePage = repository.pageOfQueryTypeNumber(params);
+            return recipesOf(recipePage, languageId, "number");
+        }, searchExecContext)
+                .thenApplyAsync(page -> toPageDto(page, params.getCommon()));
     }
 
     private void checkRecipeBookOfUserIfNeeded(List<Long> recipeBookIds, Long userId){
@@ -35,13 +35,13 @@ public class ShoppingListService {
     public CompletionStage<List<ShoppingListListElementDto>> allOfUser(Long userId) {
         logger.info("allOfUser(): userId = {}", userId);
         return supplyAsync(() -> repository.allOfUser(userId), dbExecContext)
-                .thenApply(ShoppingListService::toDtoList);
+                .thenApplyAsync(ShoppingListService::toDtoList);
     }
 
     public CompletionStage<ShoppingListDto> single(Long userId, Long shoppingListId) {
         logger.info("single(): userId = {}, shoppingListId = {}", userId, shoppingListId);
-        return supplyAsync(() -> repository.single(userId, shoppingListId), dbExecContext)
-                .thenApply(DtoMapper::toDto);
+        // Mapping lazy loads the items, so it's done on the database dispatcher.
+        return supplyAsync(() -> DtoMapper.toDto(repository.single(userId, shoppingListId)), dbExecContext);
     }
 
     public CompletionStage<Void> delete(Long userId, Long shoppingListId) {
@@ -42,12 +42,10 @@ public class UserSearchService {
 
     public CompletionStage<List<UserSearchDto>> all(Long userId) {
         logger.info("all(): userId = {}", userId);
-        return supplyAsync(() -> {
-            List<UserSearch> userSearches = userSearchRepository.all(userId);
-            return userSearches.stream()
-                    .map(DtoMapper::toDto)
-                    .collect(Collectors.toList());
-        }, dbExecContext);
+        return supplyAsync(() -> userSearchRepository.all(userId), dbExecContext)
+                .thenApplyAsync(userSearches -> userSearches.stream()
+                        .map(DtoMapper::toDto)
+                        .collect(Collectors.toList()));
     }
 
     public CompletionStage<Long> create(UserSearchCreateUpdateDto dto, Long userId) {
@@ -69,10 +67,8 @@ public class UserSearchService {
 
     public CompletionStage<UserSearchDto> single(Long id, Long userId) {
         logger.info("single(): id = {}, userId = {}", id, userId);
-        return supplyAsync(() -> {
-            UserSearch userSearch = userSearchRepository.single(id, userId);
-            return DtoMapper.toDto(userSearch);
-        }, dbExecContext);
+        return supplyAsync(() -> userSearchRepository.single(id, userId), dbExecContext)
+                .thenApplyAsync(DtoMapper::toDto);
     }
 
     public CompletionStage<Boolean> delete(Long id, Long userId) {
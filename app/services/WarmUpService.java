@@ -0,0 +1,236 @@
+package services;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import data.entities.GlobalSearch;
+import data.entities.RecipeSearch;
+import data.repositories.GlobalSearchRepository;
+import data.repositories.RecipeSearchRepository;
+import data.repositories.SourcePageRepository;
+import data.repositories.imp.IngredientNameIndex;
+import data.repositories.imp.IngredientRecipeCounts;
+import data.repositories.imp.IngredientTagExpansionCache;
+import data.repositories.imp.SystemIngredientTags;
+import lombokized.dto.PageDto;
+import lombokized.dto.RecipeDto;
+import play.Logger;
+import play.db.DBApi;
+import play.db.Database;
+import play.libs.Json;
+import queryparams.RecipesQueryParams;
+import scala.concurrent.duration.Duration;
+
+import javax.inject.Inject;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.concurrent.CompletableFuture.runAsync;
+
+// Warms up a starting node before it's reported as ready: opens the database connections, preloads reference
+// data, and replays representative searches (global searches, and recently accessed recipe searches) so
+// Ebean, the JIT and the result caches are warm when traffic arrives.
+// Nothing waits for the replays: the node becomes ready when they complete, or when the timeout fires, whichever
+// comes first.
+public class WarmUpService {
+    private final Config config;
+    private final DBApi dbApi;
+    private final GlobalSearchRepository globalSearchRepository;
+    private final RecipeSearchRepository recipeSearchRepository;
+    private final SourcePageRepository sourcePageRepository;
+    private final IngredientTagExpansionCache tagExpansionCache;
+    private final IngredientRecipeCounts ingredientRecipeCounts;
+    private final IngredientNameIndex ingredientNameIndex;
+    private final SystemIngredientTags systemIngredientTags;
+    private final RecipesService recipesService;
+    private final ActorSystem actorSystem;
+    private final MaintenanceExecutionContext maintenanceExecContext;
+
+    private final AtomicBoolean isFinished = new AtomicBoolean();
+    private volatile boolean isReady;
+
+    private static final Logger.ALogger logger = Logger.of(WarmUpService.class);
+
+    @Inject
+    public WarmUpService(Config config, DBApi dbApi, GlobalSearchRepository globalSearchRepository,
+                         RecipeSearchRepository recipeSearchRepository, SourcePageRepository sourcePageRepository,
+                         IngredientTagExpansionCache tagExpansionCache, IngredientRecipeCounts ingredientRecipeCounts,
+                         IngredientNameIndex ingredientNameIndex, SystemIngredientTags systemIngredientTags,
+                         RecipesService recipesService, ActorSystem actorSystem,
+                         MaintenanceExecutionContext maintenanceExecContext) {
+        this.config = config;
+        this.dbApi = dbApi;
+        this.globalSearchRepository = globalSearchRepository;
+        this.recipeSearchRepository = recipeSearchRepository;
+        this.sourcePageRepository = sourcePageRepository;
+        this.tagExpansionCache = tagExpansionCache;
+        this.ingredientRecipeCounts = ingredientRecipeCounts;
+        this.ingredientNameIndex = ingredientNameIndex;
+        this.systemIngredientTags = systemIngredientTags;
+        this.recipesService = recipesService;
+        this.actorSystem = actorSystem;
+        this.maintenanceExecContext = maintenanceExecContext;
+
+        if (config.getBoolean("cooksm.art.warmup.enabled")) {
+            warmUp();
+        } else {
+            isReady = true;
+        }
+    }
+
+    public boolean isReady() {
+        return isReady;
+    }
+
+    private void warmUp() {
+        logger.info("warmUp(): started");
+        long startMillis = System.currentTimeMillis();
+        Cancellable timeout = actorSystem.scheduler().scheduleOnce(
+                Duration.create(config.getLong("cooksm.art.warmup.timeout.secs"), TimeUnit.SECONDS),
+                () -> finish("timed out", startMillis),
+                maintenanceExecContext);
+
+        runAsync(() -> {
+            openConnections();
+            preloadReferenceData();
+        }, maintenanceExecContext)
+                .thenCompose(v -> replaySearches())
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        // A failed warm-up only means a slower start, the node can serve requests.
+                        logger.warn("warmUp(): failed!", e);
+                    }
+
+                    timeout.cancel();
+                    finish("finished", startMillis);
+                });
+    }
+
+    private void finish(String outcome, long startMillis) {
+        if (isFinished.compareAndSet(false, true)) {
+            isReady = true;
+            logger.info("finish(): warm-up {} in {} ms", outcome, System.currentTimeMillis() - startMillis);
+        }
+    }
+
+    // Holds every connection of the pool at once, so all of them are established and validated.
+    private void openConnections() {
+        int numOfConnections = config.getInt("fixedConnectionPool");
+        for (Database database : dbApi.getDatabases()) {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < numOfConnections; i++) {
+                    Connection connection = database.getConnection();
+                    connections.add(connection);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warn("openConnections(): failed to open connection! database = {}", database.getName(), e);
+            } finally {
+                connections.forEach(WarmUpService::close);
+            }
+
+            logger.info("openConnections(): opened {} connections; database = {}", connections.size(), database.getName());
+        }
+    }
+
+    private void preloadReferenceData() {
+        tagExpansionCache.preload();
+        ingredientRecipeCounts.preload();
+        ingredientNameIndex.preload();
+        systemIngredientTags.preload();
+        sourcePageRepository.allSourcePages();
+    }
+
+    private CompletableFuture<Void> replaySearches() {
+        List<String> queries = new ArrayList<>();
+        globalSearchRepository.all().stream()
+                .map(GlobalSearch::getSearch)
+                .map(RecipeSearch::getQuery)
+                .forEach(queries::add);
+        recipeSearchRepository.recentlyAccessed(config.getInt("cooksm.art.warmup.recentsearches")).stream()
+                .map(RecipeSearch::getQuery)
+                .forEach(queries::add);
+
+        int pages = config.getInt("cooksm.art.warmup.pages");
+        List<Supplier<CompletionStage<?>>> replays = new ArrayList<>();
+        for (String query : queries.stream().distinct().collect(Collectors.toList())) {
+            for (int page = 0; page < pages; page++) {
+                int replayedPage = page;
+                replays.add(() -> replay(query, replayedPage));
+            }
+        }
+
+        logger.info("replaySearches(): replaying {} searches, {} pages each", replays.size() / Math.max(pages, 1), pages);
+
+        // Replays run in batches, one batch after the other. Otherwise they would fill the queue of the search
+        // dispatcher, and requests arriving meanwhile would be rejected by admission control. Batches are not
+        // started after the warm-up timed out.
+        int concurrency = config.getInt("cooksm.art.warmup.concurrency");
+        CompletableFuture<Void> batches = CompletableFuture.completedFuture(null);
+        for (int from = 0; from < replays.size(); from += concurrency) {
+            List<Supplier<CompletionStage<?>>> batch = replays.subList(from, Math.min(from + concurrency, replays.size()));
+            batches = batches.thenCompose(v -> isFinished.get() ? CompletableFuture.completedFuture(null) : replayAll(batch));
+        }
+
+        return batches;
+    }
+
+    private static CompletableFuture<Void> replayAll(List<Supplier<CompletionStage<?>>> replays) {
+        CompletableFuture<?>[] started = replays.stream()
+                .map(replay -> replay.get().toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(started);
+    }
+
+    // Failures of single searches (e.g. of stored queries no longer valid) are ignored.
+    private CompletionStage<?> replay(String query, int page) {
+        try {
+            RecipesQueryParams.Params params = Json.fromJson(Json.parse(query), RecipesQueryParams.Params.class);
+            int limit = params.limit == null ? 50 : params.limit;
+            params.offset = page * limit;
+            params.cursor = null;
+
+            return pageOf(params)
+                    .thenApply(Json::toJson)
+                    .exceptionally(e -> {
+                        logger.warn("replay(): failed! query = {}", query, e);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            logger.warn("replay(): failed! query = {}", query, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private CompletionStage<PageDto<RecipeDto>> pageOf(RecipesQueryParams.Params params) {
+        RecipesQueryParams.SearchMode searchMode = RecipesQueryParams.Params.toEnum(params.searchMode);
+        if (searchMode == RecipesQueryParams.SearchMode.COMPOSED_OF_NUMBER) {
+            return recipesService.pageOfQueryTypeNumber(params);
+        } else if (searchMode == RecipesQueryParams.SearchMode.COMPOSED_OF_RATIO) {
+            return recipesService.pageOfQueryTypeRatio(params);
+        } else {
+            return recipesService.pageOfQueryTypeNone(params);
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("close(): failed to close connection!", e);
+        }
+    }
+}
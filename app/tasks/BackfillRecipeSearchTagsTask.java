@@ -0,0 +1,41 @@
+package tasks;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.MaintenanceExecutionContext;
+import scala.concurrent.duration.Duration;
+import services.RecipeSearchService;
+
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+
+// Runs once after start up when enabled. Searches already having references are skipped (under a row lock), so once
+// all searches were backfilled it only costs a query, and instances starting at the same time don't conflict.
+public class BackfillRecipeSearchTagsTask {
+    private final ActorSystem actorSystem;
+    private final MaintenanceExecutionContext executionContext;
+    private boolean isEnabled;
+    private RecipeSearchService service;
+
+    @Inject
+    public BackfillRecipeSearchTagsTask(ActorSystem actorSystem, MaintenanceExecutionContext executionContext, Config config, RecipeSearchService service) {
+        this.actorSystem = actorSystem;
+        this.executionContext = executionContext;
+        isEnabled = config.getBoolean("cooksm.art.recipesearchtags.backfill.enabled");
+        this.service = service;
+        this.initialize();
+    }
+
+    private void initialize() {
+        if (!isEnabled) {
+            return;
+        }
+
+        this.actorSystem
+                .scheduler()
+                .scheduleOnce(
+                        Duration.create(10, TimeUnit.SECONDS), // delay
+                        () -> service.backfillTagReferences(),
+                        this.executionContext);
+    }
+}
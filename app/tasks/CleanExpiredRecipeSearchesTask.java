@@ -2,7 +2,7 @@ package tasks;
 
 import akka.actor.ActorSystem;
 import com.typesafe.config.Config;
-import scala.concurrent.ExecutionContext;
+import data.MaintenanceExecutionContext;
 import scala.concurrent.duration.Duration;
 import services.RecipeSearchService;
 
@@ -11,12 +11,12 @@ import java.util.concurrent.TimeUnit;
 
 public class CleanExpiredRecipeSearchesTask {
     private final ActorSystem actorSystem;
-    private final ExecutionContext executionContext;
+    private final MaintenanceExecutionContext executionContext;
     private int intervalSecs;
     private RecipeSearchService service;
 
     @Inject
-    public CleanExpiredRecipeSearchesTask(ActorSystem actorSystem, ExecutionContext executionContext, Config config, RecipeSearchService service) {
+    public CleanExpiredRecipeSearchesTask(ActorSystem actorSystem, MaintenanceExecutionContext executionContext, Config config, RecipeSearchService service) {
         this.actorSystem = actorSystem;
         this.executionContext = executionContext;
         intervalSecs = config.getInt("cooksm.art.recipesearches.clean.interval.secs");
@@ -0,0 +1,81 @@
+package data.repositories.imp;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngredientsConditionSetterBenchmark {
+    @Param({"5", "20"})
+    public int numOfIngredients;
+
+    @Param({"0", "3"})
+    public int numOfTags;
+
+    private List<Long> ingredientIds;
+    private List<Long> tagIds;
+    private EbeanIngredientTagsResolver tagsResolver;
+
+    private static final int INGREDIENTS_PER_TAG = 30;
+
+    @Setup
+    public void setup() {
+        ingredientIds = idsOf(1, numOfIngredients);
+        tagIds = idsOf(1, numOfTags);
+
+        Map<Long, List<Long>> tags = new HashMap<>();
+        for (Long tagId : tagIds) {
+            // Overlaps with the ingredients, and the other tags.
+            tags.put(tagId, idsOf(tagId * 10, INGREDIENTS_PER_TAG));
+        }
+
+        tagsResolver = new EbeanIngredientTagsResolver(new InMemoryTagExpansionCache(tags), null);
+    }
+
+    // Resolved ids are bound as a single array parameter on Postgres.
+    @Benchmark
+    public String resolveToArray() {
+        IngredientsConditionSetter setter = new IngredientsConditionSetter(tagsResolver, ingredientIds, tagIds);
+        return RecipeQuerySql.arrayOf(setter.resolve());
+    }
+
+    private static List<Long> idsOf(long from, int count) {
+        return LongStream.range(from, from + count)
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
+    // Serves tags from memory, so the benchmark doesn't need a database.
+    private static class InMemoryTagExpansionCache extends IngredientTagExpansionCache {
+        private final Map<Long, List<Long>> tags;
+
+        private static final Config CONFIG = ConfigFactory.parseString("" +
+                "cooksm.art.ingredienttags.expansioncache.maxusers = 1\n" +
+                "cooksm.art.ingredienttags.expansioncache.ttl.secs = 1");
+
+        InMemoryTagExpansionCache(Map<Long, List<Long>> tags) {
+            super(null, CONFIG, null);
+            this.tags = tags;
+        }
+
+        @Override
+        public List<Long> resolve(List<Long> ingredientTagIds, Long userId) {
+            List<Long> result = new ArrayList<>();
+            for (Long tagId : ingredientTagIds) {
+                result.addAll(tags.getOrDefault(tagId, Collections.emptyList()));
+            }
+
+            return result;
+        }
+    }
+}
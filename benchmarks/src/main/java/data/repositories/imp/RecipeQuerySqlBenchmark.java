@@ -0,0 +1,81 @@
+package data.repositories.imp;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeQuerySqlBenchmark {
+    private static final int NUM_OF_FLAGS = 9;
+
+    private List<RecipeQuerySql.Configuration> configurations;
+
+    @Setup
+    public void setup() {
+        configurations = new ArrayList<>();
+        for (RecipeQuerySql.QueryType queryType : RecipeQuerySql.QueryType.values()) {
+            for (int flags = 0; flags < (1 << NUM_OF_FLAGS); flags++) {
+                configurations.add(configurationOf(queryType, flags));
+            }
+        }
+    }
+
+    // Generating the SQL text of every configuration.
+    @Benchmark
+    public void generate(Blackhole blackhole) {
+        for (RecipeQuerySql.Configuration configuration : configurations) {
+            blackhole.consume(RecipeQuerySql.generate(configuration));
+        }
+    }
+
+    // Getting the SQL text of every configuration, as done for each query (cached after the first time).
+    @Benchmark
+    public void create(Blackhole blackhole) {
+        for (RecipeQuerySql.Configuration configuration : configurations) {
+            blackhole.consume(RecipeQuerySql.create(configuration));
+        }
+    }
+
+    @Benchmark
+    public void createCount(Blackhole blackhole) {
+        for (RecipeQuerySql.Configuration configuration : configurations) {
+            blackhole.consume(RecipeQuerySql.createCount(configuration, true));
+        }
+    }
+
+    private static RecipeQuerySql.Configuration configurationOf(RecipeQuerySql.QueryType queryType, int flags) {
+        RecipeQuerySql.Configuration configuration = new RecipeQuerySql.Configuration(true, isSet(flags, 0), queryType);
+        configuration.useAdditionalIngrs = isSet(flags, 1);
+        configuration.useFavoritesOnly = isSet(flags, 2);
+        configuration.useRecipeBooks = isSet(flags, 3);
+        configuration.useNameLike = isSet(flags, 4);
+        configuration.useIngredientArray = isSet(flags, 5);
+        configuration.useExcludeAntiJoin = configuration.useExclude && isSet(flags, 6);
+        configuration.useSeek = isSet(flags, 7);
+        configuration.usePaging = true;
+        configuration.selectTotalCount = isSet(flags, 8);
+        configuration.useMinIngs = true;
+        configuration.useMaxIngs = true;
+        configuration.useSourcePages = true;
+        configuration.useTimes = true;
+        configuration.orderBy = "name";
+        configuration.orderBySort = "asc";
+        configuration.goodIngredientsRelation = ">=";
+        configuration.unknownIngredientsRelation = "<=";
+        configuration.goodAdditionalIngredientsRelation = ">=";
+
+        return configuration;
+    }
+
+    private static boolean isSet(int flags, int bit) {
+        return (flags & (1 << bit)) != 0;
+    }
+}
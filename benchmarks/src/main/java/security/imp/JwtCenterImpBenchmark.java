@@ -0,0 +1,38 @@
+package security.imp;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.openjdk.jmh.annotations.*;
+import play.libs.F.Either;
+import security.JwtCenter;
+import security.VerifiedJwt;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtCenterImpBenchmark {
+    private JwtCenterImp jwtCenter;
+    private String validToken;
+
+    @Setup
+    public void setup() {
+        Config config = ConfigFactory.parseString("" +
+                "play.http.secret.key = \"benchmarkSecretKeyBenchmarkSecretKey\"\n" +
+                "cooksm.art.jwt.issuer = \"cooksm.art\"\n" +
+                "cooksm.art.jwt.useridclaim = \"user_id\"\n" +
+                "cooksm.art.jwt.expiry.mins = 300");
+
+        jwtCenter = new JwtCenterImp(config);
+        validToken = jwtCenter.create(42L);
+    }
+
+    @Benchmark
+    public Either<JwtCenter.Error, VerifiedJwt> verify() {
+        return jwtCenter.verify(validToken);
+    }
+}
@@ -0,0 +1,33 @@
+package services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Base62ConversionsBenchmark {
+    @Param({"42", "9223372036854775807"})
+    public long value;
+
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        encoded = Base62Conversions.encode(value);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base62Conversions.encode(value);
+    }
+
+    @Benchmark
+    public Long decode() {
+        return Base62Conversions.decode(encoded);
+    }
+}
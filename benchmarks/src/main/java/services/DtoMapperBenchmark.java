@@ -0,0 +1,98 @@
+package services;
+
+import data.entities.*;
+import lombokized.dto.RecipeDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMapperBenchmark {
+    // Recipes have 10 ingredients on average, with names in every language.
+    @Param({"10", "25"})
+    public int numOfIngredients;
+
+    private Recipe recipe;
+    private List<Language> languages;
+
+    private static final int NUM_OF_LANGUAGES = 3;
+    private static final int ALT_NAMES_PER_NAME = 2;
+
+    @Setup
+    public void setup() {
+        languages = new ArrayList<>();
+        for (long i = 1; i <= NUM_OF_LANGUAGES; i++) {
+            Language language = new Language();
+            language.setId(i);
+            language.setIsoName("l" + i);
+            languages.add(language);
+        }
+
+        SourcePage sourcePage = new SourcePage();
+        sourcePage.setId(1L);
+        sourcePage.setName("source-page");
+        sourcePage.setLanguage(languages.get(0));
+
+        recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setName("Some recipe name");
+        recipe.setUrl("https://source-page/recipes/some-recipe-name");
+        recipe.setImageUrl("https://source-page/images/some-recipe-name.jpg");
+        recipe.setNumofings(numOfIngredients);
+        recipe.setTime(Recipe.Time.AVERAGE);
+        recipe.setSourcePage(sourcePage);
+
+        List<RecipeIngredient> recipeIngredients = new ArrayList<>();
+        for (long i = 1; i <= numOfIngredients; i++) {
+            RecipeIngredient recipeIngredient = new RecipeIngredient();
+            recipeIngredient.setId(i);
+            recipeIngredient.setRecipe(recipe);
+            recipeIngredient.setIngredient(ingredientOf(i));
+            recipeIngredients.add(recipeIngredient);
+        }
+
+        recipe.setIngredients(recipeIngredients);
+    }
+
+    @Benchmark
+    public RecipeDto toDto() {
+        // Last language, so every name list is scanned.
+        return DtoMapper.toDto(recipe, (long) NUM_OF_LANGUAGES);
+    }
+
+    private Ingredient ingredientOf(long id) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+
+        List<IngredientName> names = new ArrayList<>();
+        for (Language language : languages) {
+            IngredientName name = new IngredientName();
+            name.setId(id * NUM_OF_LANGUAGES + language.getId());
+            name.setName("ingredient-" + id + "-" + language.getIsoName());
+            name.setIngredient(ingredient);
+            name.setLanguage(language);
+
+            List<IngredientAltName> altNames = new ArrayList<>();
+            for (long i = 0; i < ALT_NAMES_PER_NAME; i++) {
+                IngredientAltName altName = new IngredientAltName();
+                altName.setId(name.getId() * ALT_NAMES_PER_NAME + i);
+                altName.setName(name.getName() + "-alt-" + i);
+                altName.setIngredientName(name);
+                altNames.add(altName);
+            }
+
+            name.setAltNames(altNames);
+            names.add(name);
+        }
+
+        ingredient.setNames(names);
+        return ingredient;
+    }
+}
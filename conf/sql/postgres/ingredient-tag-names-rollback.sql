@@ -0,0 +1,5 @@
+-- Reverts ingredient-tag-names.sql.
+
+DROP INDEX IF EXISTS ingredient_tag_ingredient_tag_idx;
+DROP INDEX IF EXISTS ingredient_tag_name_lower_name_trgm_idx;
+DROP INDEX IF EXISTS ingredient_tag_name_language_tag_idx;
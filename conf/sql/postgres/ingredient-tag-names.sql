@@ -0,0 +1,12 @@
+-- Indexes of the ingredient tag page projection (EbeanIngredientTagRepository.page): names by language and tag,
+-- and a trigram index serving LOWER(name) LIKE '%...%' (with cooksm.art.names.normalized.enabled = true the
+-- name_normalized index of normalized-names.sql is used instead).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ingredient_tag_name_language_tag_idx ON ingredient_tag_name (language_id, tag_id);
+CREATE INDEX IF NOT EXISTS ingredient_tag_name_lower_name_trgm_idx ON ingredient_tag_name USING GIN (LOWER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ingredient_tag_ingredient_tag_idx ON ingredient_tag_ingredient (ingredient_tag_id, ingredient_id);
+
+ANALYZE ingredient_tag_name;
+ANALYZE ingredient_tag_ingredient;
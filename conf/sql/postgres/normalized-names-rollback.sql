@@ -0,0 +1,23 @@
+-- Reverts normalized-names.sql.
+
+DO $$
+BEGIN
+    EXECUTE format('ALTER DATABASE %I RESET pg_trgm.similarity_threshold', current_database());
+END
+$$;
+
+DROP INDEX IF EXISTS ingredient_tag_name_name_normalized_trgm_idx;
+DROP INDEX IF EXISTS ingredient_alt_name_name_normalized_trgm_idx;
+DROP INDEX IF EXISTS ingredient_name_name_normalized_trgm_idx;
+DROP INDEX IF EXISTS recipe_name_normalized_trgm_gist_idx;
+DROP INDEX IF EXISTS recipe_name_normalized_trgm_idx;
+DROP TRIGGER IF EXISTS ingredient_tag_name_name_normalized_trigger ON ingredient_tag_name;
+DROP TRIGGER IF EXISTS ingredient_alt_name_name_normalized_trigger ON ingredient_alt_name;
+DROP TRIGGER IF EXISTS ingredient_name_name_normalized_trigger ON ingredient_name;
+DROP TRIGGER IF EXISTS recipe_name_normalized_trigger ON recipe;
+ALTER TABLE ingredient_tag_name DROP COLUMN IF EXISTS name_normalized;
+ALTER TABLE ingredient_alt_name DROP COLUMN IF EXISTS name_normalized;
+ALTER TABLE ingredient_name DROP COLUMN IF EXISTS name_normalized;
+ALTER TABLE recipe DROP COLUMN IF EXISTS name_normalized;
+DROP FUNCTION IF EXISTS name_normalized_changed();
+DROP FUNCTION IF EXISTS normalized_name(text);
@@ -0,0 +1,69 @@
+-- Lower cased, accent folded copies of recipe, ingredient and ingredient tag names with trigram indexes, used by
+-- name searches when cooksm.art.names.normalized.enabled = true.
+-- Applications (and imports) keep writing only the name columns, the copies are maintained by triggers.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent() is only stable (it depends on the dictionary), so indexed expressions need an immutable wrapper.
+CREATE OR REPLACE FUNCTION normalized_name(name text) RETURNS text AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary, name));
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
+
+CREATE OR REPLACE FUNCTION name_normalized_changed() RETURNS trigger AS $$
+BEGIN
+    NEW.name_normalized := normalized_name(NEW.name);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS name_normalized text;
+ALTER TABLE ingredient_name ADD COLUMN IF NOT EXISTS name_normalized text;
+ALTER TABLE ingredient_alt_name ADD COLUMN IF NOT EXISTS name_normalized text;
+ALTER TABLE ingredient_tag_name ADD COLUMN IF NOT EXISTS name_normalized text;
+
+UPDATE recipe SET name_normalized = normalized_name(name);
+UPDATE ingredient_name SET name_normalized = normalized_name(name);
+UPDATE ingredient_alt_name SET name_normalized = normalized_name(name);
+UPDATE ingredient_tag_name SET name_normalized = normalized_name(name);
+
+DROP TRIGGER IF EXISTS recipe_name_normalized_trigger ON recipe;
+CREATE TRIGGER recipe_name_normalized_trigger
+    BEFORE INSERT OR UPDATE OF name ON recipe
+    FOR EACH ROW EXECUTE PROCEDURE name_normalized_changed();
+
+DROP TRIGGER IF EXISTS ingredient_name_name_normalized_trigger ON ingredient_name;
+CREATE TRIGGER ingredient_name_name_normalized_trigger
+    BEFORE INSERT OR UPDATE OF name ON ingredient_name
+    FOR EACH ROW EXECUTE PROCEDURE name_normalized_changed();
+
+DROP TRIGGER IF EXISTS ingredient_alt_name_name_normalized_trigger ON ingredient_alt_name;
+CREATE TRIGGER ingredient_alt_name_name_normalized_trigger
+    BEFORE INSERT OR UPDATE OF name ON ingredient_alt_name
+    FOR EACH ROW EXECUTE PROCEDURE name_normalized_changed();
+
+DROP TRIGGER IF EXISTS ingredient_tag_name_name_normalized_trigger ON ingredient_tag_name;
+CREATE TRIGGER ingredient_tag_name_name_normalized_trigger
+    BEFORE INSERT OR UPDATE OF name ON ingredient_tag_name
+    FOR EACH ROW EXECUTE PROCEDURE name_normalized_changed();
+
+-- GIN trigram indexes serve both LIKE '%...%' and the % similarity of the recipe name search.
+CREATE INDEX IF NOT EXISTS recipe_name_normalized_trgm_idx ON recipe USING GIN (name_normalized gin_trgm_ops);
+-- Created by earlier versions of this script; <-> in WHERE can't use it.
+DROP INDEX IF EXISTS recipe_name_normalized_trgm_gist_idx;
+CREATE INDEX IF NOT EXISTS ingredient_name_name_normalized_trgm_idx ON ingredient_name USING GIN (name_normalized gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ingredient_alt_name_name_normalized_trgm_idx ON ingredient_alt_name USING GIN (name_normalized gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ingredient_tag_name_name_normalized_trgm_idx ON ingredient_tag_name USING GIN (name_normalized gin_trgm_ops);
+
+-- Similarity above 0.45 is the same as the distance below 0.55 the recipe name search used before. Applies to new
+-- sessions, so the application has to be restarted (or its connections recycled).
+DO $$
+BEGIN
+    EXECUTE format('ALTER DATABASE %I SET pg_trgm.similarity_threshold = 0.45', current_database());
+END
+$$;
+
+ANALYZE recipe;
+ANALYZE ingredient_name;
+ANALYZE ingredient_alt_name;
+ANALYZE ingredient_tag_name;
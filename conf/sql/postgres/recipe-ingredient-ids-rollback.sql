@@ -0,0 +1,7 @@
+-- Reverts recipe-ingredient-ids.sql.
+
+DROP TRIGGER IF EXISTS recipe_ingredient_ids_trigger ON recipe_ingredient;
+DROP FUNCTION IF EXISTS recipe_ingredient_changed();
+DROP FUNCTION IF EXISTS refresh_recipe_ingredient_ids(bigint);
+DROP INDEX IF EXISTS recipe_ingredient_ids_idx;
+ALTER TABLE recipe DROP COLUMN IF EXISTS ingredient_ids;
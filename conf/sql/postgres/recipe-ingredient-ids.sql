@@ -0,0 +1,46 @@
+-- Denormalized ingredient ids of recipes, used by composed-of queries when
+-- cooksm.art.recipes.ingredientarray.enabled = true.
+
+CREATE EXTENSION IF NOT EXISTS intarray;
+
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS ingredient_ids int[] NOT NULL DEFAULT '{}';
+
+UPDATE recipe
+SET ingredient_ids = COALESCE(
+        (SELECT sort(array_agg(DISTINCT recipe_ingredient.ingredient_id)::int[])
+         FROM recipe_ingredient
+         WHERE recipe_ingredient.recipe_id = recipe.id),
+        '{}');
+
+CREATE INDEX IF NOT EXISTS recipe_ingredient_ids_idx ON recipe USING GIN (ingredient_ids gin__int_ops);
+
+CREATE OR REPLACE FUNCTION refresh_recipe_ingredient_ids(refreshed_recipe_id bigint) RETURNS void AS $$
+BEGIN
+    UPDATE recipe
+    SET ingredient_ids = COALESCE(
+            (SELECT sort(array_agg(DISTINCT recipe_ingredient.ingredient_id)::int[])
+             FROM recipe_ingredient
+             WHERE recipe_ingredient.recipe_id = refreshed_recipe_id),
+            '{}')
+    WHERE recipe.id = refreshed_recipe_id;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION recipe_ingredient_changed() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_recipe_ingredient_ids(NEW.recipe_id);
+    END IF;
+
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.recipe_id IS DISTINCT FROM NEW.recipe_id) THEN
+        PERFORM refresh_recipe_ingredient_ids(OLD.recipe_id);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS recipe_ingredient_ids_trigger ON recipe_ingredient;
+CREATE TRIGGER recipe_ingredient_ids_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON recipe_ingredient
+    FOR EACH ROW EXECUTE PROCEDURE recipe_ingredient_changed();
@@ -0,0 +1,4 @@
+-- Reverts recipe-search-tag.sql.
+
+DROP INDEX IF EXISTS user_search_search_idx;
+DROP TABLE IF EXISTS recipe_search_tag;
@@ -0,0 +1,14 @@
+-- Ingredient tags referenced by recipe searches (RecipeSearchTag), so the user searches referencing a tag to delete
+-- are found by EbeanIngredientTagRepository.userSearchesOf with an indexed join instead of parsing every query.
+-- References of searches stored before are filled by BackfillRecipeSearchTagsTask
+-- (cooksm.art.recipesearchtags.backfill.enabled).
+
+CREATE TABLE IF NOT EXISTS recipe_search_tag (
+    id BIGSERIAL PRIMARY KEY,
+    recipe_search_id BIGINT REFERENCES recipe_search (id) ON DELETE CASCADE,
+    ingredient_tag_id BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS recipe_search_tag_tag_search_idx ON recipe_search_tag (ingredient_tag_id, recipe_search_id);
+CREATE INDEX IF NOT EXISTS recipe_search_tag_search_idx ON recipe_search_tag (recipe_search_id);
+CREATE INDEX IF NOT EXISTS user_search_search_idx ON user_search (search_id);
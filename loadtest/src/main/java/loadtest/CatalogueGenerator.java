@@ -0,0 +1,410 @@
+package loadtest;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Fills an empty schema (as created by the application) with a synthetic, but realistically shaped catalogue.
+// The same seed and sizes always generate the same data.
+//
+// sbt "loadtest/runMain loadtest.CatalogueGenerator --url jdbc:postgresql://localhost/cooksmart?reWriteBatchedInserts=true
+//      --user cooksmart --password secret --seed 42 --recipes 300000 --clean"
+public class CatalogueGenerator {
+    private static final String[] LANGUAGES = {"hu", "en", "de"};
+    private static final String[] SHOPPING_LIST_ITEM_CATEGORIES = {"other", "vegetables", "fruits", "dairy", "meat", "bakery"};
+
+    private static final String[] TABLES_IN_DELETE_ORDER = {
+            "menu_group_recipe", "menu_group", "menu",
+            "shopping_list_item", "shopping_list", "shopping_list_item_category",
+            "recipe_book_recipe", "recipe_book",
+            "favorite_recipe", "user_search", "global_search", "recipe_search",
+            "ingredient_tag_ingredient", "ingredient_tag_name", "ingredient_tag",
+            "recipe_description", "recipe_ingredient", "recipe",
+            "ingredient_alt_name", "ingredient_name", "ingredient",
+            "source_page", "users", "language"
+    };
+
+    private static final String[] TABLES_WITH_ID = {
+            "language", "users", "source_page", "ingredient", "ingredient_name", "ingredient_alt_name", "recipe",
+            "recipe_ingredient", "ingredient_tag", "ingredient_tag_name", "favorite_recipe", "recipe_book",
+            "shopping_list_item_category", "shopping_list", "shopping_list_item", "menu", "menu_group"
+    };
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final Connection connection;
+    private final Random random;
+
+    private final int numOfRecipes;
+    private final int numOfIngredients;
+    private final int numOfUsers;
+    private final int numOfSourcePages;
+    private final int numOfSystemTags;
+    private final Zipf ingredientPopularity;
+    private final Zipf recipePopularity;
+
+    private CatalogueGenerator(Connection connection, Args args) {
+        this.connection = connection;
+        random = new Random(args.longValue("seed", 42));
+        numOfRecipes = args.integer("recipes", 300_000);
+        numOfIngredients = args.integer("ingredients", 20_000);
+        numOfUsers = args.integer("users", 10_000);
+        numOfSourcePages = args.integer("sourcepages", 60);
+        numOfSystemTags = args.integer("tags", 300);
+        ingredientPopularity = new Zipf(numOfIngredients, 1.0);
+        recipePopularity = new Zipf(numOfRecipes, 0.8);
+    }
+
+    public static void main(String[] argsArray) throws SQLException {
+        Args args = new Args(argsArray);
+        try (Connection connection = DriverManager.getConnection(
+                args.required("url"), args.string("user", null), args.string("password", null))) {
+            connection.setAutoCommit(false);
+            CatalogueGenerator generator = new CatalogueGenerator(connection, args);
+            if (args.flag("clean")) {
+                generator.clean();
+            }
+
+            generator.generate();
+        }
+    }
+
+    private void clean() throws SQLException {
+        log("clean()");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + String.join(", ", TABLES_IN_DELETE_ORDER) + " CASCADE");
+        }
+
+        connection.commit();
+    }
+
+    private void generate() throws SQLException {
+        long startMillis = System.currentTimeMillis();
+
+        generateLanguages();
+        generateSourcePages();
+        generateIngredients();
+        generateRecipes();
+        generateSystemTags();
+        generateUsers();
+        generateUserTags();
+        generateFavorites();
+        generateRecipeBooks();
+        generateShoppingLists();
+        generateMenus();
+        resetSequences();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+
+        connection.commit();
+        log("generate(): done in " + (System.currentTimeMillis() - startMillis) / 1000 + " s");
+    }
+
+    private void generateLanguages() throws SQLException {
+        try (Batch batch = new Batch("INSERT INTO language (id, iso_name) VALUES (?, ?)")) {
+            for (int i = 0; i < LANGUAGES.length; i++) {
+                batch.add(i + 1, LANGUAGES[i]);
+            }
+        }
+    }
+
+    private void generateSourcePages() throws SQLException {
+        try (Batch batch = new Batch("INSERT INTO source_page (id, name, language_id) VALUES (?, ?, ?)")) {
+            for (int id = 1; id <= numOfSourcePages; id++) {
+                batch.add(id, Words.word(random, 2, 4) + ".com", languageId());
+            }
+        }
+    }
+
+    private void generateIngredients() throws SQLException {
+        log("generateIngredients(): " + numOfIngredients);
+        try (Batch ingredients = new Batch("INSERT INTO ingredient (id) VALUES (?)");
+             Batch names = new Batch("INSERT INTO ingredient_name (id, ingredient_id, language_id, name) VALUES (?, ?, ?, ?)", ingredients);
+             Batch altNames = new Batch("INSERT INTO ingredient_alt_name (id, ingredient_name_id, name) VALUES (?, ?, ?)", names)) {
+            long nameId = 1;
+            long altNameId = 1;
+            for (int id = 1; id <= numOfIngredients; id++) {
+                ingredients.add(id);
+                for (int languageId = 1; languageId <= LANGUAGES.length; languageId++) {
+                    String name = Words.phrase(random, 1, 2);
+                    names.add(nameId, id, languageId, name);
+
+                    // About every other name has alternatives, e.g. plural or regional forms.
+                    int numOfAltNames = random.nextInt(4) == 0 ? 2 : random.nextInt(2);
+                    for (int i = 0; i < numOfAltNames; i++) {
+                        altNames.add(altNameId++, nameId, name + Words.SYLLABLES[random.nextInt(Words.SYLLABLES.length)]);
+                    }
+
+                    nameId++;
+                }
+            }
+        }
+    }
+
+    private void generateRecipes() throws SQLException {
+        log("generateRecipes(): " + numOfRecipes);
+        Instant firstAdded = Instant.parse("2017-01-01T00:00:00Z");
+        try (Batch recipes = new Batch("INSERT INTO recipe (id, name, url, date_added, numofings, time, image_url, source_page_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch recipeIngredients = new Batch("INSERT INTO recipe_ingredient (id, recipe_id, ingredient_id, amount) VALUES (?, ?, ?, ?)", recipes)) {
+            long recipeIngredientId = 1;
+            for (int id = 1; id <= numOfRecipes; id++) {
+                Set<Integer> ingredientIds = sampleIngredients(numOfRecipeIngredients());
+                String name = Words.phrase(random, 2, 5);
+                int sourcePageId = 1 + random.nextInt(numOfSourcePages);
+                Timestamp dateAdded = Timestamp.from(firstAdded.plus(random.nextInt(365 * 5), ChronoUnit.DAYS));
+
+                recipes.add(id, name, "https://source" + sourcePageId + ".com/recipes/" + id, dateAdded,
+                        ingredientIds.size(), random.nextInt(4), "https://source" + sourcePageId + ".com/images/" + id + ".jpg",
+                        sourcePageId);
+                for (Integer ingredientId : ingredientIds) {
+                    recipeIngredients.add(recipeIngredientId++, id, ingredientId, 1 + random.nextInt(500));
+                }
+            }
+        }
+    }
+
+    // Between 3 and 25, 9 on average.
+    private int numOfRecipeIngredients() {
+        double gaussian = 9 + random.nextGaussian() * 4;
+        return (int) Math.max(3, Math.min(25, Math.round(gaussian)));
+    }
+
+    private Set<Integer> sampleIngredients(int count) {
+        Set<Integer> ids = new TreeSet<>();
+        while (ids.size() < count) {
+            ids.add(ingredientPopularity.sample(random));
+        }
+
+        return ids;
+    }
+
+    private void generateSystemTags() throws SQLException {
+        log("generateSystemTags(): " + numOfSystemTags);
+        generateTags(1, numOfSystemTags, null);
+    }
+
+    private void generateUserTags() throws SQLException {
+        // Every 10th user defined some tags.
+        int tagId = numOfSystemTags + 1;
+        for (int userId = 10; userId <= numOfUsers; userId += 10) {
+            int numOfTags = 1 + random.nextInt(5);
+            generateTags(tagId, numOfTags, (long) userId);
+            tagId += numOfTags;
+        }
+    }
+
+    private void generateTags(int firstId, int count, Long userId) throws SQLException {
+        try (Batch tags = new Batch("INSERT INTO ingredient_tag (id, user_id) VALUES (?, ?)");
+             Batch names = new Batch("INSERT INTO ingredient_tag_name (id, tag_id, language_id, name) VALUES (?, ?, ?, ?)", tags);
+             Batch tagIngredients = new Batch("INSERT INTO ingredient_tag_ingredient (ingredient_tag_id, ingredient_id) VALUES (?, ?)", tags)) {
+            for (int id = firstId; id < firstId + count; id++) {
+                tags.add(id, userId);
+                for (int languageId = 1; languageId <= LANGUAGES.length; languageId++) {
+                    names.add((long) id * LANGUAGES.length + languageId, id, languageId, Words.phrase(random, 1, 2));
+                }
+
+                // Tags group from a few to a few hundred ingredients, e.g. "spices" or "vegetables".
+                int numOfIngredients = 3 + (int) Math.min(300, Math.abs(random.nextGaussian() * 40));
+                for (Integer ingredientId : sampleIngredients(numOfIngredients)) {
+                    tagIngredients.add(id, ingredientId);
+                }
+            }
+        }
+    }
+
+    private void generateUsers() throws SQLException {
+        log("generateUsers(): " + numOfUsers);
+        try (Batch users = new Batch("INSERT INTO users (id, email, full_name) VALUES (?, ?, ?)")) {
+            for (int id = 1; id <= numOfUsers; id++) {
+                users.add(id, "user" + id + "@example.com", Words.phrase(random, 2, 2));
+            }
+        }
+    }
+
+    private void generateFavorites() throws SQLException {
+        log("generateFavorites()");
+        try (Batch favorites = new Batch("INSERT INTO favorite_recipe (id, user_id, recipe_id) VALUES (?, ?, ?)")) {
+            long id = 1;
+            for (int userId = 1; userId <= numOfUsers; userId++) {
+                for (Integer recipeId : sampleRecipes(skewedCount(20, 300))) {
+                    favorites.add(id++, userId, recipeId);
+                }
+            }
+        }
+    }
+
+    private void generateRecipeBooks() throws SQLException {
+        log("generateRecipeBooks()");
+        try (Batch books = new Batch("INSERT INTO recipe_book (id, user_id, name, last_accessed) VALUES (?, ?, ?, ?)");
+             Batch bookRecipes = new Batch("INSERT INTO recipe_book_recipe (recipe_book_id, recipe_id) VALUES (?, ?)", books)) {
+            long id = 1;
+            Timestamp lastAccessed = Timestamp.from(Instant.parse("2023-01-01T00:00:00Z"));
+            for (int userId = 1; userId <= numOfUsers; userId++) {
+                int numOfBooks = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(5);
+                for (int i = 0; i < numOfBooks; i++) {
+                    books.add(id, userId, Words.phrase(random, 1, 3), lastAccessed);
+                    for (Integer recipeId : sampleRecipes(skewedCount(15, 200))) {
+                        bookRecipes.add(id, recipeId);
+                    }
+
+                    id++;
+                }
+            }
+        }
+    }
+
+    private void generateShoppingLists() throws SQLException {
+        log("generateShoppingLists()");
+        try (Batch categories = new Batch("INSERT INTO shopping_list_item_category (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < SHOPPING_LIST_ITEM_CATEGORIES.length; i++) {
+                categories.add(i + 1, SHOPPING_LIST_ITEM_CATEGORIES[i]);
+            }
+        }
+
+        try (Batch lists = new Batch("INSERT INTO shopping_list (id, user_id, name) VALUES (?, ?, ?)");
+             Batch items = new Batch("INSERT INTO shopping_list_item (id, shopping_list_id, name, is_completed, category_id) VALUES (?, ?, ?, ?, ?)", lists)) {
+            long id = 1;
+            long itemId = 1;
+            for (int userId = 1; userId <= numOfUsers; userId++) {
+                int numOfLists = random.nextInt(2) == 0 ? 0 : 1 + random.nextInt(3);
+                for (int i = 0; i < numOfLists; i++) {
+                    lists.add(id, userId, Words.phrase(random, 1, 2));
+                    int numOfItems = 1 + random.nextInt(30);
+                    for (int j = 0; j < numOfItems; j++) {
+                        items.add(itemId++, id, Words.phrase(random, 1, 2), random.nextBoolean(),
+                                1 + random.nextInt(SHOPPING_LIST_ITEM_CATEGORIES.length));
+                    }
+
+                    id++;
+                }
+            }
+        }
+    }
+
+    private void generateMenus() throws SQLException {
+        log("generateMenus()");
+        try (Batch menus = new Batch("INSERT INTO menu (id, user_id, name) VALUES (?, ?, ?)");
+             Batch groups = new Batch("INSERT INTO menu_group (id, menu_id) VALUES (?, ?)", menus);
+             Batch groupRecipes = new Batch("INSERT INTO menu_group_recipe (group_id, recipe_id) VALUES (?, ?)", groups)) {
+            long id = 1;
+            long groupId = 1;
+            for (int userId = 1; userId <= numOfUsers; userId++) {
+                int numOfMenus = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+                for (int i = 0; i < numOfMenus; i++) {
+                    menus.add(id, userId, Words.phrase(random, 1, 2));
+                    // A group per day of a week.
+                    for (int day = 0; day < 7; day++) {
+                        groups.add(groupId, id);
+                        for (Integer recipeId : sampleRecipes(1 + random.nextInt(3))) {
+                            groupRecipes.add(groupId, recipeId);
+                        }
+
+                        groupId++;
+                    }
+
+                    id++;
+                }
+            }
+        }
+    }
+
+    // Most are small, a few are large.
+    private int skewedCount(int mean, int max) {
+        return (int) Math.min(max, Math.round(-Math.log(1 - random.nextDouble()) * mean));
+    }
+
+    private Set<Integer> sampleRecipes(int count) {
+        Set<Integer> ids = new TreeSet<>();
+        while (ids.size() < Math.min(count, numOfRecipes)) {
+            ids.add(recipePopularity.sample(random));
+        }
+
+        return ids;
+    }
+
+    private long languageId() {
+        return 1 + random.nextInt(LANGUAGES.length);
+    }
+
+    // Ids were given explicitly, so the sequences must continue after them.
+    private void resetSequences() throws SQLException {
+        for (String table : TABLES_WITH_ID) {
+            String sequence = sequenceOf(table);
+            if (sequence == null) {
+                log("resetSequences(): no sequence found for " + table);
+                continue;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval('" + sequence + "', COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+            }
+        }
+    }
+
+    private String sequenceOf(String table) throws SQLException {
+        String sql = "SELECT COALESCE(pg_get_serial_sequence(?, 'id'), to_regclass(? || '_seq')::text)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, table);
+            statement.setString(2, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static void log(String message) {
+        System.out.println(Instant.now() + " " + message);
+    }
+
+    // Batched insert, executed and committed every BATCH_SIZE rows, and on close. Rows of the parent (the batch
+    // of referenced rows) are always inserted first.
+    private class Batch implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final Batch parent;
+        private int size;
+
+        Batch(String sql) throws SQLException {
+            this(sql, null);
+        }
+
+        Batch(String sql, Batch parent) throws SQLException {
+            statement = connection.prepareStatement(sql);
+            this.parent = parent;
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+
+            statement.addBatch();
+            size++;
+            if (size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (parent != null) {
+                parent.flush();
+            }
+
+            statement.executeBatch();
+            connection.commit();
+            size = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (size > 0) {
+                flush();
+            }
+
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package loadtest;
+
+import java.util.*;
+
+// Latencies of requests per operation. Used by a single worker thread; recorders of the workers are merged for
+// the report.
+class LatencyRecorder {
+    private final Map<String, Latencies> byOperation = new TreeMap<>();
+
+    void record(String operation, int status, long latencyMicros) {
+        Latencies latencies = byOperation.computeIfAbsent(operation, o -> new Latencies());
+        latencies.add(latencyMicros);
+        if (status < 200 || status >= 400) {
+            latencies.errors++;
+        }
+    }
+
+    void recordFailure(String operation) {
+        byOperation.computeIfAbsent(operation, o -> new Latencies()).failures++;
+    }
+
+    void merge(LatencyRecorder other) {
+        other.byOperation.forEach((operation, latencies) ->
+                byOperation.computeIfAbsent(operation, o -> new Latencies()).merge(latencies));
+    }
+
+    String report(double elapsedSecs) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-24s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "failed", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        Latencies total = new Latencies();
+        byOperation.forEach((operation, latencies) -> {
+            appendRow(builder, operation, latencies, elapsedSecs);
+            total.merge(latencies);
+        });
+        appendRow(builder, "total", total, elapsedSecs);
+
+        return builder.toString();
+    }
+
+    private static void appendRow(StringBuilder builder, String operation, Latencies latencies, double elapsedSecs) {
+        long[] sorted = latencies.sorted();
+        builder.append(String.format("%-24s %9d %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                operation, sorted.length, latencies.errors, latencies.failures, sorted.length / elapsedSecs,
+                percentileMs(sorted, 50), percentileMs(sorted, 90), percentileMs(sorted, 99), percentileMs(sorted, 99.9),
+                percentileMs(sorted, 100)));
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+        private long failures;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        void merge(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+
+            errors += other.errors;
+            failures += other.failures;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package loadtest;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+// Replays a mix of searches and CRUD requests against a running instance (filled by CatalogueGenerator) with a
+// fixed number of concurrent clients, and reports throughput and latency percentiles per operation.
+//
+// sbt "loadtest/runMain loadtest.LoadTestRunner --url http://localhost:9000 --concurrency 32 --duration-secs 120
+//      --jwt-secret <play.http.secret.key of the instance>"
+public class LoadTestRunner {
+    private final String baseUrl;
+    private final int numOfIngredients;
+    private final int numOfRecipes;
+    private final int numOfLanguages;
+    private final long thinkMillis;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final List<String> tokens;
+    private final Zipf ingredientPopularity;
+    private final HttpClient client;
+
+    private static final int NUM_OF_TOKENS = 1000;
+
+    private LoadTestRunner(Args args) {
+        baseUrl = args.string("url", "http://localhost:9000");
+        numOfIngredients = args.integer("ingredients", 20_000);
+        numOfRecipes = args.integer("recipes", 300_000);
+        numOfLanguages = args.integer("languages", 3);
+        thinkMillis = args.longValue("think-ms", 0);
+        tokens = createTokens(args);
+        mix = mixOf(args.string("mix", "recipes=55,ingredientnames=20,recipesearches=10,crud=15"), !tokens.isEmpty());
+        totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        ingredientPopularity = new Zipf(numOfIngredients, 1.0);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] argsArray) throws Exception {
+        Args args = new Args(argsArray);
+        LoadTestRunner runner = new LoadTestRunner(args);
+        runner.run(args.integer("concurrency", 16), args.integer("warmup-secs", 10),
+                args.integer("duration-secs", 60), args.longValue("seed", 42));
+    }
+
+    private void run(int concurrency, int warmupSecs, int durationSecs, long seed) throws Exception {
+        System.out.println("run(): url = " + baseUrl + ", concurrency = " + concurrency + ", mix = " + mix);
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + Duration.ofSeconds(warmupSecs).toNanos();
+        long endNanos = measureFromNanos + Duration.ofSeconds(durationSecs).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<LatencyRecorder>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Random random = new Random(seed + i);
+            workers.add(executor.submit(() -> work(random, measureFromNanos, endNanos)));
+        }
+
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> worker : workers) {
+            total.merge(worker.get());
+        }
+
+        executor.shutdown();
+        System.out.println(total.report(durationSecs));
+    }
+
+    private LatencyRecorder work(Random random, long measureFromNanos, long endNanos) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        while (System.nanoTime() < endNanos) {
+            boolean isMeasured = System.nanoTime() >= measureFromNanos;
+            LatencyRecorder usedRecorder = isMeasured ? recorder : new LatencyRecorder();
+            switch (pickOperation(random)) {
+                case "recipes":
+                    send(usedRecorder, "recipes", get("/recipes?" + recipesQuery(random)));
+                    break;
+                case "ingredientnames":
+                    send(usedRecorder, "ingredientnames", get("/ingredientnames?" + ingredientNamesQuery(random)));
+                    break;
+                case "recipesearches":
+                    recipeSearch(usedRecorder, random);
+                    break;
+                case "crud":
+                    crud(usedRecorder, random);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation!");
+            }
+
+            if (thinkMillis > 0) {
+                Thread.sleep(thinkMillis);
+            }
+        }
+
+        return recorder;
+    }
+
+    private String pickOperation(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> operation : mix.entrySet()) {
+            value -= operation.getValue();
+            if (value < 0) {
+                return operation.getKey();
+            }
+        }
+
+        throw new IllegalStateException("Invalid mix!");
+    }
+
+    private String recipesQuery(Random random) {
+        List<String> params = new ArrayList<>();
+        params.add("languageId=" + languageId(random));
+        params.add("limit=25");
+        params.add("offset=" + (random.nextInt(5) == 0 ? 25 * random.nextInt(5) : 0));
+
+        int searchMode = random.nextInt(100);
+        List<Integer> included = ingredients(random, 2 + random.nextInt(5));
+        if (searchMode < 60) {
+            params.add("searchMode=composed-of-number");
+            params.add("goodIngs=" + Math.min(included.size(), 1 + random.nextInt(3)));
+            params.add("goodIngsRel=ge");
+            params.add("unknownIngs=" + random.nextInt(4));
+            params.add("unknownIngsRel=le");
+            addList(params, "inIngs", included);
+        } else if (searchMode < 85) {
+            params.add("searchMode=composed-of-ratio");
+            params.add("goodIngsRatio=" + (4 + random.nextInt(6)) / 10.0);
+            addList(params, "inIngs", included);
+        }
+
+        if (random.nextInt(10) < 3) {
+            addList(params, "exIngs", ingredients(random, 1 + random.nextInt(3)));
+        }
+
+        if (random.nextInt(10) == 0) {
+            params.add("nameLike=" + Words.SYLLABLES[random.nextInt(Words.SYLLABLES.length)]);
+        }
+
+        if (random.nextInt(5) == 0) {
+            String[] orderBys = {"name", "numofings", "time"};
+            params.add("orderBy=" + orderBys[random.nextInt(orderBys.length)]);
+            params.add("orderBySort=" + (random.nextBoolean() ? "asc" : "desc"));
+        }
+
+        return String.join("&", params);
+    }
+
+    private String ingredientNamesQuery(Random random) {
+        String nameLike = Words.SYLLABLES[random.nextInt(Words.SYLLABLES.length)];
+        if (random.nextBoolean()) {
+            nameLike += Words.SYLLABLES[random.nextInt(Words.SYLLABLES.length)].charAt(0);
+        }
+
+        return "languageId=" + languageId(random) + "&nameLike=" + nameLike + "&limit=10&offset=0";
+    }
+
+    private void recipeSearch(LatencyRecorder recorder, Random random) {
+        String ids = ingredients(random, 2 + random.nextInt(5)).stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+        String json = "{\"searchMode\": \"composed-of-number\", \"goodIngs\": 1, \"goodIngsRel\": \"ge\", " +
+                "\"unknownIngs\": 2, \"unknownIngsRel\": \"le\", \"inIngs\": [" + ids + "]}";
+
+        HttpResponse<String> created = send(recorder, "recipesearches.create", post("/recipesearches", json, null));
+        if (created != null) {
+            created.headers().firstValue("Location")
+                    .ifPresent(location -> send(recorder, "recipesearches.single", get(location)));
+        }
+    }
+
+    private void crud(LatencyRecorder recorder, Random random) {
+        String token = tokens.get(random.nextInt(tokens.size()));
+        switch (random.nextInt(5)) {
+            case 0:
+                send(recorder, "favoriterecipes.all", authorized(get("/favoriterecipes"), token));
+                break;
+            case 1:
+                String json = "{\"recipeId\": " + (1 + random.nextInt(numOfRecipes)) + "}";
+                HttpResponse<String> created = send(recorder, "favoriterecipes.create", post("/favoriterecipes", json, token));
+                if (created != null) {
+                    created.headers().firstValue("Location").ifPresent(location ->
+                            send(recorder, "favoriterecipes.delete", authorized(delete(location), token)));
+                }
+                break;
+            case 2:
+                send(recorder, "recipebooks.all", authorized(get("/recipebooks"), token));
+                break;
+            case 3:
+                send(recorder, "shoppinglist.all", authorized(get("/shoppinglist"), token));
+                break;
+            default:
+                send(recorder, "menus.all", authorized(get("/menus/all"), token));
+        }
+    }
+
+    private HttpResponse<String> send(LatencyRecorder recorder, String operation, HttpRequest.Builder request) {
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            recorder.record(operation, response.statusCode(), (System.nanoTime() - startNanos) / 1000);
+            return response;
+        } catch (IOException e) {
+            recorder.recordFailure(operation);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.recordFailure(operation);
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uriOf(path)).GET();
+    }
+
+    private HttpRequest.Builder delete(String path) {
+        return HttpRequest.newBuilder(uriOf(path)).DELETE();
+    }
+
+    private HttpRequest.Builder post(String path, String json, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uriOf(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        return token == null ? request : authorized(request, token);
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder request, String token) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private URI uriOf(String pathOrUrl) {
+        return URI.create(pathOrUrl.startsWith("http") ? pathOrUrl : baseUrl + pathOrUrl);
+    }
+
+    private List<Integer> ingredients(Random random, int count) {
+        Set<Integer> ids = new TreeSet<>();
+        while (ids.size() < count) {
+            ids.add(ingredientPopularity.sample(random));
+        }
+
+        return new ArrayList<>(ids);
+    }
+
+    private static void addList(List<String> params, String name, List<Integer> values) {
+        for (int i = 0; i < values.size(); i++) {
+            params.add(name + "[" + i + "]=" + values.get(i));
+        }
+    }
+
+    private int languageId(Random random) {
+        return 1 + random.nextInt(numOfLanguages);
+    }
+
+    // Tokens of generated users, signed with the secret of the instance.
+    private static List<String> createTokens(Args args) {
+        String secret = args.string("jwt-secret", null);
+        if (secret == null) {
+            return Collections.emptyList();
+        }
+
+        Algorithm algorithm = Algorithm.HMAC256(secret);
+        int numOfUsers = args.integer("users", 10_000);
+        Random random = new Random(args.longValue("seed", 42));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_TOKENS; i++) {
+            long userId = 1 + random.nextInt(numOfUsers);
+            tokens.add(JWT.create()
+                    .withIssuer(args.string("jwt-issuer", "cooksm.art"))
+                    .withClaim(args.string("jwt-useridclaim", "user_id"), userId)
+                    .withExpiresAt(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                    .sign(algorithm));
+        }
+
+        return tokens;
+    }
+
+    // Operation weights, e.g. "recipes=55,ingredientnames=20,recipesearches=10,crud=15". CRUD needs tokens.
+    private static Map<String, Integer> mixOf(String value, boolean hasTokens) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+
+        if (!hasTokens && mix.remove("crud") != null) {
+            System.out.println("mixOf(): no --jwt-secret given, CRUD requests are skipped");
+        }
+
+        return mix;
+    }
+}
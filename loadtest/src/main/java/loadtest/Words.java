@@ -0,0 +1,35 @@
+package loadtest;
+
+import java.util.Random;
+
+// Pronounceable pseudo words, so name searches (prefixes, similarity) behave like on real names.
+class Words {
+    static final String[] SYLLABLES = {
+            "ka", "po", "ri", "me", "lo", "sa", "tu", "ne", "vi", "ba", "go", "de", "fi", "la", "mo", "ru",
+            "ze", "ha", "ki", "no", "pa", "se", "to", "va", "bor", "kel", "man", "tor", "sil", "ven", "gar", "dun"
+    };
+
+    static String word(Random random, int minSyllables, int maxSyllables) {
+        int numOfSyllables = minSyllables + random.nextInt(maxSyllables - minSyllables + 1);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numOfSyllables; i++) {
+            builder.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+
+        return builder.toString();
+    }
+
+    static String phrase(Random random, int minWords, int maxWords) {
+        int numOfWords = minWords + random.nextInt(maxWords - minWords + 1);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numOfWords; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+
+            builder.append(word(random, 2, 4));
+        }
+
+        return builder.toString();
+    }
+}
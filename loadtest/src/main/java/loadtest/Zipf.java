@@ -0,0 +1,29 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Samples ranks 1..n with probability proportional to 1 / rank^exponent, i.e. a few items are very popular,
+// most are rare. Used for picking ingredients, so their recipe counts are skewed like in real catalogues.
+class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1) + 1;
+    }
+}
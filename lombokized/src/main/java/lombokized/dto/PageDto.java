@@ -1,6 +1,7 @@
 package lombokized.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -9,4 +10,10 @@ import java.util.List;
 public class PageDto <T> {
     private final List<T> items;
     private final int totalCount;
+    // Total count is only a lower bound (with countMode=estimate, or countMode=none when there are more results).
+    // Only set for recipe pages. Fields below are left out when not set, so other pages are serialized as before.
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean totalCountCapped;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
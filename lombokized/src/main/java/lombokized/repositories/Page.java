@@ -8,4 +8,6 @@ import java.util.List;
 public class Page <T> {
     private final List<T> items;
     private final int totalCount;
+    // Total count is only a lower bound (counting stopped at a cap).
+    private boolean totalCountCapped;
 }
@@ -60,6 +60,18 @@ public class RecipeRepositoryParams {
         }
     }
 
+    public enum CountMode {
+        // Total count is not calculated, only whether there are more results after the page.
+        NONE,
+        // Total count is calculated up to a limit.
+        ESTIMATE,
+        EXACT;
+
+        public static CountMode fromString(String value) {
+            return CountMode.valueOf(value.toUpperCase());
+        }
+    }
+
     @Value
     @Builder(builderClassName = "Builder", toBuilder = true)
     public static class Common {
@@ -71,6 +83,13 @@ public class RecipeRepositoryParams {
         String orderBySort;
         Integer offset;
         Integer limit;
+        // Keyset paging: results after the (seekValue, seekId) pair in the order, offset is ignored if set.
+        Long seekId;
+        String seekValue;
+        // Total count carried over from the first page by the cursor; seek pages reuse it instead of counting.
+        Integer seekTotalCount;
+        boolean seekTotalCountCapped;
+        @lombok.Builder.Default CountMode countMode = CountMode.EXACT;
         String nameLike;
         List<Long> sourcePageIds;
         List<Integer> times;
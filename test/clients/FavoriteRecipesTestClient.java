@@ -28,6 +28,13 @@ public class FavoriteRecipesTestClient {
         return route(application, request);
     }
 
+    public Result allOf(String jwt) {
+        Http.RequestBuilder request = new Http.RequestBuilder().uri(routes.FavoriteRecipesController.all().url());
+        JwtTestUtils.addJwtTokenTo(request, jwt);
+
+        return route(application, request);
+    }
+
     public Result create(FavoriteRecipeCreateDto dto, Long userId) {
         Http.RequestBuilder request = createPostRequest(userId)
                 .bodyJson(Json.toJson(dto));
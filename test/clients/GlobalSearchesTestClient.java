@@ -21,4 +21,12 @@ public class GlobalSearchesTestClient {
 
         return route(application, request);
     }
+
+    public Result all(String headerName, String headerValue) {
+        Http.RequestBuilder request = new Http.RequestBuilder().method(GET)
+                .uri(routes.GlobalSearchesController.all().url())
+                .header(headerName, headerValue);
+
+        return route(application, request);
+    }
 }
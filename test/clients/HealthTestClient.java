@@ -0,0 +1,24 @@
+package clients;
+
+import controllers.v1.routes;
+import play.Application;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import static play.test.Helpers.GET;
+import static play.test.Helpers.route;
+
+public class HealthTestClient {
+    private final Application application;
+
+    public HealthTestClient(Application application) {
+        this.application = application;
+    }
+
+    public Result ready() {
+        Http.RequestBuilder request = new Http.RequestBuilder().method(GET)
+                .uri(routes.HealthController.ready().url());
+
+        return route(application, request);
+    }
+}
@@ -0,0 +1,25 @@
+package clients;
+
+import controllers.v1.routes;
+import play.Application;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import static play.test.Helpers.GET;
+import static play.test.Helpers.route;
+
+public class MetricsTestClient {
+    private final Application application;
+
+    public MetricsTestClient(Application application) {
+        this.application = application;
+    }
+
+    public Result metrics(String token) {
+        Http.RequestBuilder request = new Http.RequestBuilder().method(GET)
+                .uri(routes.MetricsController.metrics().url())
+                .header("X-Metrics-Token", token);
+
+        return route(application, request);
+    }
+}
@@ -0,0 +1,81 @@
+package controllers;
+
+import clients.RecipeSearchesTestClient;
+import clients.RecipesTestClient;
+import clients.SourcePagesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Http;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import java.util.Optional;
+
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.SERVICE_UNAVAILABLE;
+
+public class AdmissionControlTest {
+    @Rule
+    public RuleChain chain;
+
+    private RecipesTestClient recipesClient;
+    private RecipeSearchesTestClient recipeSearchesClient;
+    private SourcePagesTestClient sourcePagesClient;
+    private final RuleChainForTests ruleChainForTests;
+
+    public AdmissionControlTest() {
+        // Search dispatcher is always considered overloaded.
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.admission.search.maxqueue", -1);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        recipesClient = new RecipesTestClient(ruleChainForTests.getApplication());
+        recipeSearchesClient = new RecipeSearchesTestClient(ruleChainForTests.getApplication());
+        sourcePagesClient = new SourcePagesTestClient(ruleChainForTests.getApplication());
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testSearchRejected() {
+        // When
+        Result result = recipesClient.page("limit=50&offset=0");
+
+        // Then
+        assertThat(statusOf(result), equalTo(SERVICE_UNAVAILABLE));
+        assertThat(result.header(Http.HeaderNames.RETRY_AFTER), equalTo(Optional.of("5")));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testNonSearchAdmitted() {
+        // When
+        Result result = sourcePagesClient.all();
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipesearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testSingleRecipeSearchAdmitted() {
+        // When
+        Result result = recipeSearchesClient.single(239329L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+    }
+}
@@ -0,0 +1,75 @@
+package controllers;
+
+import clients.RecipesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import data.SearchExecutionContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import java.util.concurrent.CountDownLatch;
+
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.SERVICE_UNAVAILABLE;
+
+public class AdmissionControlTest_RecoveryTest {
+    @Rule
+    public RuleChain chain;
+
+    private RecipesTestClient recipesClient;
+    private SearchExecutionContext searchExecContext;
+    private final RuleChainForTests ruleChainForTests;
+
+    public AdmissionControlTest_RecoveryTest() {
+        // Only the wait time can overload the search dispatcher.
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.admission.search.maxqueue", 1000)
+                .configure("cooksm.art.admission.search.maxwait.ms", 100);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        recipesClient = new RecipesTestClient(ruleChainForTests.getApplication());
+        searchExecContext = ruleChainForTests.getApplication().injector().instanceOf(SearchExecutionContext.class);
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testSearchAdmittedAfterBurst() throws InterruptedException {
+        // When
+        CountDownLatch burstLatch = new CountDownLatch(1);
+        for (int i = 0; i < 50; i++) {
+            searchExecContext.execute(() -> {
+                try {
+                    burstLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Thread.sleep(300);
+
+        Result resultDuringBurst = recipesClient.page("limit=50&offset=0");
+
+        burstLatch.countDown();
+        for (int i = 0; i < 100 && searchExecContext.queueDepth() > 0; i++) {
+            Thread.sleep(50);
+        }
+
+        Result resultAfterBurst = recipesClient.page("limit=50&offset=0");
+
+        // Then
+        assertThat(statusOf(resultDuringBurst), equalTo(SERVICE_UNAVAILABLE));
+        assertThat(statusOf(resultAfterBurst), equalTo(OK));
+    }
+}
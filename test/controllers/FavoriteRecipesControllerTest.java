@@ -8,12 +8,14 @@ import data.entities.SourcePage;
 import data.entities.User;
 import io.ebean.Ebean;
 import lombokized.dto.FavoriteRecipeCreateDto;
+import metrics.MetricsRegistry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
 import play.mvc.Result;
 import rules.RuleChainForTests;
+import utils.JwtTestUtils;
 
 import static extractors.FavoriteRecipesFromResult.recipeIdOfSingleFavoriteRecipeOf;
 import static extractors.FavoriteRecipesFromResult.recipeIdsOfFavoriteRecipesOf;
@@ -159,6 +161,24 @@ public class FavoriteRecipesControllerTest {
         assertThat(statusOf(result), equalTo(NOT_FOUND));
     }
 
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/favoriterecipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testVerifiedTokenCached() {
+        // When
+        String jwt = JwtTestUtils.createToken(1L, ruleChainForTests.getApplication().config());
+        Result firstResult = client.allOf(jwt);
+        Result secondResult = client.allOf(jwt);
+
+        // Then
+        assertThat(statusOf(firstResult), equalTo(OK));
+        assertThat(statusOf(secondResult), equalTo(OK));
+
+        MetricsRegistry metrics = ruleChainForTests.getApplication().injector().instanceOf(MetricsRegistry.class);
+        assertThat(metrics.counter("jwt_cache_requests_total", "", "outcome", "miss").value(), equalTo(1L));
+        assertThat(metrics.counter("jwt_cache_requests_total", "", "outcome", "hit").value(), equalTo(1L));
+    }
+
     private User createUserInDb(String email) {
         User user = new User();
         user.setEmail(email);
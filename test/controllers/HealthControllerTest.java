@@ -0,0 +1,51 @@
+package controllers;
+
+import clients.HealthTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+
+public class HealthControllerTest {
+    @Rule
+    public RuleChain chain;
+
+    private HealthTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public HealthControllerTest() {
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.warmup.enabled", true);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new HealthTestClient(ruleChainForTests.getApplication());
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/globalsearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testReadyAfterWarmUp() throws InterruptedException {
+        // When
+        Result result = client.ready();
+        for (int i = 0; i < 100 && statusOf(result) != OK; i++) {
+            Thread.sleep(100);
+            result = client.ready();
+        }
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+    }
+}
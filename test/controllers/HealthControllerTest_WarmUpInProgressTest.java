@@ -0,0 +1,67 @@
+package controllers;
+
+import clients.HealthTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import data.repositories.GlobalSearchRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+import utils.BlockingGlobalSearchRepository;
+
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static play.inject.Bindings.bind;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.SERVICE_UNAVAILABLE;
+
+public class HealthControllerTest_WarmUpInProgressTest {
+    @Rule
+    public RuleChain chain;
+
+    private HealthTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public HealthControllerTest_WarmUpInProgressTest() {
+        // Warm-up stays in progress until the global searches are released.
+        BlockingGlobalSearchRepository.block();
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.warmup.enabled", true)
+                .overrides(bind(GlobalSearchRepository.class).to(BlockingGlobalSearchRepository.class));
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new HealthTestClient(ruleChainForTests.getApplication());
+    }
+
+    @After
+    public void after() {
+        BlockingGlobalSearchRepository.release();
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/globalsearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testNotReadyDuringWarmUp() throws InterruptedException {
+        // When
+        Result inProgress = client.ready();
+        BlockingGlobalSearchRepository.release();
+        Result finished = client.ready();
+        for (int i = 0; i < 100 && statusOf(finished) != OK; i++) {
+            Thread.sleep(100);
+            finished = client.ready();
+        }
+
+        // Then
+        assertThat(statusOf(inProgress), equalTo(SERVICE_UNAVAILABLE));
+        assertThat(statusOf(finished), equalTo(OK));
+    }
+}
@@ -14,6 +14,7 @@ import java.util.Map;
 
 import static extractors.DataFromResult.itemsSizeOf;
 import static extractors.DataFromResult.statusOf;
+import static extractors.DataFromResult.totalCountOf;
 import static extractors.IngredientNamesFromResult.*;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.*;
@@ -83,6 +84,58 @@ public class IngredientNamesControllerTest {
         assertThat(alternativeIngredientNamesOf(result, 0), empty());
     }
 
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/ingredientnames.yml", disableConstraints = true, cleanBefore = true)
+    public void testByAltNameIgnoringCase() {
+        // When
+        Result first = client.page("languageId=1&nameLike=ALT_2");
+        Result second = client.page("languageId=1&nameLike=ALT_2&offset=1&limit=1");
+
+        // Then
+        assertThat(statusOf(first), equalTo(OK));
+        assertThat(ingredientIdsOf(first), containsInAnyOrder(1L, 2L));
+        assertThat(totalCountOf(first), equalTo(2));
+
+        assertThat(statusOf(second), equalTo(OK));
+        assertThat(itemsSizeOf(second), equalTo(1));
+        assertThat(totalCountOf(second), equalTo(2));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/ingredientnames-accents.yml", disableConstraints = true, cleanBefore = true)
+    public void testAccentInsensitive() {
+        // When
+        Result withoutAccents = client.page("languageId=1&nameLike=hus");
+        Result withOtherCase = client.page("languageId=1&nameLike=OSZI");
+
+        // Then
+        assertThat(statusOf(withoutAccents), equalTo(OK));
+        assertThat(ingredientNamesOf(withoutAccents), contains("Sertéshús"));
+
+        assertThat(statusOf(withOtherCase), equalTo(OK));
+        assertThat(ingredientNamesOf(withOtherCase), contains("Őszibarack"));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/ingredientnames.yml", disableConstraints = true, cleanBefore = true)
+    public void testByIngredientIds_inOrderOfIds() {
+        // When
+        Result first = client.byIngredientIds("languageId=1&ingredientIds[0]=3&ingredientIds[1]=1");
+        Result second = client.byIngredientIds("languageId=1&ingredientIds[0]=2&ingredientIds[1]=3&ingredientIds[2]=2");
+
+        // Then
+        assertThat(statusOf(first), equalTo(OK));
+        assertThat(ingredientIdsAsListOf(first), contains(3L, 1L));
+        assertThat(ingredientNamesAsListOf(first), contains("hu_3", "hu_1"));
+
+        assertThat(statusOf(second), equalTo(OK));
+        assertThat(ingredientIdsAsListOf(second), contains(2L, 3L, 2L));
+        assertThat(ingredientNamesAsListOf(second), contains("hu_2", "hu_3", "hu_2"));
+    }
+
     @DataSet(value = "datasets/yml/ingredientnames-translate.yml", disableConstraints = true, cleanBefore = true)
     @Test
     public void testIngredientNames_Translate() {
@@ -0,0 +1,59 @@
+package controllers;
+
+import clients.IngredientNamesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import io.ebean.Ebean;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import static extractors.DataFromResult.statusOf;
+import static extractors.IngredientNamesFromResult.ingredientNamesAsListOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+
+public class IngredientNamesController_DictionaryTtlTest {
+    @Rule
+    public RuleChain chain;
+
+    private IngredientNamesTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public IngredientNamesController_DictionaryTtlTest() {
+        // Without the index there are no reloads, only the TTL drops the dictionary.
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.ingredientnames.index.enabled", false)
+                .configure("cooksm.art.ingredientnames.dictionary.ttl.secs", 0);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        client = new IngredientNamesTestClient(ruleChainForTests.getApplication());
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/ingredientnames.yml", disableConstraints = true, cleanBefore = true)
+    public void testByIngredientIds_RenamedAfterTtl() {
+        // Given
+        Result before = client.byIngredientIds("languageId=1&ingredientIds[0]=1");
+        assertThat(ingredientNamesAsListOf(before), contains("hu_1"));
+        Ebean.createSqlUpdate("UPDATE ingredient_name SET name = 'hu_1_renamed' " +
+                "WHERE ingredient_id = 1 AND language_id = 1").execute();
+
+        // When
+        Result after = client.byIngredientIds("languageId=1&ingredientIds[0]=1");
+
+        // Then
+        assertThat(statusOf(after), equalTo(OK));
+        assertThat(ingredientNamesAsListOf(after), contains("hu_1_renamed"));
+    }
+}
@@ -107,6 +107,21 @@ public class IngredientTagsControllerTest {
         assertThat(ingredientTagIdsOf(result), containsInAnyOrder(6L, 3L, 11L));
     }
 
+    @Test
+    // Given
+    @DataSet(value = {"datasets/yml/ingredienttags.yml", "datasets/yml/ingredienttags-user-defined.yml"}, disableConstraints = true, cleanBefore = true)
+    public void testListTags_UserDefined_IngredientsOfTags() {
+        // When
+        Result result = client.authorizedPage(1L, "languageId=1&nameLike=tag_2&limit=2");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(totalCountOf(result), equalTo(3));
+        assertThat(ingredientTagIdsOf(result), contains(3L, 6L));
+        assertThat(ingredientIdsOfIngredientTagOf(result, 0), containsInAnyOrder(1L, 2L));
+        assertThat(ingredientIdsOfIngredientTagOf(result, 1), containsInAnyOrder(5L));
+    }
+
     @Test
     // Given
     @DataSet(value = {"datasets/yml/ingredienttags.yml", "datasets/yml/ingredienttags-user-defined.yml"}, disableConstraints = true, cleanBefore = true)
@@ -121,6 +136,23 @@ public class IngredientTagsControllerTest {
         assertThat(ingredientTagIdsOf(result), containsInAnyOrder(6L, 3L));
     }
 
+    @Test
+    // Given
+    @DataSet(value = {"datasets/yml/ingredienttags.yml", "datasets/yml/ingredienttags-user-defined.yml"}, disableConstraints = true, cleanBefore = true)
+    public void testListTags_WildcardsMatchedLiterally() {
+        // When
+        Result wildcardUnauth = client.page("languageId=1&nameLike=4%255");
+        Result wildcardAuth = client.authorizedPage(1L, "languageId=1&nameLike=4%255");
+        Result literalUnauth = client.page("languageId=1&nameLike=4_5");
+        Result literalAuth = client.authorizedPage(1L, "languageId=1&nameLike=4_5");
+
+        // Then
+        assertThat(totalCountOf(wildcardUnauth), equalTo(0));
+        assertThat(totalCountOf(wildcardAuth), equalTo(0));
+        assertThat(ingredientTagIdsOf(literalUnauth), contains(5L));
+        assertThat(ingredientTagIdsOf(literalAuth), contains(5L));
+    }
+
     @Test
     // Given
     @DataSet(value = {"datasets/yml/ingredienttags.yml", "datasets/yml/ingredienttags-user-defined.yml"}, disableConstraints = true, cleanBefore = true)
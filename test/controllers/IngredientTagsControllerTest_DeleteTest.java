@@ -1,6 +1,7 @@
 package controllers;
 
 import clients.IngredientTagsTestClient;
+import clients.UserSearchesTestClient;
 import com.github.database.rider.core.api.dataset.DataSet;
 import org.junit.Before;
 import org.junit.Rule;
@@ -8,6 +9,7 @@ import org.junit.Test;
 import org.junit.rules.RuleChain;
 import play.mvc.Result;
 import rules.RuleChainForTests;
+import services.RecipeSearchService;
 
 import static extractors.DataFromResult.statusOf;
 import static extractors.IngredientTagsFromResult.conflictingUserSearchNamesOf;
@@ -23,10 +25,12 @@ public class IngredientTagsControllerTest_DeleteTest {
     public RuleChain chain = ruleChainForTests.getRuleChain();
 
     private IngredientTagsTestClient client;
+    private UserSearchesTestClient userSearchesClient;
 
     @Before
     public void setup() {
         client = new IngredientTagsTestClient(ruleChainForTests.getApplication());
+        userSearchesClient = new UserSearchesTestClient(ruleChainForTests.getApplication());
     }
 
     @Test
@@ -70,7 +74,8 @@ public class IngredientTagsControllerTest_DeleteTest {
     @DataSet(value = {
             "datasets/yml/ingredienttags.yml",
             "datasets/yml/ingredienttags-user-defined.yml",
-            "datasets/yml/ingredienttags-user-defined-user-search.yml"
+            "datasets/yml/ingredienttags-user-defined-user-search.yml",
+            "datasets/yml/ingredienttags-user-defined-user-search-tags.yml"
     }, disableConstraints = true, cleanBefore = true)
     public void testUserDefined_Delete_UserSearchExistsWithTagToDelete() {
         // When
@@ -80,4 +85,66 @@ public class IngredientTagsControllerTest_DeleteTest {
         assertThat(statusOf(result), equalTo(BAD_REQUEST));
         assertThat(conflictingUserSearchNamesOf(result), containsInAnyOrder("user1query1", "user1query2"));
     }
+
+    @Test
+    // Given
+    @DataSet(value = {"datasets/yml/ingredienttags.yml", "datasets/yml/ingredienttags-user-defined.yml"}, disableConstraints = true, cleanBefore = true)
+    public void testUserDefined_Delete_CreatedUserSearchExistsWithTagToDelete() {
+        // When
+        Result result = userSearchesClient.create(
+                "{" +
+                        "  \"name\": \"someName\"," +
+                        "  \"query\": {" +
+                        "    \"searchMode\": \"composed-of-number\"," +
+                        "    \"goodIngs\": 1," +
+                        "    \"goodIngsRel\": \"ge\"," +
+                        "    \"unknownIngs\": \"0\"," +
+                        "    \"unknownIngsRel\": \"ge\"," +
+                        "    \"inIngTags\": [10]" +
+                        "  }" +
+                        "}", 1L);
+        assertThat(statusOf(result), equalTo(CREATED));
+
+        result = client.delete(10L, 1L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+        assertThat(conflictingUserSearchNamesOf(result), containsInAnyOrder("someName"));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = {
+            "datasets/yml/ingredienttags.yml",
+            "datasets/yml/ingredienttags-user-defined.yml",
+            "datasets/yml/ingredienttags-user-defined-user-search.yml"
+    }, disableConstraints = true, cleanBefore = true)
+    public void testUserDefined_Delete_UserSearchExistsWithTagToDelete_Backfilled() {
+        // When
+        RecipeSearchService recipeSearchService = ruleChainForTests.getApplication().injector()
+                .instanceOf(RecipeSearchService.class);
+        recipeSearchService.backfillTagReferences();
+
+        Result result = client.delete(10L, 1L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+        assertThat(conflictingUserSearchNamesOf(result), containsInAnyOrder("user1query1", "user1query2"));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = {
+            "datasets/yml/ingredienttags.yml",
+            "datasets/yml/ingredienttags-user-defined.yml",
+            "datasets/yml/ingredienttags-user-defined-user-search.yml"
+    }, disableConstraints = true, cleanBefore = true)
+    public void testUserDefined_Delete_UserSearchExistsWithTagToDelete_NotBackfilled() {
+        // When
+        Result result = client.delete(10L, 1L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+        assertThat(conflictingUserSearchNamesOf(result), containsInAnyOrder("user1query1", "user1query2"));
+    }
 }
@@ -0,0 +1,70 @@
+package controllers;
+
+import clients.MetricsTestClient;
+import clients.SourcePagesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.FORBIDDEN;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.contentAsString;
+
+public class MetricsControllerTest {
+    @Rule
+    public RuleChain chain;
+
+    private MetricsTestClient client;
+    private SourcePagesTestClient sourcePagesClient;
+    private final RuleChainForTests ruleChainForTests;
+
+    public MetricsControllerTest() {
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.metrics.token", "someMetricsToken");
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new MetricsTestClient(ruleChainForTests.getApplication());
+        sourcePagesClient = new SourcePagesTestClient(ruleChainForTests.getApplication());
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testMetrics() {
+        // When
+        sourcePagesClient.all();
+        Result result = client.metrics("someMetricsToken");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        String metrics = contentAsString(result);
+        assertThat(metrics, containsString(
+                "http_request_ms_count{route=\"controllers.v1.SourcePagesController.sourcePages\",status=\"2xx\"} 1"));
+        assertThat(metrics, containsString(
+                "repository_calls_total{method=\"EbeanSourcePageRepository.allSourcePages\",outcome=\"ok\"} 1"));
+        assertThat(metrics, containsString("dispatcher_active_threads{dispatcher=\"database.dispatcher\"}"));
+        assertThat(metrics, containsString("jvm_threads "));
+    }
+
+    @Test
+    public void testMetricsInvalidToken() {
+        // When
+        Result result = client.metrics("invalidToken");
+
+        // Then
+        assertThat(statusOf(result), equalTo(FORBIDDEN));
+    }
+}
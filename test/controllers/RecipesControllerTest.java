@@ -5,14 +5,19 @@ import clients.SourcePagesTestClient;
 import com.github.database.rider.core.api.dataset.DataSet;
 import data.entities.*;
 import io.ebean.Ebean;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
 import play.mvc.Result;
+import queryparams.RecipesCursor;
 import rules.RuleChainForTests;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static extractors.DataFromResult.*;
 import static extractors.RecipesFromResult.*;
@@ -435,6 +440,231 @@ public class RecipesControllerTest {
         }
     }
 
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testPaging_Cursor() {
+        // Given
+        createRecipesInDbForPaging();
+        List<Long> offsetIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Result result = client.page("limit=20&orderBy=name&orderBySort=desc&offset=" + (i * 20));
+            offsetIds.addAll(recipeIdsOf(result));
+        }
+
+        // When
+        List<Long> cursorIds = new ArrayList<>();
+        String queryParams = "limit=20&orderBy=name&orderBySort=desc";
+        for (int i = 0; i < 3; i++) {
+            Result result = client.page(queryParams);
+
+            // Then
+            assertThat(statusOf(result), equalTo(OK));
+            assertThat(totalCountOf(result), equalTo(125));
+            assertThat(nextCursorOf(result), notNullValue());
+            cursorIds.addAll(recipeIdsOf(result));
+
+            queryParams = "limit=20&orderBy=name&orderBySort=desc&cursor=" + nextCursorOf(result);
+        }
+
+        assertThat(cursorIds, equalTo(offsetIds));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testPaging_CursorNullOrderValues() {
+        // Given
+        createRecipesInDbForPaging();
+        Ebean.createSqlUpdate("UPDATE recipe SET time = NULL WHERE name LIKE 'testRecipe_1%'").execute();
+
+        for (String sort : new String[]{"asc", "desc"}) {
+            List<Long> offsetIds = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                Result result = client.page("limit=20&orderBy=time&orderBySort=" + sort + "&offset=" + (i * 20));
+                offsetIds.addAll(recipeIdsOf(result));
+            }
+
+            // When
+            List<Long> cursorIds = new ArrayList<>();
+            String queryParams = "limit=20&orderBy=time&orderBySort=" + sort;
+            while (queryParams != null) {
+                Result result = client.page(queryParams);
+
+                // Then
+                assertThat(statusOf(result), equalTo(OK));
+                cursorIds.addAll(recipeIdsOf(result));
+
+                String cursor = nextCursorOf(result);
+                queryParams = cursor == null ? null : "limit=20&orderBy=time&orderBySort=" + sort + "&cursor=" + cursor;
+            }
+
+            assertThat(offsetIds.size(), equalTo(125));
+            assertThat(cursorIds, equalTo(offsetIds));
+        }
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testPaging_CursorNotMatchingOrder() {
+        // Given
+        Result firstPage = client.page("limit=2&orderBy=name&orderBySort=desc");
+        String cursor = nextCursorOf(firstPage);
+
+        // When
+        Result result = client.page("limit=2&orderBy=numofings&orderBySort=desc&cursor=" + cursor);
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testPaging_CursorValueOutOfRange() {
+        // Given
+        String timeCursor = new RecipesCursor("time", "asc", 1L, "99").encode();
+        String numOfIngsCursor = new RecipesCursor("numofings", "asc", 1L, "-1").encode();
+
+        // When
+        Result timeResult = client.page("limit=2&orderBy=time&orderBySort=asc&cursor=" + timeCursor);
+        Result numOfIngsResult = client.page("limit=2&orderBy=numofings&orderBySort=asc&cursor=" + numOfIngsCursor);
+
+        // Then
+        assertThat(statusOf(timeResult), equalTo(BAD_REQUEST));
+        assertThat(statusOf(numOfIngsResult), equalTo(BAD_REQUEST));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testPaging_CursorReusesTotalCount() {
+        // Given
+        String cursor = new RecipesCursor("name", "asc", 1L, "a", 1000, true).encode();
+
+        // When
+        Result result = client.page("limit=2&orderBy=name&orderBySort=asc&cursor=" + cursor);
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(totalCountOf(result), equalTo(1000));
+        assertThat(totalCountCappedOf(result), equalTo(true));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testCountMode_None() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "limit=2&offset=1&" +
+                "orderBy=name&orderBySort=asc&" +
+                "countMode=none&" +
+                "inIngs[0]=4&inIngTags[0]=1");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(2));
+        // Offset, items, and one more to indicate there are more results.
+        assertThat(totalCountOf(result), equalTo(4));
+        assertThat(totalCountCappedOf(result), equalTo(true));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testCountMode_Estimate() {
+        // When
+        Result result = client.page("limit=2&offset=0&countMode=estimate");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(2));
+        assertThat(totalCountOf(result), equalTo(5));
+        assertThat(totalCountCappedOf(result), equalTo(false));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testCountMode_Invalid() {
+        // When
+        Result result = client.page("limit=2&offset=0&countMode=sometimes");
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testIngredientNamesOfLanguage() {
+        // When
+        Result resultHu = client.page("limit=1&offset=0&languageId=1");
+        Result resultEn = client.page("limit=1&offset=0&languageId=2");
+
+        // Then
+        assertThat(statusOf(resultHu), equalTo(OK));
+        assertThat(recipeIdsOf(resultHu), contains(1L));
+        assertThat(ingredientNamesOf(resultHu, 0), contains("ingredient_1_hu", "ingredient_2_hu", "ingredient_3_hu"));
+
+        assertThat(statusOf(resultEn), equalTo(OK));
+        assertThat(ingredientNamesOf(resultEn, 0), contains("ingredient_1_en", "ingredient_2_en", "ingredient_3_en"));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testResultCache_EquivalentQueriesCached() {
+        // Given
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "inIngs[0]=4&inIngs[1]=1&inIngs[2]=4");
+        assertThat(recipeIdsOf(result), hasSize(4));
+        Ebean.createSqlUpdate("delete from recipe_ingredient where recipe_id = 1").execute();
+
+        // When
+        Result cachedResult = client.page("searchMode=composed-of-number&" +
+                "limit=50&offset=0&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "inIngs[0]=1&inIngs[1]=4");
+        Result notCachedResult = client.page("searchMode=composed-of-number&" +
+                "limit=49&offset=0&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "inIngs[0]=1&inIngs[1]=4");
+
+        // Then
+        assertThat(recipeIdsOf(cachedResult), hasSize(4));
+        assertThat(recipeIdsOf(notCachedResult), hasSize(3));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testQueryShapeMetricsRecorded() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "inIngs[0]=4&exIngs[0]=5");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+
+        MetricsRegistry metrics = ruleChainForTests.getApplication().injector().instanceOf(MetricsRegistry.class);
+        Histogram listHistogram = metrics.histogram("recipes_query_list_ms", "", Histogram.LATENCY_MS_BUCKETS,
+                "type", "number", "exclude", "true", "additional", "false", "favorites", "false",
+                "recipeBooks", "false", "nameLike", "false");
+        long[] counts = listHistogram.cumulativeCounts();
+        assertThat(counts[counts.length - 1], equalTo(1L));
+    }
+
     @Test
     // Given
     @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
@@ -0,0 +1,220 @@
+package controllers;
+
+import clients.RecipesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import io.ebean.Ebean;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import static extractors.DataFromResult.statusOf;
+import static extractors.DataFromResult.totalCountOf;
+import static extractors.RecipesFromResult.recipeIdsOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+
+public class RecipesController_BitmapRecipeRepositoryTest {
+    @Rule
+    public RuleChain chain;
+
+    private RecipesTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public RecipesController_BitmapRecipeRepositoryTest() {
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.recipes.repository", "bitmap");
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new RecipesTestClient(ruleChainForTests.getApplication());
+        Ebean.createSqlUpdate("update recipe " +
+                "set numofings = (select count(*) from recipe_ingredient where recipe.id = recipe_ingredient.recipe_id)")
+                .execute();
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfNumber_Commons() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=4&unknownIngsRel=le&" +
+                "goodIngs=2&goodIngsRel=ge&" +
+                "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=5&" +
+                "inIngs[0]=1&inIngs[1]=3&exIngs[0]=5");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(2));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(1L, 2L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfNumber_AtLeastWithExTags() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=2&goodIngsRel=ge&" +
+                "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "inIngs[0]=5&inIngs[1]=6&exIngs[0]=4&exIngTags[0]=3");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(1));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfNumber_Exact() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=le&" +
+                "goodIngs=3&goodIngsRel=eq&" +
+                "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "inIngs[0]=5&inIngs[1]=6&inIngs[2]=7");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), contains(4L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfNumber_WithAdditionals_WithTags() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "limit=50&offset=0&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=1&goodIngsRel=eq&" +
+                "goodAdditionalIngs=1&goodAdditionalIngsRel=ge&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=5&" +
+                "inIngs[0]=4&addIngTags[0]=7");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(2));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(2L, 3L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfRatio_StrictTagsOnly() {
+        // When
+        Result result = client.page("searchMode=composed-of-ratio&" +
+                "goodIngsRatio=1.0&" +
+                "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=4&" +
+                "inIngs[0]=10&inIngTags[0]=1&inIngTags[1]=2");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(2));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(3L, 5L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfRatio_WithAdditionals() {
+        // When
+        Result result = client.page("searchMode=composed-of-ratio&" +
+                "goodIngsRatio=0.9&" +
+                "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "goodAdditionalIngs=1&goodAdditionalIngsRel=ge&" +
+                "minIngs=1&maxIngs=5&" +
+                "inIngs[0]=1&inIngs[1]=2&inIngs[2]=3&inIngs[3]=4&addIngs[0]=1");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), contains(1L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOfNumber_PagingAndOrder() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "limit=2&offset=1&" +
+                "orderBy=name&orderBySort=desc&" +
+                "minIngs=1&maxIngs=8&" +
+                "inIngs[0]=4&inIngTags[0]=1");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(totalCountOf(result), equalTo(4));
+        assertThat(recipeIdsOf(result), hasSize(2));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testQueryShapeMetricsRecorded() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "inIngs[0]=4&exIngs[0]=5");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+
+        MetricsRegistry metrics = ruleChainForTests.getApplication().injector().instanceOf(MetricsRegistry.class);
+        Histogram matchHistogram = metrics.histogram("recipes_query_bitmap_match_us", "", Histogram.LATENCY_US_BUCKETS,
+                "type", "number", "exclude", "true", "additional", "false", "favorites", "false",
+                "recipeBooks", "false", "nameLike", "false");
+        long[] counts = matchHistogram.cumulativeCounts();
+        assertThat(counts[counts.length - 1], equalTo(1L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testOrderByName_CollationAndNulls() {
+        // Given
+        Ebean.createSqlUpdate("update recipe set name = 'Recipe_9' where id = 5").execute();
+        Ebean.createSqlUpdate("update recipe set name = null where id = 3").execute();
+        String queryParams = "searchMode=composed-of-number&" +
+                "unknownIngs=0&unknownIngsRel=ge&" +
+                "goodIngs=0&goodIngsRel=gt&" +
+                "limit=50&offset=0&" +
+                "inIngs[0]=1&inIngs[1]=2&inIngs[2]=4&inIngs[3]=5&";
+
+        // When
+        Result ascending = client.page(queryParams + "orderBy=name&orderBySort=asc");
+        Result descending = client.page(queryParams + "orderBy=name&orderBySort=desc");
+
+        // Then
+        assertThat(statusOf(ascending), equalTo(OK));
+        assertThat(recipeIdsOf(ascending), contains(1L, 2L, 4L, 5L, 3L));
+        assertThat(statusOf(descending), equalTo(OK));
+        assertThat(recipeIdsOf(descending), contains(3L, 5L, 4L, 2L, 1L));
+    }
+}
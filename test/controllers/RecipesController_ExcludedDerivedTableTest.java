@@ -0,0 +1,80 @@
+package controllers;
+
+import clients.RecipesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import io.ebean.Ebean;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import static extractors.DataFromResult.statusOf;
+import static extractors.RecipesFromResult.recipeIdsOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static play.test.Helpers.OK;
+
+// Excluded ingredients are filtered by the anti join by default for the small data sets, so here the
+// derived table strategy is forced.
+public class RecipesController_ExcludedDerivedTableTest {
+    @Rule
+    public RuleChain chain;
+
+    private RecipesTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public RecipesController_ExcludedDerivedTableTest() {
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.recipes.excluded.antijoin.maxrecipes", 0);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new RecipesTestClient(ruleChainForTests.getApplication());
+        Ebean.createSqlUpdate("update recipe " +
+                "set numofings = (select count(*) from recipe_ingredient where recipe.id = recipe_ingredient.recipe_id)")
+                .execute();
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testComposedOf_ExcludedOverlaps() {
+        // When
+        Result result = client.page("searchMode=composed-of-number&" +
+                "limit=50&offset=0&" +
+                "unknownIngs=4&unknownIngsRel=le&" +
+                "goodIngs=2&goodIngsRel=ge&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=5&" +
+                "inIngs[0]=1&inIngs[1]=2&exIngs[0]=4&exIngs[1]=5");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(1));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(1L));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testNone_Excluded() {
+        // When
+        Result result = client.page("limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=8&" +
+                "exIngs[0]=1&exIngs[1]=2");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), hasSize(3));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(3L, 4L, 5L));
+    }
+}
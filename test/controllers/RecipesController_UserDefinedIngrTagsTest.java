@@ -1,7 +1,9 @@
 package controllers;
 
+import clients.IngredientTagsTestClient;
 import clients.RecipesTestClient;
 import com.github.database.rider.core.api.dataset.DataSet;
+import dto.IngredientTagCreateUpdateDto;
 import io.ebean.Ebean;
 import org.junit.Before;
 import org.junit.Rule;
@@ -10,12 +12,15 @@ import org.junit.rules.RuleChain;
 import play.mvc.Result;
 import rules.RuleChainForTests;
 
+import java.util.Arrays;
+
 import static extractors.DataFromResult.statusOf;
 import static extractors.RecipesFromResult.recipeIdsOf;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
+import static play.mvc.Http.Status.NO_CONTENT;
 import static play.mvc.Http.Status.OK;
 
 public class RecipesController_UserDefinedIngrTagsTest {
@@ -25,10 +30,12 @@ public class RecipesController_UserDefinedIngrTagsTest {
     public RuleChain chain = ruleChainForTests.getRuleChain();
 
     private RecipesTestClient client;
+    private IngredientTagsTestClient tagsClient;
 
     @Before
     public void before() {
         client = new RecipesTestClient(ruleChainForTests.getApplication());
+        tagsClient = new IngredientTagsTestClient(ruleChainForTests.getApplication());
         Ebean.createSqlUpdate("update recipe " +
                 "set numofings = (select count(*) from recipe_ingredient where recipe.id = recipe_ingredient.recipe_id)")
                 .execute();
@@ -191,4 +198,35 @@ public class RecipesController_UserDefinedIngrTagsTest {
         assertThat(recipeIdsOf(result), hasSize(1));
         assertThat(recipeIdsOf(result), containsInAnyOrder(2L));
     }
+
+    @Test
+    // Given
+    @DataSet(value = {"datasets/yml/recipes.yml", "datasets/yml/recipes-user-defined-tags.yml"}, disableConstraints = true, cleanBefore = true)
+    public void testRecipesWithUserDefinedIngrTags_TagUpdated() {
+        // When
+        String query = "limit=50&offset=0&" +
+                "orderBy=name&orderBySort=asc&" +
+                "minIngs=1&maxIngs=8&" +
+                "exIngTags[0]=8";
+        Result result = client.page(query, 1L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(3L, 4L, 5L));
+
+        // When
+        IngredientTagCreateUpdateDto dto = new IngredientTagCreateUpdateDto();
+        dto.name = "user_1_ingredient_tag_1_updated";
+        dto.languageId = 1L;
+        dto.ingredientIds = Arrays.asList(4L);
+
+        result = tagsClient.update(8L, dto, 1L);
+        assertThat(statusOf(result), equalTo(NO_CONTENT));
+
+        result = client.page(query, 1L);
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(recipeIdsOf(result), containsInAnyOrder(1L, 4L));
+    }
 }
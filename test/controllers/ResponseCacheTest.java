@@ -0,0 +1,109 @@
+package controllers;
+
+import clients.GlobalSearchesTestClient;
+import clients.IngredientNamesTestClient;
+import com.github.database.rider.core.api.dataset.DataSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Http;
+import play.mvc.Result;
+import rules.RuleChainForTests;
+
+import java.util.Optional;
+
+import static extractors.DataFromResult.itemsSizeOf;
+import static extractors.DataFromResult.sizeAsJsonOf;
+import static extractors.DataFromResult.statusOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static play.test.Helpers.NOT_MODIFIED;
+import static play.test.Helpers.OK;
+
+public class ResponseCacheTest {
+    @Rule
+    public RuleChain chain;
+
+    private GlobalSearchesTestClient client;
+    private final RuleChainForTests ruleChainForTests;
+
+    public ResponseCacheTest() {
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .configure("cooksm.art.responsecache.enabled", true);
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        client = new GlobalSearchesTestClient(ruleChainForTests.getApplication());
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/globalsearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testNotModified() {
+        // When
+        Result result = client.all();
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(sizeAsJsonOf(result), equalTo(3));
+        Optional<String> etag = result.header(Http.HeaderNames.ETAG);
+        assertTrue(etag.isPresent());
+
+        // When
+        result = client.all(Http.HeaderNames.IF_NONE_MATCH, etag.get());
+
+        // Then
+        assertThat(statusOf(result), equalTo(NOT_MODIFIED));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/globalsearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testGzipped() {
+        // When
+        Result plainResult = client.all();
+        Result gzippedResult = client.all(Http.HeaderNames.ACCEPT_ENCODING, "gzip, deflate");
+
+        // Then
+        assertThat(statusOf(gzippedResult), equalTo(OK));
+        assertThat(gzippedResult.header(Http.HeaderNames.CONTENT_ENCODING), equalTo(Optional.of("gzip")));
+        assertThat(gzippedResult.header(Http.HeaderNames.ETAG), not(equalTo(plainResult.header(Http.HeaderNames.ETAG))));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/globalsearches.yml", disableConstraints = true, cleanBefore = true)
+    public void testGzipRefused() {
+        // When
+        Result result = client.all(Http.HeaderNames.ACCEPT_ENCODING, "gzip;q=0, identity");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(result.header(Http.HeaderNames.CONTENT_ENCODING), equalTo(Optional.empty()));
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/ingredientnames.yml", disableConstraints = true, cleanBefore = true)
+    public void testEncodedSeparatorsNotSharingEntry() {
+        // Given
+        IngredientNamesTestClient namesClient = new IngredientNamesTestClient(ruleChainForTests.getApplication());
+        Result withEncodedSeparators = namesClient.page("languageId=1&nameLike=hu%26offset%3D0");
+
+        // When
+        Result result = namesClient.page("languageId=1&nameLike=hu&offset=0");
+
+        // Then
+        assertThat(statusOf(withEncodedSeparators), equalTo(OK));
+        assertThat(itemsSizeOf(withEncodedSeparators), equalTo(0));
+        assertThat(statusOf(result), equalTo(OK));
+        assertThat(itemsSizeOf(result), equalTo(5));
+    }
+}
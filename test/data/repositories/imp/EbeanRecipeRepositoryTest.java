@@ -0,0 +1,70 @@
+package data.repositories.imp;
+
+import io.ebean.SqlRow;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EbeanRecipeRepositoryTest {
+    @Test
+    public void testSelectedTotalCount_FromFirstRow() {
+        // Given
+        SqlRow first = rowWithTotalCount(42);
+        SqlRow second = rowWithTotalCount(42);
+
+        // When
+        Integer totalCount = EbeanRecipeRepository.selectedTotalCountOf(Arrays.asList(first, second), 20);
+
+        // Then
+        assertThat(totalCount, equalTo(42));
+    }
+
+    @Test
+    public void testSelectedTotalCount_EmptyFirstPage() {
+        // When
+        Integer totalCount = EbeanRecipeRepository.selectedTotalCountOf(Collections.emptyList(), 0);
+
+        // Then
+        assertThat(totalCount, equalTo(0));
+    }
+
+    @Test
+    public void testSelectedTotalCount_EmptyPagePastTheEnd() {
+        // When
+        Integer totalCount = EbeanRecipeRepository.selectedTotalCountOf(Collections.emptyList(), 100);
+
+        // Then
+        assertThat(totalCount, nullValue());
+    }
+
+    @Test
+    public void testLowerBoundCount_HasMore() {
+        // When
+        int totalCount = EbeanRecipeRepository.lowerBoundCountOf(20, 10, true);
+
+        // Then
+        assertThat(totalCount, equalTo(31));
+    }
+
+    @Test
+    public void testLowerBoundCount_LastPage() {
+        // When
+        int totalCount = EbeanRecipeRepository.lowerBoundCountOf(20, 4, false);
+
+        // Then
+        assertThat(totalCount, equalTo(24));
+    }
+
+    private static SqlRow rowWithTotalCount(int totalCount) {
+        SqlRow row = mock(SqlRow.class);
+        when(row.getInteger("total_count")).thenReturn(totalCount);
+        return row;
+    }
+}
@@ -0,0 +1,231 @@
+package data.repositories.imp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class RecipeQuerySqlTest {
+    @Test
+    public void testIngredientArray_Number() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("recipe.ingredient_ids && ARRAY[:includedIngredients]::int[]"));
+        assertThat(sql, containsString("icount(recipe.ingredient_ids & ARRAY[:includedIngredients]::int[]) >= :goodIngredients"));
+        assertThat(sql, containsString("(recipe.numofings - icount(recipe.ingredient_ids & ARRAY[:includedIngredients]::int[])) <= :unknownIngredients"));
+        assertThat(sql, not(containsString("recipe_ingredient")));
+        assertThat(sql, not(containsString("GROUP BY")));
+        assertThat(sql, not(containsString("HAVING")));
+    }
+
+    @Test
+    public void testIngredientArray_Ratio() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.RATIO);
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("(icount(recipe.ingredient_ids & ARRAY[:includedIngredients]::int[]) * 1.0) / (recipe.numofings * 1.0) >= :ratio"));
+        assertThat(sql, not(containsString("recipe_ingredient")));
+        assertThat(sql, not(containsString("HAVING")));
+    }
+
+    @Test
+    public void testIngredientArray_ExcludedAndAdditional() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        config.useExclude = true;
+        config.useAdditionalIngrs = true;
+        config.goodAdditionalIngredientsRelation = ">=";
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("NOT (recipe.ingredient_ids && ARRAY[:excludedIngredients]::int[])"));
+        assertThat(sql, containsString("icount(recipe.ingredient_ids & ARRAY[:additionalIngredientIds]::int[]) >= :goodAdditionalIngredients"));
+        assertThat(sql, not(containsString("badIngs")));
+        assertThat(sql, not(containsString("recipe_ingredient")));
+    }
+
+    @Test
+    public void testIngredientArray_Count() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+
+        // When
+        String sql = RecipeQuerySql.createCount(config, true);
+
+        // Then
+        assertThat(sql, containsString("SELECT COUNT(*) AS total_count FROM (SELECT   recipe.id FROM   recipe"));
+        assertThat(sql, containsString("recipe.ingredient_ids && ARRAY[:includedIngredients]::int[]"));
+        assertThat(sql, containsString("LIMIT :countCap"));
+        assertThat(sql, not(containsString("ORDER BY")));
+    }
+
+    @Test
+    public void testArrayBinds() {
+        // Given
+        RecipeQuerySql.Configuration config = new RecipeQuerySql.Configuration(true, true, RecipeQuerySql.QueryType.NUMBER);
+        config.goodIngredientsRelation = ">=";
+        config.unknownIngredientsRelation = "<=";
+        config.useAdditionalIngrs = true;
+        config.goodAdditionalIngredientsRelation = ">=";
+        config.useRecipeBooks = true;
+        config.useSourcePages = true;
+        config.useTimes = true;
+        config.useArrayBinds = true;
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("recipe_ingredient.ingredient_id = ANY(CAST(:includedIngredients AS bigint[]))"));
+        assertThat(sql, containsString("ie.ingredient_id = ANY(CAST(:excludedIngredients AS bigint[]))"));
+        assertThat(sql, containsString("recipe_ingredient.ingredient_id = ANY(CAST(:additionalIngredientIds AS bigint[]))"));
+        assertThat(sql, containsString("recipe_book_recipe.recipe_book_id = ANY(CAST(:usedRecipeBooks AS bigint[]))"));
+        assertThat(sql, containsString("recipe.source_page_id = ANY(CAST(:sourcePageIds AS bigint[]))"));
+        assertThat(sql, containsString("recipe.time = ANY(CAST(:times AS int[]))"));
+        assertThat(sql, not(containsString("IN (:")));
+    }
+
+    @Test
+    public void testArrayBinds_IngredientArray() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        config.useExclude = true;
+        config.useArrayBinds = true;
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("recipe.ingredient_ids && CAST(:includedIngredients AS int[])"));
+        assertThat(sql, containsString("NOT (recipe.ingredient_ids && CAST(:excludedIngredients AS int[]))"));
+        assertThat(sql, not(containsString("ARRAY[")));
+    }
+
+    @Test
+    public void testSelectTotalCount() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        config.selectTotalCount = true;
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString(", COUNT(*) OVER() AS total_count "));
+        assertThat(sql, containsString("LIMIT :limit"));
+    }
+
+    @Test
+    public void testSelectTotalCount_Seek() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        config.useSeek = true;
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+        String countSql = RecipeQuerySql.createCount(config, true);
+
+        // Then
+        assertThat(sql, not(containsString("COUNT(*) OVER()")));
+        assertThat(countSql, not(containsString("COUNT(*) OVER()")));
+        assertThat(countSql, containsString("LIMIT :countCap"));
+    }
+
+    @Test
+    public void testNameLike_NormalizedNames() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        config.useNameLike = true;
+        config.useNormalizedNames = true;
+        config.useNameSimilarity = true;
+
+        // When
+        String sql = RecipeQuerySql.generate(config);
+
+        // Then
+        assertThat(sql, containsString("recipe.name_normalized % normalized_name(:nameLike)"));
+        assertThat(sql, not(containsString("<->")));
+        assertThat(sql, containsString("recipe.name_normalized LIKE ('%' || normalized_name(:nameLike) || '%')"));
+        assertThat(sql, not(containsString("nameLikeForIlike")));
+    }
+
+    @Test
+    public void testCreate_CachedPerConfiguration() {
+        // Given
+        RecipeQuerySql.Configuration config = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+        RecipeQuerySql.Configuration sameConfig = ingredientArrayConfig(RecipeQuerySql.QueryType.NUMBER);
+
+        // When
+        String sql = RecipeQuerySql.create(config);
+        config.useExclude = true;
+        String sqlOfSameConfig = RecipeQuerySql.create(sameConfig);
+
+        // Then
+        assertThat(sql, equalTo(RecipeQuerySql.generate(sameConfig)));
+        assertThat(sqlOfSameConfig, sameInstance(sql));
+    }
+
+    @Test
+    public void testArrayOf() {
+        // When
+        String array = RecipeQuerySql.arrayOf(Arrays.asList(3L, 1L, 42L));
+
+        // Then
+        assertThat(array, equalTo("{3,1,42}"));
+    }
+
+    @Test
+    public void testShapeIndex_DistinctPerShape() {
+        // Given
+        Set<Integer> indexes = new HashSet<>();
+        Set<List<String>> shapes = new HashSet<>();
+
+        // When
+        for (RecipeQuerySql.QueryType queryType : RecipeQuerySql.QueryType.values()) {
+            for (int flags = 0; flags < 32; flags++) {
+                RecipeQuerySql.Configuration config = new RecipeQuerySql.Configuration(true, (flags & 1) != 0, queryType);
+                config.useAdditionalIngrs = (flags & 2) != 0;
+                config.useFavoritesOnly = (flags & 4) != 0;
+                config.useRecipeBooks = (flags & 8) != 0;
+                config.useNameLike = (flags & 16) != 0;
+                config.useSeek = true;
+
+                indexes.add(config.shapeIndex());
+                shapes.add(Arrays.asList(config.shapeLabels()));
+                assertThat(config.shapeIndex() < RecipeQuerySql.Configuration.NUM_OF_SHAPES, equalTo(true));
+            }
+        }
+
+        // Then
+        assertThat(indexes.size(), equalTo(shapes.size()));
+        assertThat(indexes.size(), equalTo(RecipeQuerySql.Configuration.NUM_OF_SHAPES));
+    }
+
+    private static RecipeQuerySql.Configuration ingredientArrayConfig(RecipeQuerySql.QueryType queryType) {
+        RecipeQuerySql.Configuration config = new RecipeQuerySql.Configuration(true, false, queryType);
+        config.useIngredientArray = true;
+        config.usePaging = true;
+        config.goodIngredientsRelation = ">=";
+        config.unknownIngredientsRelation = "<=";
+        return config;
+    }
+}
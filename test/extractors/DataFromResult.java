@@ -17,6 +17,18 @@ public class DataFromResult {
         return json.get("totalCount").asInt();
     }
 
+    public static boolean totalCountCappedOf(Result result) {
+        JsonNode json = toJson(result);
+        JsonNode totalCountCapped = json.get("totalCountCapped");
+        return totalCountCapped != null && totalCountCapped.asBoolean();
+    }
+
+    public static String nextCursorOf(Result result) {
+        JsonNode json = toJson(result);
+        JsonNode nextCursor = json.get("nextCursor");
+        return nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText();
+    }
+
     public static int statusOf(Result result) {
         return result.status();
     }
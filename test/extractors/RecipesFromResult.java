@@ -18,6 +18,14 @@ public class RecipesFromResult {
         return values.of(result);
     }
 
+    public static List<String> ingredientNamesOf(Result result, int atItemIndex) {
+        ListOfValuesFromResult<String> values = new ListOfValuesFromResult<String>()
+                .select("$.items[" + atItemIndex + "].ingredients")
+                .converting(n -> n.get("name").asText());
+
+        return values.of(result);
+    }
+
     public static Long singleRecipeIdOf(Result result) {
         JsonNode json = toJson(result);
         return json.get("id").asLong();
@@ -0,0 +1,88 @@
+package services;
+
+import com.github.database.rider.core.api.dataset.DataSet;
+import data.repositories.RecipeRepository;
+import lombokized.dto.PageDto;
+import lombokized.dto.RecipeDto;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import queryparams.RecipesQueryParams;
+import rules.RuleChainForTests;
+import utils.BlockingRecipeRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static play.inject.Bindings.bind;
+
+public class RecipesService_CoalescingTest {
+    @Rule
+    public RuleChain chain;
+
+    private RecipesService service;
+    private MetricsRegistry metrics;
+    private final RuleChainForTests ruleChainForTests;
+
+    public RecipesService_CoalescingTest() {
+        // Recipe queries stay in flight until released.
+        BlockingRecipeRepository.block();
+        GuiceApplicationBuilder appBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(RecipeRepository.class).to(BlockingRecipeRepository.class));
+        ruleChainForTests = new RuleChainForTests(appBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void before() {
+        service = ruleChainForTests.getApplication().injector().instanceOf(RecipesService.class);
+        metrics = ruleChainForTests.getApplication().injector().instanceOf(MetricsRegistry.class);
+    }
+
+    @After
+    public void after() {
+        BlockingRecipeRepository.release();
+    }
+
+    @Test
+    // Given
+    @DataSet(value = "datasets/yml/recipes.yml", disableConstraints = true, cleanBefore = true)
+    public void testIdenticalConcurrentQueriesCoalesced() throws Exception {
+        // Given
+        RecipesQueryParams.Params params = new RecipesQueryParams.Params();
+        params.limit = 50;
+        params.offset = 0;
+
+        // When
+        CompletableFuture<PageDto<RecipeDto>> first = service.pageOfQueryTypeNone(params).toCompletableFuture();
+        CompletableFuture<PageDto<RecipeDto>> second = service.pageOfQueryTypeNone(params).toCompletableFuture();
+        BlockingRecipeRepository.release();
+        PageDto<RecipeDto> firstPage = first.get(10, TimeUnit.SECONDS);
+        PageDto<RecipeDto> secondPage = second.get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(idsOf(secondPage), equalTo(idsOf(firstPage)));
+        assertThat(secondPage, not(sameInstance(firstPage)));
+        assertThat(BlockingRecipeRepository.numOfPageQueries(), equalTo(1));
+
+        Counter coalesced = metrics.counter("recipes_query_coalesced_total", "");
+        assertThat(coalesced.value(), equalTo(1L));
+    }
+
+    private static List<Long> idsOf(PageDto<RecipeDto> page) {
+        return page.getItems().stream()
+                .map(RecipeDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+import data.entities.GlobalSearch;
+import data.repositories.GlobalSearchRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// Global searches are returned only when released, so warm-up can be held in progress.
+public class BlockingGlobalSearchRepository implements GlobalSearchRepository {
+    private static CountDownLatch latch = new CountDownLatch(1);
+
+    @Override
+    public List<GlobalSearch> all() {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return Collections.emptyList();
+    }
+
+    public static void block() {
+        latch = new CountDownLatch(1);
+    }
+
+    public static void release() {
+        latch.countDown();
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import data.entities.Recipe;
+import data.entities.RecipeBook;
+import data.repositories.RecipeRepository;
+import data.repositories.imp.EbeanRecipeRepository;
+import lombokized.dto.RecipeDto;
+import lombokized.repositories.Page;
+import lombokized.repositories.RecipeRepositoryParams.Common;
+import lombokized.repositories.RecipeRepositoryParams.QueryTypeNumber;
+import lombokized.repositories.RecipeRepositoryParams.QueryTypeRatio;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Recipe pages are queried only when released, so queries can be held in flight. Page queries are counted.
+public class BlockingRecipeRepository implements RecipeRepository {
+    private static CountDownLatch latch = new CountDownLatch(1);
+    private static final AtomicInteger numOfPageQueries = new AtomicInteger();
+
+    private final EbeanRecipeRepository repository;
+
+    @Inject
+    public BlockingRecipeRepository(EbeanRecipeRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeNumber(QueryTypeNumber params) {
+        awaitRelease();
+        return repository.pageOfQueryTypeNumber(params);
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeRatio(QueryTypeRatio params) {
+        awaitRelease();
+        return repository.pageOfQueryTypeRatio(params);
+    }
+
+    @Override
+    public Page<Long> pageOfQueryTypeNone(Common params) {
+        awaitRelease();
+        return repository.pageOfQueryTypeNone(params);
+    }
+
+    @Override
+    public List<RecipeDto> dtosOf(List<Long> ids, Long languageId) {
+        return repository.dtosOf(ids, languageId);
+    }
+
+    @Override
+    public Recipe single(Long id) {
+        return repository.single(id);
+    }
+
+    @Override
+    public List<RecipeBook> recipeBooksOf(Long id, Long userId) {
+        return repository.recipeBooksOf(id, userId);
+    }
+
+    public static void block() {
+        latch = new CountDownLatch(1);
+        numOfPageQueries.set(0);
+    }
+
+    public static void release() {
+        latch.countDown();
+    }
+
+    public static int numOfPageQueries() {
+        return numOfPageQueries.get();
+    }
+
+    private static void awaitRelease() {
+        numOfPageQueries.incrementAndGet();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}